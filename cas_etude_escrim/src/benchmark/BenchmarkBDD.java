@@ -0,0 +1,104 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import model.BDD;
+import model.ConfigurationBDD;
+import model.PoolConnexions;
+import view.LogisticienView;
+
+/**
+ * Banc d'essai des chemins d'accès aux données de {@link BDD}, sur une base
+ * H2 embarquée remplie à plusieurs volumes par {@link GenerateurDonnees}.
+ * Pour chaque volume et chaque
+ * nombre de threads, il rapporte le débit et la mémoire allouée par opération,
+ * à comparer avec une exécution de référence avant une modification du modèle.
+ *
+ * Usage : {@code java benchmark.BenchmarkBDD [lots,...] [threads,...] [iterations]},
+ * par exemple {@code java benchmark.BenchmarkBDD 1000,10000 1,4 2000}.
+ */
+public final class BenchmarkBDD {
+	private static final LocalDate REFERENCE = LocalDate.of(2024, 6, 1);
+
+	private BenchmarkBDD() {
+	}
+
+	/**
+	 * Point d'entrée du banc d'essai.
+	 *
+	 * @param args Les nombres de lots de médicaments, les nombres de threads et
+	 *             le nombre d'itérations mesurées par thread.
+	 * @throws Exception Si une opération échoue.
+	 */
+	public static void main(String[] args) throws Exception {
+		int[] tailles = entiers(args.length > 0 ? args[0] : "1000,10000");
+		int[] threads = entiers(args.length > 1 ? args[1] : "1,4");
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+		for (int taille : tailles) {
+			Path repertoire = Files.createTempDirectory("escrim-bench");
+			ConfigurationBDD configuration = new ConfigurationBDD(ConfigurationBDD.Mode.EMBARQUE, null,
+					repertoire.resolve("bdd").toString(), 64 * 1024, false, 0, null);
+			PoolConnexions pool = BDD.openDBConnection(configuration);
+			try {
+				BDD bdd = new BDD(pool);
+				bdd.initialiserSchema();
+				GenerateurDonnees donnees = new GenerateurDonnees(42, REFERENCE, taille, taille / 4,
+						Math.max(10, taille / 20), taille / 2, Math.max(10, taille / 100), 10, taille);
+				donnees.generer(pool);
+				System.out.println("== " + donnees);
+				for (int nombreThreads : threads) {
+					mesurer(bdd, donnees, nombreThreads, iterations);
+				}
+			} finally {
+				pool.fermer();
+			}
+		}
+	}
+
+	private static void mesurer(BDD bdd, GenerateurDonnees donnees, int threads, int iterations) throws Exception {
+		int echauffement = iterations / 5;
+		int parcours = Math.max(10, iterations / 100);
+		// Seuls les lots bien approvisionnés sont prescrits, pour mesurer des délivrances qui aboutissent.
+		int[] approvisionnes = IntStream.range(0, donnees.getLots()).filter(lot -> donnees.quantiteInitiale(lot) >= 100)
+				.toArray();
+		System.out.println(Harnais.mesurer("stockerUtilisateurParIdentifiant", threads, echauffement, iterations,
+				() -> bdd.stockerUtilisateurParIdentifiant(donnees.identifiantPersonnel(hasard(donnees.getPersonnel())))));
+		System.out.println(Harnais.mesurer("recupererPrescriptionsParPatient", threads, echauffement, iterations, () -> {
+			int patient = hasard(donnees.getPatients());
+			bdd.recupererPrescriptionsParPatient(donnees.prenomPatient(patient), donnees.nomPatient(patient));
+		}));
+		System.out.println(Harnais.mesurer("insererPrescription", threads, echauffement, iterations, () -> {
+			int patient = hasard(donnees.getPatients());
+			bdd.insererPrescription(donnees.prenomPatient(patient), donnees.nomPatient(patient),
+					donnees.nomMedicament(approvisionnes[hasard(approvisionnes.length)]), 1,
+					donnees.identifiantMedecin(hasard(donnees.getPersonnel())),
+					donnees.infoAttentat(hasard(donnees.getAttentats())));
+		}));
+		System.out.println(Harnais.mesurer("updateAvion", threads, echauffement, iterations, () -> {
+			int attentat = hasard(donnees.getAttentats());
+			bdd.updateAvion(donnees.nomAvion(hasard(donnees.getAvions())), "occupé", donnees.lieuAttentat(attentat),
+					donnees.dateAttentat(attentat));
+		}));
+		System.out.println(Harnais.mesurer("recupererStocksBas", threads, parcours / 5, parcours,
+				() -> bdd.recupererStocksBas(LogisticienView.SEUIL_STOCK_BAS)));
+		System.out.println(Harnais.mesurer("recupererStocksMedicaments", threads, parcours / 5, parcours,
+				bdd::recupererStocksMedicaments));
+	}
+
+	private static int hasard(int borne) {
+		return ThreadLocalRandom.current().nextInt(borne);
+	}
+
+	private static int[] entiers(String liste) {
+		String[] valeurs = liste.split(",");
+		int[] entiers = new int[valeurs.length];
+		for (int i = 0; i < valeurs.length; i++) {
+			entiers[i] = Integer.parseInt(valeurs[i].trim());
+		}
+		return entiers;
+	}
+}
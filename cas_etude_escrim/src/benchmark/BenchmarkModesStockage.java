@@ -0,0 +1,95 @@
+package benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.h2.tools.Server;
+
+import model.BDD;
+import model.ConfigurationBDD;
+import model.PoolConnexions;
+
+/**
+ * Compare les opérations de {@link BDD} selon le mode de stockage : base
+ * embarquée dans le processus, et serveur TCP local (boucle réseau).
+ * Les deux bases sont créées dans un répertoire temporaire et remplies à
+ * l'identique par {@link GenerateurDonnees}.
+ *
+ * Usage : {@code java benchmark.BenchmarkModesStockage [lots] [iterations]}
+ */
+public final class BenchmarkModesStockage {
+	private static final LocalDate REFERENCE = LocalDate.of(2024, 6, 1);
+
+	private BenchmarkModesStockage() {
+	}
+
+	/**
+	 * Point d'entrée du banc d'essai.
+	 *
+	 * @param args Le nombre de lots de médicaments et le nombre d'itérations mesurées.
+	 * @throws Exception Si une opération échoue.
+	 */
+	public static void main(String[] args) throws Exception {
+		int lots = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+		Path repertoire = Files.createTempDirectory("escrim-bench");
+
+		ConfigurationBDD embarque = new ConfigurationBDD(ConfigurationBDD.Mode.EMBARQUE, null,
+				repertoire.resolve("embarque").toString(), 64 * 1024, false, 0, null);
+		mesurerMode("embarqué", embarque, lots, iterations);
+
+		int port = portLibre();
+		Server serveur = Server.createTcpServer("-tcpPort", String.valueOf(port), "-baseDir", repertoire.toString(),
+				"-ifNotExists").start();
+		try {
+			ConfigurationBDD tcp = new ConfigurationBDD(ConfigurationBDD.Mode.TCP, "localhost:" + port, "tcp", 0, false,
+					0, null);
+			mesurerMode("TCP local", tcp, lots, iterations);
+		} finally {
+			serveur.stop();
+		}
+	}
+
+	private static void mesurerMode(String libelle, ConfigurationBDD configuration, int lots, int iterations)
+			throws Exception {
+		PoolConnexions pool = BDD.openDBConnection(configuration);
+		BDD bdd = new BDD(pool);
+		try {
+			bdd.initialiserSchema();
+			GenerateurDonnees donnees = new GenerateurDonnees(42, REFERENCE, lots, lots, 10, 20, 10, 1, 200);
+			donnees.generer(pool);
+			String[] lot = donnees.nomMedicament(7 % lots).split(" ; ");
+			String medecin = donnees.identifiantMedecin(0);
+			int[] approvisionnes = IntStream.range(0, lots).filter(i -> donnees.quantiteInitiale(i) >= 100).toArray();
+			int echauffement = iterations / 5;
+			System.out.println("== Mode " + libelle + " (" + configuration.url() + ")");
+			System.out.println(Harnais.mesurer("stockerUtilisateurParIdentifiant", echauffement, iterations,
+					() -> bdd.stockerUtilisateurParIdentifiant(medecin)));
+			System.out.println(Harnais.mesurer("getMedicamentStock", echauffement, iterations,
+					() -> bdd.getMedicamentStock(lot[0], lot[1], LocalDate.parse(lot[2]))));
+			System.out.println(Harnais.mesurer("prescriptionExiste", echauffement, iterations,
+					() -> bdd.prescriptionExiste(donnees.prenomPatient(7), donnees.nomPatient(7))));
+			System.out.println(Harnais.mesurer("recupererPrescriptionsParPatient", echauffement, iterations,
+					() -> bdd.recupererPrescriptionsParPatient(donnees.prenomPatient(7), donnees.nomPatient(7))));
+			System.out.println(Harnais.mesurer("insererPrescription", echauffement, iterations,
+					() -> bdd.insererPrescription(donnees.prenomPatient(7), donnees.nomPatient(7),
+							donnees.nomMedicament(approvisionnes[ThreadLocalRandom.current().nextInt(approvisionnes.length)]),
+							1, medecin, donnees.infoAttentat(0))));
+			System.out.println(Harnais.mesurer("recupererStocksMedicaments", 5, Math.max(10, iterations / 100),
+					bdd::recupererStocksMedicaments));
+		} finally {
+			pool.fermer();
+		}
+	}
+
+	private static int portLibre() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import model.BDD;
+import model.ConfigurationBDD;
+import model.PoolConnexions;
+import model.StockMemoire;
+
+/**
+ * Banc d'essai de {@link BDD#insererPrescription} sur quelques produits très
+ * demandés, par le chemin JDBC (une transaction par délivrance sur la ligne du
+ * lot) puis par le stock en mémoire ({@link StockMemoire}), à 1, 8 et 64
+ * prescripteurs simultanés. Chaque chemin a sa propre base, remplie par
+ * {@link GenerateurDonnees}, où les lots prescrits ont un stock qui ne
+ * s'épuise pas pendant la mesure.
+ *
+ * Pour le stock en mémoire, le banc rapporte aussi la durée d'écriture des
+ * délivrances restantes à l'arrêt, les délivrances refusées à l'écriture et
+ * l'écart entre le stock en base et le registre des mouvements, qui doivent
+ * être nuls. Le délai d'écriture suit {@code escrim.stock.memoire.delai} (en
+ * ms) et la taille des lots {@code escrim.stock.memoire.tailleLot} ; la taille
+ * du pool suit {@code escrim.pool.taille}.
+ *
+ * Usage : {@code java benchmark.BenchmarkStockMemoire [threads,...] [iterations] [lotsChauds]},
+ * par exemple {@code java benchmark.BenchmarkStockMemoire 1,8,64 2000 5}.
+ */
+public final class BenchmarkStockMemoire {
+	private static final LocalDate REFERENCE = LocalDate.of(2024, 6, 1);
+	private static final int STOCK_CHAUD = 100_000_000;
+
+	private BenchmarkStockMemoire() {
+	}
+
+	/**
+	 * Point d'entrée du banc d'essai.
+	 *
+	 * @param args Les nombres de threads, le nombre d'itérations mesurées par
+	 *             thread et le nombre de lots prescrits.
+	 * @throws Exception Si une opération échoue.
+	 */
+	public static void main(String[] args) throws Exception {
+		String[] listeThreads = (args.length > 0 ? args[0] : "1,8,64").split(",");
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+		int lotsChauds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		for (boolean memoire : new boolean[] { false, true }) {
+			Path repertoire = Files.createTempDirectory("escrim-stock");
+			ConfigurationBDD configuration = new ConfigurationBDD(ConfigurationBDD.Mode.EMBARQUE, null,
+					repertoire.resolve("bdd").toString(), 64 * 1024, false, 0, null);
+			PoolConnexions pool = BDD.openDBConnection(configuration);
+			try {
+				BDD bdd = new BDD(pool);
+				bdd.initialiserSchema();
+				GenerateurDonnees donnees = new GenerateurDonnees(42, REFERENCE, 1_000, 250, 50, 500, 10, 10, 0);
+				donnees.generer(pool);
+				String[] medicaments = approvisionner(pool, donnees, lotsChauds);
+				StockMemoire stockMemoire = memoire
+						? bdd.activerStockMemoire(Long.getLong("escrim.stock.memoire.delai", 100L),
+								Integer.getInteger("escrim.stock.memoire.tailleLot", 500))
+						: null;
+				String chemin = memoire ? "insererPrescription (mémoire)" : "insererPrescription (JDBC)";
+				System.out.println("== " + chemin + ", " + medicaments.length + " lots chauds, pool de "
+						+ Integer.getInteger("escrim.pool.taille", 4) + " connexions");
+				for (String threads : listeThreads) {
+					System.out.println(Harnais.mesurer(chemin, Integer.parseInt(threads.trim()), iterations / 5,
+							iterations, () -> {
+								int patient = hasard(donnees.getPatients());
+								String resultat = bdd.insererPrescription(donnees.prenomPatient(patient),
+										donnees.nomPatient(patient), medicaments[hasard(medicaments.length)], 1,
+										donnees.identifiantMedecin(hasard(donnees.getPersonnel())),
+										donnees.infoAttentat(hasard(donnees.getAttentats())));
+								if (!"Success".equals(resultat)) {
+									throw new IllegalStateException(resultat);
+								}
+							}));
+				}
+				if (stockMemoire != null) {
+					int enAttente = stockMemoire.getEnAttente();
+					long debut = System.nanoTime();
+					stockMemoire.arreter();
+					System.out.println(String.format("écriture à l'arrêt : %d délivrance(s) en %.1f ms ; %d écrites, %d refusées",
+							enAttente, (System.nanoTime() - debut) / 1e6, stockMemoire.getEcrites(),
+							stockMemoire.getRejets()));
+				}
+				System.out.println(String.format("stock en base %d, registre des mouvements %d", stock(pool, medicaments,
+						"SELECT COALESCE(SUM(QUANTITÉ), 0) FROM médicament WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?"),
+						stock(pool, medicaments,
+								"SELECT COALESCE(SUM(m.QUANTITÉ), 0) FROM médicament l JOIN mouvement_stock m ON m.MEDICAMENT_ID = l.ID "
+										+ "WHERE l.PRODUIT = ? AND l.DOSAGE = ? AND l.DLU = ?")));
+			} finally {
+				pool.fermer();
+			}
+		}
+	}
+
+	/**
+	 * Choisit des lots distincts (produit, dosage, DLU) et leur donne un stock
+	 * qui ne s'épuise pas, inscrit au registre comme une correction.
+	 *
+	 * @return Les médicaments prescrits, au format de {@link GenerateurDonnees#nomMedicament(int)}.
+	 */
+	private static String[] approvisionner(PoolConnexions pool, GenerateurDonnees donnees, int lotsChauds)
+			throws SQLException {
+		Set<String> chauds = new LinkedHashSet<>();
+		for (int lot = 0; lot < donnees.getLots() && chauds.size() < lotsChauds; lot++) {
+			chauds.add(donnees.nomMedicament(lot));
+		}
+		Connection connexion = pool.emprunter();
+		try (PreparedStatement mouvement = connexion.prepareStatement(
+				"INSERT INTO mouvement_stock (MEDICAMENT_ID, TYPE, QUANTITÉ, DATE_MOUVEMENT) "
+						+ "SELECT ID, 'CORRECTION', ? - QUANTITÉ, CURRENT_TIMESTAMP FROM médicament WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?");
+				PreparedStatement miseAJour = connexion.prepareStatement(
+						"UPDATE médicament SET QUANTITÉ = ? WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?")) {
+			for (String medicament : chauds) {
+				for (PreparedStatement requete : new PreparedStatement[] { mouvement, miseAJour }) {
+					String[] details = medicament.split(" ; ");
+					requete.setInt(1, STOCK_CHAUD);
+					requete.setString(2, details[0]);
+					requete.setString(3, details[1]);
+					requete.setDate(4, Date.valueOf(LocalDate.parse(details[2])));
+					requete.executeUpdate();
+				}
+			}
+		} finally {
+			pool.rendre(connexion);
+		}
+		return chauds.toArray(new String[0]);
+	}
+
+	private static long stock(PoolConnexions pool, String[] medicaments, String sql) throws SQLException {
+		long total = 0;
+		Connection connexion = pool.emprunter();
+		try (PreparedStatement requete = connexion.prepareStatement(sql)) {
+			for (String medicament : medicaments) {
+				String[] details = medicament.split(" ; ");
+				requete.setString(1, details[0]);
+				requete.setString(2, details[1]);
+				requete.setDate(3, Date.valueOf(LocalDate.parse(details[2])));
+				try (ResultSet resultat = requete.executeQuery()) {
+					resultat.next();
+					total += resultat.getLong(1);
+				}
+			}
+		} finally {
+			pool.rendre(connexion);
+		}
+		return total;
+	}
+
+	private static int hasard(int borne) {
+		return ThreadLocalRandom.current().nextInt(borne);
+	}
+}
@@ -0,0 +1,476 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import model.BDD;
+import model.ConfigurationBDD;
+import model.PoolConnexions;
+
+/**
+ * Générateur de données synthétiques pour remplir une base aux volumes d'un
+ * grand exercice : lots de médicaments aux DLU étalées, personnel et comptes
+ * de blessés, avions, attentats et prescriptions concentrées sur quelques
+ * attentats. Les lignes sont écrites par lots d'insertions JDBC.
+ *
+ * La génération est déterministe : la même graine et la même date de
+ * référence produisent exactement les mêmes lignes, ce qui permet de
+ * reproduire un banc d'essai ou un profilage de l'interface.
+ *
+ * Usage : {@code java benchmark.GenerateurDonnees}, avec la base choisie par
+ * les propriétés {@code escrim.bdd.*} et les volumes par les propriétés
+ * {@code escrim.generateur.*} (voir {@link #depuisProprietes()}).
+ */
+public final class GenerateurDonnees {
+	private static final int TAILLE_LOT_JDBC = 1_000;
+	private static final int LIGNES_PAR_TRANSACTION = 5_000;
+
+	private static final String[][] PRODUITS = { { "Doliprane", "paracétamol" }, { "Clamoxyl", "amoxicilline" },
+			{ "Augmentin", "amoxicilline, acide clavulanique" }, { "Profénid", "kétoprofène" },
+			{ "Acupan", "néfopam" }, { "Skenan", "morphine" }, { "Actiq", "fentanyl" }, { "Kétalar", "kétamine" },
+			{ "Exacyl", "acide tranexamique" }, { "Lovenox", "énoxaparine" }, { "Solumédrol", "méthylprednisolone" },
+			{ "Adrénaline", "épinéphrine" }, { "Xylocaïne", "lidocaïne" }, { "Hypnovel", "midazolam" },
+			{ "Zophren", "ondansétron" }, { "Inexium", "ésoméprazole" }, { "Tétavax", "anatoxine tétanique" },
+			{ "Cefazoline", "céfazoline" }, { "Flagyl", "métronidazole" }, { "Ringer lactate", "électrolytes" } };
+	private static final String[] DOSAGES = { "5mg", "10mg", "20mg", "50mg", "100mg", "250mg", "500mg", "1g" };
+	private static final String[] CLASSES = { "Antalgique", "Antibiotique", "Anesthésique", "Anticoagulant",
+			"Corticoïde", "Soluté" };
+	private static final String[] PRENOMS = { "camille", "louis", "emma", "jules", "léa", "hugo", "chloé", "lucas",
+			"manon", "arthur", "inès", "gabriel", "sarah", "raphaël", "jade", "adam" };
+	private static final String[] NOMS = { "martin", "bernard", "dubois", "thomas", "robert", "richard", "petit",
+			"durand", "leroy", "moreau", "simon", "laurent", "lefebvre", "michel", "garcia", "david", "bertrand",
+			"roux", "vincent", "fournier" };
+	private static final String[] VILLES = { "Paris", "Lyon", "Marseille", "Toulouse", "Nice", "Nantes", "Lille",
+			"Strasbourg", "Bordeaux", "Rennes" };
+	private static final String[][] AVIONS = { { "A400M", "Airbus" }, { "C-130J", "Lockheed Martin" },
+			{ "CN-235", "CASA" }, { "A330 MRTT", "Airbus" }, { "C-160", "Transall" } };
+
+	private final long graine;
+	private final LocalDate reference;
+	private final int lots;
+	private final int produits;
+	private final int personnel;
+	private final int patients;
+	private final int avions;
+	private final int attentats;
+	private final int prescriptions;
+
+	private LocalDate[] datesAttentats;
+	private int[] produitLot;
+	private LocalDate[] dluLot;
+	private int[] quantiteLot;
+	private int[] attentatPatient;
+
+	/**
+	 * Constructeur du générateur.
+	 *
+	 * @param graine        La graine des tirages aléatoires.
+	 * @param reference     La date de référence autour de laquelle sont tirées
+	 *                      les DLU et les dates d'attentats.
+	 * @param lots          Le nombre de lots de médicaments.
+	 * @param produits      Le nombre de produits distincts, partagés par les lots.
+	 * @param personnel     Le nombre de comptes de médecins et de logisticiens.
+	 * @param patients      Le nombre de blessés, chacun avec un compte.
+	 * @param avions        Le nombre d'avions.
+	 * @param attentats     Le nombre d'attentats.
+	 * @param prescriptions Le nombre de prescriptions.
+	 */
+	public GenerateurDonnees(long graine, LocalDate reference, int lots, int produits, int personnel, int patients,
+			int avions, int attentats, int prescriptions) {
+		this.graine = graine;
+		this.reference = reference;
+		this.lots = lots;
+		this.produits = Math.max(1, produits);
+		this.personnel = Math.max(1, personnel);
+		this.patients = Math.max(1, patients);
+		this.avions = avions;
+		this.attentats = Math.max(1, attentats);
+		this.prescriptions = prescriptions;
+	}
+
+	/**
+	 * Lit les volumes dans les propriétés système {@code escrim.generateur.graine},
+	 * {@code escrim.generateur.reference} (au format {@code yyyy-MM-dd}),
+	 * {@code escrim.generateur.lots}, {@code escrim.generateur.produits},
+	 * {@code escrim.generateur.personnel}, {@code escrim.generateur.patients},
+	 * {@code escrim.generateur.avions}, {@code escrim.generateur.attentats} et
+	 * {@code escrim.generateur.prescriptions}.
+	 *
+	 * @return Le générateur, par défaut aux volumes d'un grand exercice.
+	 */
+	public static GenerateurDonnees depuisProprietes() {
+		return new GenerateurDonnees(Long.getLong("escrim.generateur.graine", 42),
+				LocalDate.parse(System.getProperty("escrim.generateur.reference", LocalDate.now().toString())),
+				Integer.getInteger("escrim.generateur.lots", 200_000),
+				Integer.getInteger("escrim.generateur.produits", 5_000),
+				Integer.getInteger("escrim.generateur.personnel", 5_000),
+				Integer.getInteger("escrim.generateur.patients", 300_000),
+				Integer.getInteger("escrim.generateur.avions", 200),
+				Integer.getInteger("escrim.generateur.attentats", 30),
+				Integer.getInteger("escrim.generateur.prescriptions", 1_000_000));
+	}
+
+	/**
+	 * Remplit une base au schéma à jour. Les tables sont supposées vides : les
+	 * identifiants générés entreraient sinon en conflit avec les lignes existantes.
+	 *
+	 * @param pool Le pool de connexions de la base à remplir.
+	 * @throws SQLException Si une insertion échoue ; la transaction en cours est annulée.
+	 */
+	public void generer(PoolConnexions pool) throws SQLException {
+		Connection connexion = pool.emprunter();
+		try {
+			connexion.setAutoCommit(false);
+			try {
+				genererAttentats(connexion);
+				genererMedicaments(connexion);
+				genererSoldesOuverture(connexion);
+				genererPersonnes(connexion);
+				genererAvions(connexion);
+				genererPrescriptions(connexion);
+				connexion.commit();
+			} catch (SQLException e) {
+				connexion.rollback();
+				throw e;
+			} finally {
+				connexion.setAutoCommit(true);
+			}
+		} finally {
+			pool.rendre(connexion);
+		}
+	}
+
+	/**
+	 * Attentats répartis sur les deux années précédant la date de référence.
+	 */
+	private void genererAttentats(Connection connexion) throws SQLException {
+		SplittableRandom hasard = new SplittableRandom(graine);
+		datesAttentats = new LocalDate[attentats];
+		try (PreparedStatement insertion = connexion.prepareStatement(
+				"INSERT INTO attentat (lieu, Tot_blessés, Pers_à_soigner, date_evenement) VALUES (?, ?, ?, ?)")) {
+			for (int i = 0; i < attentats; i++) {
+				datesAttentats[i] = reference.minusDays(hasard.nextInt(730));
+				int blesses = 20 + hasard.nextInt(2_000);
+				insertion.setString(1, lieuAttentat(i));
+				insertion.setInt(2, blesses);
+				insertion.setInt(3, hasard.nextInt(blesses + 1));
+				insertion.setDate(4, Date.valueOf(datesAttentats[i]));
+				ajouter(connexion, insertion, i);
+			}
+			insertion.executeBatch();
+		}
+	}
+
+	/**
+	 * Lots de médicaments : les premiers produits ont plus de lots que les
+	 * autres, les DLU vont de trois mois avant la date de référence à trois ans
+	 * après, et environ un lot sur douze est presque épuisé.
+	 */
+	private void genererMedicaments(Connection connexion) throws SQLException {
+		SplittableRandom hasard = new SplittableRandom(graine + 1);
+		produitLot = new int[lots];
+		dluLot = new LocalDate[lots];
+		quantiteLot = new int[lots];
+		try (PreparedStatement insertion = connexion.prepareStatement(
+				"INSERT INTO médicament (PRODUIT, DCI, DOSAGE, DLU, QUANTITÉ, LOT, CLASSE, NUM_CAISSE, CAISSE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			for (int i = 0; i < lots; i++) {
+				int produit = i < produits ? i : biaise(hasard, produits, 2);
+				produitLot[i] = produit;
+				dluLot[i] = reference.plusDays(hasard.nextInt(-90, 3 * 365));
+				quantiteLot[i] = hasard.nextInt(12) == 0 ? hasard.nextInt(10) : 10 + hasard.nextInt(490);
+				int caisse = hasard.nextInt(Math.max(1, lots / 50));
+				insertion.setString(1, nomProduit(produit));
+				insertion.setString(2, PRODUITS[produit % PRODUITS.length][1]);
+				insertion.setString(3, dosage(produit));
+				insertion.setDate(4, Date.valueOf(dluLot[i]));
+				insertion.setInt(5, quantiteLot[i]);
+				insertion.setString(6, String.format("L%07d", i));
+				insertion.setString(7, CLASSES[produit % CLASSES.length]);
+				insertion.setInt(8, caisse);
+				insertion.setString(9, "Caisse " + caisse);
+				ajouter(connexion, insertion, i);
+			}
+			insertion.executeBatch();
+		}
+	}
+
+	/**
+	 * Solde d'ouverture de chaque lot au registre des mouvements, daté du début
+	 * de la période couverte par les attentats : le stock à une date passée se
+	 * calcule alors depuis le registre comme sur une base réelle.
+	 */
+	private void genererSoldesOuverture(Connection connexion) throws SQLException {
+		try (PreparedStatement insertion = connexion.prepareStatement(
+				"INSERT INTO mouvement_stock (MEDICAMENT_ID, TYPE, QUANTITÉ, DATE_MOUVEMENT) "
+						+ "SELECT ID, 'OUVERTURE', QUANTITÉ, ? FROM médicament")) {
+			insertion.setTimestamp(1, Timestamp.valueOf(reference.minusDays(730).atStartOfDay()));
+			insertion.executeUpdate();
+		}
+	}
+
+	/**
+	 * Comptes du personnel (deux médecins pour un logisticien), puis un compte
+	 * par blessé, rattaché à un attentat.
+	 */
+	private void genererPersonnes(Connection connexion) throws SQLException {
+		SplittableRandom hasard = new SplittableRandom(graine + 2);
+		attentatPatient = new int[patients];
+		try (PreparedStatement insertion = connexion.prepareStatement(
+				"INSERT INTO personne (identifiant, prénom, nom, date_naissance, mdp, statut) VALUES (?, ?, ?, ?, 'secret', ?)")) {
+			for (int i = 0; i < personnel + patients; i++) {
+				boolean patient = i >= personnel;
+				if (patient) {
+					attentatPatient[i - personnel] = biaise(hasard, attentats, 4);
+				}
+				insertion.setString(1, prenom(i) + "." + nom(i));
+				insertion.setString(2, prenom(i));
+				insertion.setString(3, nom(i));
+				insertion.setDate(4, Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(hasard.nextInt(75 * 365))));
+				insertion.setString(5, patient ? "Blessé" : i % 3 == 2 ? "Logisticien" : "Médecin");
+				ajouter(connexion, insertion, i);
+			}
+			insertion.executeBatch();
+		}
+	}
+
+	/**
+	 * Avions, dont environ un sur quatre est affecté à un attentat.
+	 */
+	private void genererAvions(Connection connexion) throws SQLException {
+		SplittableRandom hasard = new SplittableRandom(graine + 3);
+		try (PreparedStatement insertion = connexion.prepareStatement(
+				"INSERT INTO avion (NOM, CONSTRUCTEUR, TONNE_MAX, VOLUME_UTILISABLE_M3, POSITIONS_PALETTES, etat, lieu_attentat, date_attentat) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+			for (int i = 0; i < avions; i++) {
+				boolean occupe = hasard.nextInt(4) == 0;
+				int attentat = hasard.nextInt(attentats);
+				insertion.setString(1, nomAvion(i));
+				insertion.setString(2, AVIONS[i % AVIONS.length][1]);
+				insertion.setDouble(3, 10 + hasard.nextInt(30));
+				insertion.setDouble(4, 50 + hasard.nextInt(300));
+				insertion.setInt(5, 4 + hasard.nextInt(8));
+				insertion.setString(6, occupe ? "occupé" : "disponible");
+				insertion.setString(7, occupe ? lieuAttentat(attentat) : null);
+				insertion.setDate(8, occupe ? Date.valueOf(datesAttentats[attentat]) : null);
+				ajouter(connexion, insertion, i);
+			}
+			insertion.executeBatch();
+		}
+	}
+
+	/**
+	 * Prescriptions de blessés tirés au hasard, datées des jours suivant leur
+	 * attentat. Comme les blessés, elles se concentrent sur les premiers attentats.
+	 */
+	private void genererPrescriptions(Connection connexion) throws SQLException {
+		SplittableRandom hasard = new SplittableRandom(graine + 4);
+		try (PreparedStatement insertion = connexion.prepareStatement(
+				"INSERT INTO prescription (PRéNOM, NOM, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, DATE_PRESCRIPTION, lieu_Attentat, date_Attentat) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+			for (int i = 0; i < prescriptions; i++) {
+				int patient = hasard.nextInt(patients);
+				int attentat = attentatPatient[patient];
+				int lot = hasard.nextInt(lots);
+				insertion.setString(1, prenomPatient(patient));
+				insertion.setString(2, nomPatient(patient));
+				insertion.setString(3, identifiantMedecin(hasard.nextInt(personnel)));
+				insertion.setString(4, nomMedicament(lot));
+				insertion.setInt(5, 1 + hasard.nextInt(5));
+				insertion.setDate(6, Date.valueOf(datesAttentats[attentat].plusDays(hasard.nextInt(15))));
+				insertion.setString(7, lieuAttentat(attentat));
+				insertion.setDate(8, Date.valueOf(datesAttentats[attentat]));
+				ajouter(connexion, insertion, i);
+			}
+			insertion.executeBatch();
+		}
+	}
+
+	/**
+	 * Ajoute la ligne au lot JDBC, l'envoie tous les {@value #TAILLE_LOT_JDBC}
+	 * lignes et valide la transaction tous les {@value #LIGNES_PAR_TRANSACTION}.
+	 */
+	private static void ajouter(Connection connexion, PreparedStatement insertion, int ligne) throws SQLException {
+		insertion.addBatch();
+		if ((ligne + 1) % TAILLE_LOT_JDBC == 0) {
+			insertion.executeBatch();
+		}
+		if ((ligne + 1) % LIGNES_PAR_TRANSACTION == 0) {
+			connexion.commit();
+		}
+	}
+
+	/**
+	 * Tire un indice entre 0 et {@code borne} exclue, d'autant plus souvent
+	 * petit que l'exposant est grand.
+	 */
+	private static int biaise(SplittableRandom hasard, int borne, int exposant) {
+		return (int) (borne * Math.pow(hasard.nextDouble(), exposant));
+	}
+
+	/**
+	 * Prénom de la personne d'indice donné, en minuscules comme à l'inscription.
+	 * Le couple prénom et nom est unique pour chaque indice.
+	 */
+	private static String prenom(int personne) {
+		return PRENOMS[personne % PRENOMS.length];
+	}
+
+	private static String nom(int personne) {
+		int rang = personne / PRENOMS.length;
+		int serie = rang / NOMS.length;
+		return NOMS[rang % NOMS.length] + (serie == 0 ? "" : "-" + serie);
+	}
+
+	private static String nomProduit(int produit) {
+		int serie = produit / PRODUITS.length;
+		return PRODUITS[produit % PRODUITS.length][0] + (serie == 0 ? "" : " " + (serie + 1));
+	}
+
+	private static String dosage(int produit) {
+		return DOSAGES[(produit / PRODUITS.length + produit) % DOSAGES.length];
+	}
+
+	/**
+	 * @param membre L'indice du membre du personnel.
+	 * @return L'identifiant de connexion du membre du personnel.
+	 */
+	public String identifiantPersonnel(int membre) {
+		int personne = membre % personnel;
+		return prenom(personne) + "." + nom(personne);
+	}
+
+	/**
+	 * @param medecin L'indice du médecin parmi les médecins.
+	 * @return L'identifiant de connexion du médecin.
+	 */
+	public String identifiantMedecin(int medecin) {
+		int rang = medecin % (personnel - personnel / 3);
+		return identifiantPersonnel(rang / 2 * 3 + rang % 2);
+	}
+
+	/**
+	 * @param patient L'indice du blessé.
+	 * @return Le prénom du blessé.
+	 */
+	public String prenomPatient(int patient) {
+		return prenom(personnel + patient % patients);
+	}
+
+	/**
+	 * @param patient L'indice du blessé.
+	 * @return Le nom du blessé.
+	 */
+	public String nomPatient(int patient) {
+		return nom(personnel + patient % patients);
+	}
+
+	/**
+	 * @param avion L'indice de l'avion.
+	 * @return Le nom de l'avion.
+	 */
+	public String nomAvion(int avion) {
+		return String.format("%s-%04d", AVIONS[avion % AVIONS.length][0], avion);
+	}
+
+	/**
+	 * @param attentat L'indice de l'attentat.
+	 * @return Le lieu de l'attentat.
+	 */
+	public String lieuAttentat(int attentat) {
+		int serie = attentat / VILLES.length;
+		return VILLES[attentat % VILLES.length] + (serie == 0 ? "" : " " + (serie + 1));
+	}
+
+	/**
+	 * @param attentat L'indice de l'attentat.
+	 * @return La date de l'attentat. Disponible après {@link #generer(PoolConnexions)}.
+	 */
+	public LocalDate dateAttentat(int attentat) {
+		return datesAttentats[attentat];
+	}
+
+	/**
+	 * @param attentat L'indice de l'attentat.
+	 * @return Le lieu et la date de l'attentat séparés par " ; ", comme dans les
+	 *         listes de l'interface. Disponible après {@link #generer(PoolConnexions)}.
+	 */
+	public String infoAttentat(int attentat) {
+		return lieuAttentat(attentat) + " ; " + datesAttentats[attentat];
+	}
+
+	/**
+	 * @param lot L'indice du lot.
+	 * @return Le produit, le dosage et la DLU du lot séparés par " ; ", comme
+	 *         attendu par {@link BDD#insererPrescription}. Disponible après
+	 *         {@link #generer(PoolConnexions)}.
+	 */
+	public String nomMedicament(int lot) {
+		int produit = produitLot[lot];
+		return nomProduit(produit) + " ; " + dosage(produit) + " ; " + dluLot[lot];
+	}
+
+	/**
+	 * @param lot L'indice du lot.
+	 * @return La quantité initiale du lot. Disponible après {@link #generer(PoolConnexions)}.
+	 */
+	public int quantiteInitiale(int lot) {
+		return quantiteLot[lot];
+	}
+
+	public int getLots() {
+		return lots;
+	}
+
+	public int getProduits() {
+		return produits;
+	}
+
+	public int getPersonnel() {
+		return personnel;
+	}
+
+	public int getPatients() {
+		return patients;
+	}
+
+	public int getAvions() {
+		return avions;
+	}
+
+	public int getAttentats() {
+		return attentats;
+	}
+
+	public int getPrescriptions() {
+		return prescriptions;
+	}
+
+	@Override
+	public String toString() {
+		return lots + " lots, " + produits + " produits, " + personnel + " personnels, " + patients + " blessés, "
+				+ avions + " avions, " + attentats + " attentats, " + prescriptions + " prescriptions (graine "
+				+ graine + ", référence " + reference + ")";
+	}
+
+	/**
+	 * Remplit la base désignée par les propriétés {@code escrim.bdd.*}.
+	 *
+	 * @param args Non utilisés.
+	 * @throws SQLException Si une insertion échoue.
+	 */
+	public static void main(String[] args) throws SQLException {
+		GenerateurDonnees generateur = depuisProprietes();
+		PoolConnexions pool = BDD.openDBConnection(ConfigurationBDD.depuisProprietes());
+		try {
+			new BDD(pool).initialiserSchema();
+			long debut = System.nanoTime();
+			generateur.generer(pool);
+			System.out.println(generateur + " générés en " + (System.nanoTime() - debut) / 1_000_000 + " ms");
+		} finally {
+			pool.fermer();
+		}
+	}
+}
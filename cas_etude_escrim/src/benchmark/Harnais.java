@@ -0,0 +1,179 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Harnais de mesure minimal pour les bancs d'essai de la couche modèle :
+ * une phase d'échauffement pour laisser le JIT compiler le chemin mesuré,
+ * puis une phase de mesure dont on rapporte le temps moyen par opération,
+ * le débit et la mémoire allouée par opération. La mesure peut être répartie
+ * sur plusieurs threads qui exécutent l'opération en même temps.
+ */
+public final class Harnais {
+
+	/**
+	 * Opération mesurée.
+	 */
+	@FunctionalInterface
+	public interface Operation {
+		/**
+		 * Exécute une fois l'opération.
+		 *
+		 * @throws Exception Si l'opération échoue ; la mesure est alors interrompue.
+		 */
+		void executer() throws Exception;
+	}
+
+	/**
+	 * Résultat d'une mesure.
+	 */
+	public static final class Resultat {
+		private final String nom;
+		private final long iterations;
+		private final long dureeNs;
+		private final int threads;
+		private final long octetsAlloues;
+
+		private Resultat(String nom, long iterations, long dureeNs, int threads, long octetsAlloues) {
+			this.nom = nom;
+			this.iterations = iterations;
+			this.dureeNs = dureeNs;
+			this.threads = threads;
+			this.octetsAlloues = octetsAlloues;
+		}
+
+		/**
+		 * @return Le temps moyen par opération vu d'un thread, en microsecondes.
+		 */
+		public double microsParOp() {
+			return dureeNs / 1000.0 / iterations * threads;
+		}
+
+		/**
+		 * @return Le nombre d'opérations par seconde, tous threads confondus.
+		 */
+		public double opsParSeconde() {
+			return iterations * 1e9 / dureeNs;
+		}
+
+		/**
+		 * @return Le nombre moyen d'octets alloués par opération, ou -1 si la JVM ne le mesure pas.
+		 */
+		public double octetsParOp() {
+			return octetsAlloues < 0 ? -1 : (double) octetsAlloues / iterations;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-40s %3d thr %12.1f µs/op %12.0f ops/s %12.0f B/op", nom, threads,
+					microsParOp(), opsParSeconde(), octetsParOp());
+		}
+	}
+
+	private Harnais() {
+	}
+
+	/**
+	 * Mesure une opération.
+	 *
+	 * @param nom          Le nom affiché dans le rapport.
+	 * @param echauffement Le nombre d'exécutions non mesurées.
+	 * @param iterations   Le nombre d'exécutions mesurées.
+	 * @param operation    L'opération à mesurer.
+	 * @return Le résultat de la mesure.
+	 * @throws Exception Si l'opération échoue.
+	 */
+	public static Resultat mesurer(String nom, int echauffement, int iterations, Operation operation)
+			throws Exception {
+		for (int i = 0; i < echauffement; i++) {
+			operation.executer();
+		}
+		long allouesAvant = octetsAlloues();
+		long debut = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			operation.executer();
+		}
+		long duree = System.nanoTime() - debut;
+		long allouesApres = octetsAlloues();
+		long alloues = allouesAvant < 0 ? -1 : allouesApres - allouesAvant;
+		return new Resultat(nom, iterations, duree, 1, alloues);
+	}
+
+	/**
+	 * Mesure une opération exécutée en même temps par plusieurs threads. Chaque
+	 * thread fait son échauffement puis ses itérations ; la mesure commence
+	 * quand tous ont fini de s'échauffer.
+	 *
+	 * @param nom          Le nom affiché dans le rapport.
+	 * @param threads      Le nombre de threads.
+	 * @param echauffement Le nombre d'exécutions non mesurées par thread.
+	 * @param iterations   Le nombre d'exécutions mesurées par thread.
+	 * @param operation    L'opération à mesurer.
+	 * @return Le résultat de la mesure, sur l'ensemble des threads.
+	 * @throws Exception Si l'opération échoue dans un des threads.
+	 */
+	public static Resultat mesurer(String nom, int threads, int echauffement, int iterations, Operation operation)
+			throws Exception {
+		if (threads == 1) {
+			return mesurer(nom, echauffement, iterations, operation);
+		}
+		CyclicBarrier depart = new CyclicBarrier(threads + 1);
+		AtomicLong alloues = new AtomicLong();
+		AtomicReference<Exception> erreur = new AtomicReference<>();
+		List<Thread> executants = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread executant = new Thread(() -> {
+				try {
+					for (int i = 0; i < echauffement; i++) {
+						operation.executer();
+					}
+					depart.await();
+					long avant = octetsAlloues();
+					for (int i = 0; i < iterations; i++) {
+						operation.executer();
+					}
+					alloues.addAndGet(avant < 0 ? Long.MIN_VALUE / threads : octetsAlloues() - avant);
+				} catch (Exception e) {
+					erreur.compareAndSet(null, e);
+					depart.reset();
+				}
+			}, "banc-" + t);
+			executants.add(executant);
+			executant.start();
+		}
+		try {
+			depart.await();
+		} catch (BrokenBarrierException e) {
+			// un thread a échoué pendant l'échauffement, l'erreur est levée après l'attente des threads
+		}
+		long debut = System.nanoTime();
+		for (Thread executant : executants) {
+			executant.join();
+		}
+		long duree = System.nanoTime() - debut;
+		if (erreur.get() != null) {
+			throw erreur.get();
+		}
+		return new Resultat(nom, (long) iterations * threads, duree, threads, Math.max(-1, alloues.get()));
+	}
+
+	/**
+	 * @return Les octets alloués par le thread courant depuis son démarrage, ou -1 si la JVM ne le mesure pas.
+	 */
+	private static long octetsAlloues() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof ThreadMXBean mesureAllocations && mesureAllocations.isThreadAllocatedMemoryEnabled()) {
+			return mesureAllocations.getCurrentThreadAllocatedBytes();
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,367 @@
+package benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.h2.tools.Server;
+
+import model.BDD;
+import model.ConfigurationBDD;
+import model.HistogrammeLatence;
+import model.PoolConnexions;
+import model.ProjectionStock;
+import model.RegistreMetriques;
+
+/**
+ * Simulateur de charge d'un afflux de blessés, sans interface. Des médecins
+ * enchaînent en parallèle le chemin de la fenêtre de prescription
+ * ({@code MedecinView.createPrescriptionPopUp}) : vérification qu'aucune
+ * prescription n'existe pour le patient, puis {@link BDD#insererPrescription}
+ * sur quelques lots très demandés et un même attentat. Pendant ce temps, des
+ * logisticiens réapprovisionnent ces lots par {@link BDD#insererMedicament} :
+ * chaque lot chaud a un lot de réapprovisionnement, créé à la première
+ * réception, et les suivantes ne sont que des entrées au registre des
+ * mouvements, projetées pendant l'exercice comme dans l'application
+ * ({@link ProjectionStock}, période {@code escrim.stock.projection}).
+ *
+ * À la fin, le simulateur rapporte le débit, les percentiles de latence, les
+ * mises à jour perdues sur {@code QUANTITÉ} et {@code Pers_à_soigner} (écart
+ * entre la base et le compte des opérations réussies, nul si aucune mise à
+ * jour n'est perdue), les prescriptions en
+ * double, l'écart entre le registre des mouvements et {@code QUANTITÉ}, et les
+ * interblocages et délais de verrou dépassés.
+ *
+ * La base est créée dans un répertoire temporaire et remplie par
+ * {@link GenerateurDonnees}. Les réglages sont lus dans les propriétés
+ * {@code escrim.simulateur.medecins}, {@code escrim.simulateur.logisticiens},
+ * {@code escrim.simulateur.duree} (en s), {@code escrim.simulateur.lots},
+ * {@code escrim.simulateur.lotsChauds}, {@code escrim.simulateur.pauseLogisticien}
+ * (en ms) et {@code escrim.simulateur.tcp} (vrai pour passer par un serveur
+ * H2 TCP local, comme un déploiement). La taille du pool suit {@code escrim.pool.taille}.
+ *
+ * Usage : {@code java -Descrim.simulateur.medecins=16 benchmark.SimulateurCharge}
+ */
+public final class SimulateurCharge {
+	private static final LocalDate REFERENCE = LocalDate.of(2024, 6, 1);
+	private static final int QUANTITE_REAPPROVISIONNEMENT = 100;
+	private static final String PRENOM_PATIENT = "charge";
+	private static final String PREFIXE_MEDECIN = "charge.medecin";
+
+	private final BDD bdd;
+	private final PoolConnexions pool;
+	private final String[] medicaments;
+	private final String attentat;
+
+	private final AtomicInteger patients = new AtomicInteger();
+	private final HistogrammeLatence latencePrescription = new HistogrammeLatence();
+	private final HistogrammeLatence latenceReapprovisionnement = new HistogrammeLatence();
+	private final LongAdder succes = new LongAdder();
+	private final LongAdder existeDeja = new LongAdder();
+	private final LongAdder stockInsuffisant = new LongAdder();
+	private final LongAdder erreurs = new LongAdder();
+	private final LongAdder quantiteDelivree = new LongAdder();
+	private final LongAdder reapprovisionnements = new LongAdder();
+
+	private SimulateurCharge(BDD bdd, PoolConnexions pool, String[] medicaments, String attentat) {
+		this.bdd = bdd;
+		this.pool = pool;
+		this.medicaments = medicaments;
+		this.attentat = attentat;
+	}
+
+	/**
+	 * Point d'entrée du simulateur.
+	 *
+	 * @param args Non utilisés ; voir les propriétés {@code escrim.simulateur.*}.
+	 * @throws Exception Si la base ne peut pas être créée ou remplie.
+	 */
+	public static void main(String[] args) throws Exception {
+		int medecins = Integer.getInteger("escrim.simulateur.medecins", 8);
+		int logisticiens = Integer.getInteger("escrim.simulateur.logisticiens", 2);
+		int duree = Integer.getInteger("escrim.simulateur.duree", 30);
+		int lots = Integer.getInteger("escrim.simulateur.lots", 10_000);
+		int lotsChauds = Integer.getInteger("escrim.simulateur.lotsChauds", 5);
+		long pauseLogisticien = Long.getLong("escrim.simulateur.pauseLogisticien", 50L);
+
+		Path repertoire = Files.createTempDirectory("escrim-charge");
+		Server serveur = null;
+		ConfigurationBDD configuration;
+		if (Boolean.getBoolean("escrim.simulateur.tcp")) {
+			int port = portLibre();
+			serveur = Server.createTcpServer("-tcpPort", String.valueOf(port), "-baseDir", repertoire.toString(),
+					"-ifNotExists").start();
+			configuration = new ConfigurationBDD(ConfigurationBDD.Mode.TCP, "localhost:" + port, "charge", 0, false,
+					0, null);
+		} else {
+			configuration = new ConfigurationBDD(ConfigurationBDD.Mode.EMBARQUE, null,
+					repertoire.resolve("charge").toString(), 64 * 1024, false, 0, null);
+		}
+		PoolConnexions pool = BDD.openDBConnection(configuration);
+		try {
+			BDD bdd = new BDD(pool);
+			bdd.initialiserSchema();
+			GenerateurDonnees donnees = new GenerateurDonnees(42, REFERENCE, lots, Math.max(1, lots / 4), 50,
+					Math.max(1, lots / 2), 20, 5, lots);
+			donnees.generer(pool);
+
+			// Lots distincts (produit, dosage, DLU) bien approvisionnés, prescrits par tous les médecins.
+			Set<String> chauds = new LinkedHashSet<>();
+			for (int lot = 0; lot < donnees.getLots() && chauds.size() < lotsChauds; lot++) {
+				if (donnees.quantiteInitiale(lot) >= 100) {
+					chauds.add(donnees.nomMedicament(lot));
+				}
+			}
+			SimulateurCharge simulateur = new SimulateurCharge(bdd, pool, chauds.toArray(new String[0]),
+					donnees.infoAttentat(0));
+			System.out.println("== " + medecins + " médecins, " + logisticiens + " logisticiens, " + duree + " s, "
+					+ chauds.size() + " lots chauds, pool de " + Integer.getInteger("escrim.pool.taille", 4)
+					+ " connexions (" + configuration.url() + ")");
+			simulateur.executer(medecins, logisticiens, duree * 1_000L, pauseLogisticien);
+		} finally {
+			pool.fermer();
+			if (serveur != null) {
+				serveur.stop();
+			}
+		}
+	}
+
+	/**
+	 * Lance les médecins et les logisticiens pendant la durée donnée, puis
+	 * vérifie la base et affiche le rapport.
+	 */
+	private void executer(int medecins, int logisticiens, long dureeMs, long pauseLogisticien)
+			throws SQLException, InterruptedException {
+		long stockInitial = stock();
+		int persInitial = persASoigner();
+		ProjectionStock projection = new ProjectionStock(bdd, Long.getLong("escrim.stock.projection", 200L), 1_000);
+		CountDownLatch depart = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < medecins; i++) {
+			String medecin = PREFIXE_MEDECIN + i;
+			threads.add(new Thread(() -> boucle(depart, dureeMs, () -> prescrire(medecin)), medecin));
+		}
+		for (int i = 0; i < logisticiens; i++) {
+			threads.add(new Thread(() -> boucle(depart, dureeMs, () -> reapprovisionner(pauseLogisticien)),
+					"charge.logisticien" + i));
+		}
+		threads.forEach(Thread::start);
+		long debut = System.nanoTime();
+		depart.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		double secondes = (System.nanoTime() - debut) / 1e9;
+
+		RegistreMetriques metriques = bdd.getMetriques();
+		long reapprovisionnementsReussis = reapprovisionnements.sum() - metriques.getErreurs("insererMedicament");
+		long stockAttendu = stockInitial + reapprovisionnementsReussis * QUANTITE_REAPPROVISIONNEMENT
+				- quantiteDelivree.sum();
+		long persAttendu = persInitial - succes.sum();
+		projection.arreter();
+		long stockFinal = stock();
+		long stockRegistre = stockRegistre();
+		int persFinal = persASoigner();
+
+		System.out.println(String.format("prescriptions     %8d tentées, %8.1f /s ; %d réussies, %d déjà existantes, %d stock insuffisant, %d erreurs",
+				latencePrescription.getNombre(), latencePrescription.getNombre() / secondes, succes.sum(),
+				existeDeja.sum(), stockInsuffisant.sum(), erreurs.sum()));
+		System.out.println(ligneLatence("latence prescription", latencePrescription));
+		System.out.println(String.format("réapprovisionnements %5d, %8.1f /s", reapprovisionnements.sum(),
+				reapprovisionnements.sum() / secondes));
+		System.out.println(ligneLatence("latence réappro.", latenceReapprovisionnement));
+		System.out.println(ligneLatence("attente connexion", pool.getHistogrammeAttente()));
+		System.out.println(String.format("QUANTITÉ          attendu %d, en base %d, écart %+d", stockAttendu,
+				stockFinal, stockFinal - stockAttendu));
+		System.out.println(String.format("registre          %d, en base %d, écart %+d", stockRegistre, stockFinal,
+				stockFinal - stockRegistre));
+		System.out.println(String.format("Pers_à_soigner    attendu %d, en base %d, écart %+d", persAttendu,
+				persFinal, persFinal - persAttendu));
+		System.out.println(String.format("prescriptions     %d en base pour %d réussies, %d patient(s) en double",
+				prescriptionsEnBase(), succes.sum(), patientsEnDouble()));
+		System.out.println(String.format("interblocages     %d (%s), délais de verrou dépassés %d (%s), autres erreurs %d",
+				metriques.getErreursEtat(RegistreMetriques.ETAT_INTERBLOCAGE), RegistreMetriques.ETAT_INTERBLOCAGE,
+				metriques.getErreursEtat(RegistreMetriques.ETAT_DELAI_VERROU), RegistreMetriques.ETAT_DELAI_VERROU,
+				autresErreurs(metriques)));
+	}
+
+	/**
+	 * Attend le départ commun puis répète l'action jusqu'à l'échéance.
+	 */
+	private static void boucle(CountDownLatch depart, long dureeMs, Runnable action) {
+		try {
+			depart.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		long fin = System.currentTimeMillis() + dureeMs;
+		while (System.currentTimeMillis() < fin && !Thread.currentThread().isInterrupted()) {
+			action.run();
+		}
+	}
+
+	/**
+	 * Chemin de validation de la fenêtre de prescription. Un patient sur vingt
+	 * est un patient déjà vu, comme lorsque deux médecins prennent en charge le
+	 * même blessé.
+	 */
+	private void prescrire(String medecin) {
+		ThreadLocalRandom hasard = ThreadLocalRandom.current();
+		int vus = patients.get();
+		String nom = "patient-" + (vus > 0 && hasard.nextInt(20) == 0 ? hasard.nextInt(vus) : patients.getAndIncrement());
+		String medicament = medicaments[hasard.nextInt(medicaments.length)];
+		int quantite = 1 + hasard.nextInt(3);
+		long debut = System.nanoTime();
+		if (bdd.prescriptionExiste(PRENOM_PATIENT, nom)) {
+			latencePrescription.enregistrer(System.nanoTime() - debut);
+			existeDeja.increment();
+			return;
+		}
+		String resultat = bdd.insererPrescription(PRENOM_PATIENT, nom, medicament, quantite, medecin, attentat);
+		latencePrescription.enregistrer(System.nanoTime() - debut);
+		if ("Success".equals(resultat)) {
+			succes.increment();
+			quantiteDelivree.add(quantite);
+		} else if (resultat.startsWith("Il n'y a que")) {
+			stockInsuffisant.increment();
+		} else {
+			erreurs.increment();
+		}
+	}
+
+	/**
+	 * Réapprovisionne un lot chaud par son lot de réapprovisionnement, de même
+	 * produit, dosage et DLU.
+	 */
+	private void reapprovisionner(long pause) {
+		ThreadLocalRandom hasard = ThreadLocalRandom.current();
+		int chaud = hasard.nextInt(medicaments.length);
+		String[] medicament = medicaments[chaud].split(" ; ");
+		long debut = System.nanoTime();
+		bdd.insererMedicament(medicament[0], null, medicament[1], LocalDate.parse(medicament[2]),
+				QUANTITE_REAPPROVISIONNEMENT, "R" + chaud, "Réapprovisionnement", 0, "Charge",
+				Thread.currentThread().getName());
+		latenceReapprovisionnement.enregistrer(System.nanoTime() - debut);
+		reapprovisionnements.increment();
+		try {
+			Thread.sleep(pause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return Le stock total des lots chauds, toutes lignes confondues.
+	 */
+	private long stock() throws SQLException {
+		return stock("SELECT COALESCE(SUM(QUANTITÉ), 0) FROM médicament WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?");
+	}
+
+	/**
+	 * Additionne sur les lots chauds une requête paramétrée par produit, dosage et DLU.
+	 */
+	private long stock(String sql) throws SQLException {
+		long total = 0;
+		Connection connexion = pool.emprunter();
+		try (PreparedStatement requete = connexion.prepareStatement(sql)) {
+			for (String medicament : medicaments) {
+				String[] details = medicament.split(" ; ");
+				requete.setString(1, details[0]);
+				requete.setString(2, details[1]);
+				requete.setDate(3, Date.valueOf(LocalDate.parse(details[2])));
+				try (ResultSet resultat = requete.executeQuery()) {
+					resultat.next();
+					total += resultat.getLong(1);
+				}
+			}
+		} finally {
+			pool.rendre(connexion);
+		}
+		return total;
+	}
+
+	/**
+	 * @return Le stock total des lots chauds calculé depuis le registre des mouvements.
+	 */
+	private long stockRegistre() throws SQLException {
+		return stock("SELECT COALESCE(SUM(m.QUANTITÉ), 0) FROM médicament l JOIN mouvement_stock m ON m.MEDICAMENT_ID = l.ID "
+				+ "WHERE l.PRODUIT = ? AND l.DOSAGE = ? AND l.DLU = ?");
+	}
+
+	private int persASoigner() throws SQLException {
+		String[] details = attentat.split(" ; ");
+		Connection connexion = pool.emprunter();
+		try (PreparedStatement requete = connexion.prepareStatement(
+				"SELECT Pers_à_soigner FROM attentat WHERE lieu = ? AND date_evenement = ?")) {
+			requete.setString(1, details[0]);
+			requete.setDate(2, Date.valueOf(LocalDate.parse(details[1])));
+			try (ResultSet resultat = requete.executeQuery()) {
+				resultat.next();
+				return resultat.getInt(1);
+			}
+		} finally {
+			pool.rendre(connexion);
+		}
+	}
+
+	private long prescriptionsEnBase() throws SQLException {
+		return compter("SELECT COUNT(*) FROM prescription WHERE Id_MEDECIN LIKE '" + PREFIXE_MEDECIN + "%'");
+	}
+
+	/**
+	 * Patients ayant reçu plusieurs prescriptions : deux médecins ont vérifié en
+	 * même temps qu'aucune prescription n'existait, puis ont tous deux prescrit.
+	 */
+	private long patientsEnDouble() throws SQLException {
+		return compter("SELECT COUNT(*) FROM (SELECT NOM FROM prescription WHERE Id_MEDECIN LIKE '" + PREFIXE_MEDECIN
+				+ "%' GROUP BY PRéNOM, NOM HAVING COUNT(*) > 1)");
+	}
+
+	private long compter(String sql) throws SQLException {
+		Connection connexion = pool.emprunter();
+		try (PreparedStatement requete = connexion.prepareStatement(sql); ResultSet resultat = requete.executeQuery()) {
+			resultat.next();
+			return resultat.getLong(1);
+		} finally {
+			pool.rendre(connexion);
+		}
+	}
+
+	private static long autresErreurs(RegistreMetriques metriques) {
+		long autres = 0;
+		for (String etat : metriques.getEtatsErreurs()) {
+			if (!etat.equals(RegistreMetriques.ETAT_INTERBLOCAGE) && !etat.equals(RegistreMetriques.ETAT_DELAI_VERROU)) {
+				autres += metriques.getErreursEtat(etat);
+			}
+		}
+		return autres;
+	}
+
+	private static String ligneLatence(String libelle, HistogrammeLatence latence) {
+		return String.format("%-20s p50 %9.1f µs  p95 %9.1f µs  p99 %9.1f µs  max %9.1f µs", libelle,
+				latence.getPercentileMicros(50), latence.getPercentileMicros(95), latence.getPercentileMicros(99),
+				latence.getMaxMicros());
+	}
+
+	private static int portLibre() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -2,8 +2,6 @@ package control;
 
 import java.time.LocalDate;
 
-import javafx.concurrent.Task;
-import javafx.concurrent.WorkerStateEvent;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.Label;
@@ -12,14 +10,15 @@ import javafx.scene.paint.Color;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.stage.Stage;
-import model.BDD;
-import view.Logiciel;
+import javafx.scene.Node;
+import model.BDDAsynchrone;
+import view.Occupation;
 
 /**
  * Contrôleur pour l'ajout d'un nouvel utilisateur.
  */
 public class AjouterUtilisateurController implements EventHandler<ActionEvent> {
-    private BDD database;
+    private BDDAsynchrone database;
     private TextField textPrenom;
     private TextField textNom;
     private TextField textMdp;
@@ -49,7 +48,7 @@ public class AjouterUtilisateurController implements EventHandler<ActionEvent> {
         this.statutComboBox = statutComboBox;
         this.erreur = erreur;
         this.primaryStage = primaryStage;
-        database = new BDD();
+        database = BDDAsynchrone.getInstance();
        
     }
 
@@ -68,15 +67,17 @@ public class AjouterUtilisateurController implements EventHandler<ActionEvent> {
         }
 
         String identifiant = genererIdentifiant(prenom, nom);
-        String[] utilisateur = database.stockerUtilisateurAPartirNom(identifiant.toLowerCase());
-        
-        if (!utilisateur[0].toLowerCase().equals("false")) {
-            afficherErreur("Un utilisateur avec cet identifiant existe déjà.");
-        } else {
-        	String nomEnMinuscules = nom.toLowerCase();
-			String pnomEnMinuscule = prenom.toLowerCase();
-            ajouterUtilisateur(identifiant, pnomEnMinuscule, nomEnMinuscules, dateNaissance, mdp, statut);
-        }
+        Node bouton = (Node) e.getSource();
+        Occupation.pendant(database.stockerUtilisateurAPartirNom(identifiant.toLowerCase()), null, bouton)
+                .thenAccept(utilisateur -> {
+                    if (!utilisateur[0].toLowerCase().equals("false")) {
+                        afficherErreur("Un utilisateur avec cet identifiant existe déjà.");
+                    } else {
+                        String nomEnMinuscules = nom.toLowerCase();
+                        String pnomEnMinuscule = prenom.toLowerCase();
+                        ajouterUtilisateur(identifiant, pnomEnMinuscule, nomEnMinuscules, dateNaissance, mdp, statut);
+                    }
+                });
     }
 
     /**
@@ -151,27 +152,13 @@ public class AjouterUtilisateurController implements EventHandler<ActionEvent> {
 	    	String nomEnMinuscules = nom.toLowerCase();
 			String pnomEnMinuscule = prenom.toLowerCase();
 			String identifiantEnMinuscule = identifiant.toLowerCase();
-        database.insererUtilisateur(identifiantEnMinuscule, pnomEnMinuscule, nomEnMinuscules, dateNaissance, mdp, statut);
-        afficherErreur("Utilisateur " + prenom + " " + nom + " ajouté avec succès");
-        erreur.setTextFill(Color.GREEN);
-
-        Task<Void> pauseTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                Thread.sleep(1000);
-                return null;
-            }
-        };
-
-        pauseTask.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
-            @Override
-            public void handle(WorkerStateEvent event) {
-                primaryStage.close();
-                Logiciel logiciel = new Logiciel(primaryStage);
-                logiciel.afficheVueAccueil();
-            }
-        });
+        Occupation.pendant(database.insererUtilisateur(identifiantEnMinuscule, pnomEnMinuscule, nomEnMinuscules,
+                dateNaissance, mdp, statut), null, textPrenom, textNom, textMdp, datePicker, statutComboBox)
+                .thenRun(() -> {
+            afficherErreur("Utilisateur " + prenom + " " + nom + " ajouté avec succès");
+            erreur.setTextFill(Color.GREEN);
 
-        new Thread(pauseTask).start();
+            ServiceNavigation.versAccueil(primaryStage);
+        });
     }
 }}
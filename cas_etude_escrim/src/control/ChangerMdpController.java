@@ -1,7 +1,5 @@
 package control;
 
-import javafx.concurrent.Task;
-import javafx.concurrent.WorkerStateEvent;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.DatePicker;
@@ -9,18 +7,20 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
-import model.BDD;
+import model.BDDAsynchrone;
 import view.Connexion;
+import view.Occupation;
 
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Classe du contrôleur pour changer de mot de passe.
  */
 public class ChangerMdpController implements EventHandler<ActionEvent> {
 
-    private BDD database;
+    private BDDAsynchrone database;
     private TextField textIdentifiant;
     private TextField textMdp;
     private Label erreur;
@@ -37,7 +37,7 @@ public class ChangerMdpController implements EventHandler<ActionEvent> {
      * @param primaryStage  Fenêtre principale de l'application.
      */
     public ChangerMdpController(TextField textIdentifiant, DatePicker textDateNaissance, TextField textMdp, Label erreur, Stage primaryStage) {
-        database = new BDD();
+        database = BDDAsynchrone.getInstance();
         this.textIdentifiant = textIdentifiant;
         this.textDateNaissance = textDateNaissance;
         this.textMdp = textMdp;
@@ -113,39 +113,35 @@ public class ChangerMdpController implements EventHandler<ActionEvent> {
     public void changerMotDePasse(String identifiant, LocalDate dateNaissance, String mdp) {
         Date dateNaissanceSQL = Date.valueOf(dateNaissance);
         String identifiantEnMinuscule = identifiant.toLowerCase();
-        boolean identifiantValide = database.verifierIdentifiantEtDateNaissance(identifiantEnMinuscule, dateNaissanceSQL);
-
-        if (!identifiantValide) {
-            afficherErreur("Identifiant et/ou date de naissance incorrects.");
-        } else {
-            boolean mdpModifie = database.modifierMotDePasse(identifiantEnMinuscule, mdp);
-
-            if (mdpModifie) {
-                afficherErreur("Mot de passe modifié avec succès.");
-                this.erreur.setTextFill(Color.GREEN);
-
-                Task<Void> pauseTask = new Task<Void>() {
-                    @Override
-                    protected Void call() throws Exception {
-                        Thread.sleep(1000);
-                        return null;
-                    }
-                };
-
-                pauseTask.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
-                    @Override
-                    public void handle(WorkerStateEvent event) {
-                        primaryStage.close();
-                        Connexion connexion = new Connexion(primaryStage);
-                        connexion.afficheVueConnexion();
+        Occupation.pendant(database.verifierIdentifiantEtDateNaissance(identifiantEnMinuscule, dateNaissanceSQL)
+                .thenCompose(identifiantValide -> {
+                    if (!identifiantValide) {
+                        afficherErreur("Identifiant et/ou date de naissance incorrects.");
+                        return CompletableFuture.completedFuture(null);
                     }
-                });
+                    return database.modifierMotDePasse(identifiantEnMinuscule, mdp);
+                }), null, textIdentifiant, textDateNaissance, textMdp)
+                .thenAccept(this::afficherResultatModification);
+    }
 
-                new Thread(pauseTask).start();
+    /**
+     * Affiche le résultat de la modification du mot de passe et retourne à la
+     * vue de connexion en cas de succès.
+     * 
+     * @param mdpModifie Le résultat de la modification, ou null si elle n'a pas été tentée
+     */
+    public void afficherResultatModification(Boolean mdpModifie) {
+        if (mdpModifie == null) {
+            return;
+        }
+        if (mdpModifie) {
+            afficherErreur("Mot de passe modifié avec succès.");
+            this.erreur.setTextFill(Color.GREEN);
+
+            ServiceNavigation.versConnexion(primaryStage);
 
-            } else {
-                afficherErreur("Erreur lors de la modification du mot de passe.");
-            }
+        } else {
+            afficherErreur("Erreur lors de la modification du mot de passe.");
         }
     }
 }
@@ -1,25 +1,22 @@
 package control;
 
 import java.sql.Date;
-import javafx.concurrent.Task;
-import javafx.concurrent.WorkerStateEvent;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
-import model.BDD;
-import view.BlesseView;
-import view.LogisticienView;
-import view.MedecinView;
+import javafx.scene.Node;
+import model.BDDAsynchrone;
+import view.Occupation;
 
 /**
  * Contrôleur pour la gestion de la connexion utilisateur.
  */
 public class ConnexionController implements EventHandler<ActionEvent> {
 
-    private BDD database;
+    private BDDAsynchrone database;
     private TextField textId;
     private TextField textMdp;
     private Label erreur;
@@ -38,18 +35,29 @@ public class ConnexionController implements EventHandler<ActionEvent> {
         this.textMdp = textMdp;
         this.erreur = erreur;
         this.primaryStage = primaryStage;
-        database = new BDD();
+        database = BDDAsynchrone.getInstance();
     }
 
     /**
-     * Méthode de gestion de l'événement de connexion.
+     * Méthode de gestion de l'événement de connexion. L'utilisateur est lu en
+     * arrière-plan ; le bouton reste désactivé pendant la lecture.
      */
     public void handle(ActionEvent e) {
         String identifiant = this.textId.getText();
         String identifiantEnMinuscule = identifiant.toLowerCase();
         String mdp = this.textMdp.getText();
-        String[] utilisateur = this.database.stockerUtilisateurParIdentifiant(identifiantEnMinuscule);
+        Occupation.pendant(this.database.stockerUtilisateurParIdentifiant(identifiantEnMinuscule), null,
+                (Node) e.getSource())
+                .thenAccept(utilisateur -> verifierUtilisateur(utilisateur, mdp));
+    }
 
+    /**
+     * Vérifie le mot de passe saisi pour l'utilisateur lu en base.
+     * 
+     * @param utilisateur Informations sur l'utilisateur, ou null
+     * @param mdp Mot de passe saisi
+     */
+    public void verifierUtilisateur(String[] utilisateur, String mdp) {
         if (utilisateur == null || utilisateur[0] == null || !utilisateur[0].equals("true")) {
             afficherErreur("Cet identifiant n'existe pas.");
         } else if (!(utilisateur[4].trim()).equals(mdp)) {
@@ -101,71 +109,20 @@ public class ConnexionController implements EventHandler<ActionEvent> {
      * @param dateNaissance Date de naissance de l'utilisateur
      */
     public void afficherVueBlesse(String prenom, String nom, Date dateNaissance) {
-        Task<Void> pauseTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                Thread.sleep(1000);
-                return null;
-            }
-        };
-
-        pauseTask.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
-            @Override
-            public void handle(WorkerStateEvent event) {
-                primaryStage.close();
-                BlesseView blesseView = new BlesseView(primaryStage);
-                blesseView.afficheVueBlesse(prenom, nom, dateNaissance);
-            }
-        });
-
-        new Thread(pauseTask).start();
+        ServiceNavigation.versBlesse(primaryStage, prenom, nom, dateNaissance);
     }
     
     /**
      * Affiche la vue pour un médecin.
      */
     public void afficherVueMedecin() {
-        Task<Void> pauseTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                Thread.sleep(1000);
-                return null;
-            }
-        };
-
-        pauseTask.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
-            @Override
-            public void handle(WorkerStateEvent event) {
-                primaryStage.close();
-                MedecinView medView = new MedecinView(primaryStage);
-                medView.afficheVueMedecin();
-            }
-        });
-
-        new Thread(pauseTask).start();
+        ServiceNavigation.versMedecin(primaryStage);
     }
 
     /**
      * Affiche la vue pour un logisticien.
      */
     public void afficherVueLogisticien() {
-        Task<Void> pauseTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                Thread.sleep(1000);
-                return null;
-            }
-        };
-
-        pauseTask.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
-            @Override
-            public void handle(WorkerStateEvent event) {
-                primaryStage.close();
-                LogisticienView logiView = new LogisticienView(primaryStage);
-                logiView.afficheVueLogisticien();
-            }
-        });
-
-        new Thread(pauseTask).start();
+        ServiceNavigation.versLogisticien(primaryStage);
     }
 }
@@ -0,0 +1,129 @@
+package control;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javafx.animation.PauseTransition;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.BDDAsynchrone;
+import model.LignePrescription;
+import model.LigneStockBas;
+import view.BlesseView;
+import view.Connexion;
+import view.LogisticienView;
+import view.Logiciel;
+import view.MedecinView;
+import view.RegistreVues;
+
+/**
+ * Changements d'écran après un message de réussite. Le message reste affiché
+ * le temps d'une {@link PauseTransition}, décomptée par le thread JavaFX sans
+ * occuper de thread ; pendant ce délai, l'écran suivant est construit et ses
+ * données sont lues en arrière-plan, de sorte qu'il s'affiche déjà rempli dès
+ * la fin du message.
+ */
+public final class ServiceNavigation {
+    /** Durée d'affichage d'un message de réussite avant le changement d'écran. */
+    public static final Duration DELAI_MESSAGE = Duration.seconds(1);
+    /** Durée d'affichage d'une confirmation avant la fermeture d'une fenêtre modale. */
+    public static final Duration DELAI_CONFIRMATION = Duration.seconds(2);
+
+    private ServiceNavigation() {
+    }
+
+    /**
+     * Exécute une action sur le thread JavaFX après un délai, sans bloquer de
+     * thread pendant l'attente.
+     *
+     * @param delai  Le délai avant l'action.
+     * @param action L'action à exécuter.
+     * @return La pause démarrée, qui peut être arrêtée pour annuler l'action.
+     */
+    public static PauseTransition apres(Duration delai, Runnable action) {
+        PauseTransition pause = new PauseTransition(delai);
+        pause.setOnFinished(event -> action.run());
+        pause.play();
+        return pause;
+    }
+
+    /**
+     * Affiche la fiche d'un blessé après le message de connexion ; la première
+     * page de ses prescriptions est lue pendant le message.
+     *
+     * @param primaryStage  La fenêtre principale.
+     * @param prenom        Le prénom du blessé.
+     * @param nom           Le nom du blessé.
+     * @param dateNaissance La date de naissance du blessé.
+     */
+    public static void versBlesse(Stage primaryStage, String prenom, String nom, Date dateNaissance) {
+        CompletableFuture<List<LignePrescription>> premierePage = BDDAsynchrone.getInstance()
+                .recupererPagePrescriptionsPatient(prenom, nom, 0L, true, BlesseView.TAILLE_PAGE_PRESCRIPTIONS);
+        BlesseView blesseView = RegistreVues.de(primaryStage).blesse();
+        apres(DELAI_MESSAGE, () -> {
+            primaryStage.close();
+            blesseView.afficheVueBlesse(prenom, nom, dateNaissance, premierePage);
+        });
+    }
+
+    /**
+     * Affiche la vue du médecin après le message de connexion ; la liste des
+     * attentats proposée dans ses formulaires est lue pendant le message.
+     *
+     * @param primaryStage La fenêtre principale.
+     */
+    public static void versMedecin(Stage primaryStage) {
+        BDDAsynchrone.getInstance().recupererAttentatsEnCache();
+        MedecinView medView = RegistreVues.de(primaryStage).medecin();
+        apres(DELAI_MESSAGE, () -> {
+            primaryStage.close();
+            medView.afficheVueMedecin();
+        });
+    }
+
+    /**
+     * Affiche la vue du logisticien après le message de connexion ; les stocks
+     * bas, les avions et les attentats sont lus pendant le message.
+     *
+     * @param primaryStage La fenêtre principale.
+     */
+    public static void versLogisticien(Stage primaryStage) {
+        BDDAsynchrone bddAsynchrone = BDDAsynchrone.getInstance();
+        CompletableFuture<List<LigneStockBas>> stocksBas = bddAsynchrone
+                .recupererStocksBas(LogisticienView.SEUIL_STOCK_BAS);
+        bddAsynchrone.recupererAvionsEnCache();
+        bddAsynchrone.recupererAttentatsEnCache();
+        LogisticienView logiView = RegistreVues.de(primaryStage).logisticien();
+        apres(DELAI_MESSAGE, () -> {
+            primaryStage.close();
+            logiView.afficheVueLogisticien(stocksBas);
+        });
+    }
+
+    /**
+     * Revient à l'accueil après le message de réussite.
+     *
+     * @param primaryStage La fenêtre principale.
+     */
+    public static void versAccueil(Stage primaryStage) {
+        Logiciel logiciel = RegistreVues.de(primaryStage).accueil();
+        apres(DELAI_MESSAGE, () -> {
+            primaryStage.close();
+            logiciel.afficheVueAccueil();
+        });
+    }
+
+    /**
+     * Revient à la connexion après le message de réussite.
+     *
+     * @param primaryStage La fenêtre principale.
+     */
+    public static void versConnexion(Stage primaryStage) {
+        Connexion connexion = new Connexion(primaryStage);
+        apres(DELAI_MESSAGE, () -> {
+            primaryStage.close();
+            connexion.afficheVueConnexion();
+        });
+    }
+}
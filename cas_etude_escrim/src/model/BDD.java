@@ -5,58 +5,395 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
-import org.h2.jdbcx.JdbcDataSource;
+import model.RegistreMetriques.Mesure;
 
 /**
  * Cette classe gère les interactions avec la base de données.
+ * Une seule instance, partagée par toutes les vues et tous les contrôleurs,
+ * emprunte ses connexions à un {@link PoolConnexions} borné.
  */
 public class BDD {
-	private Connection dbConnection;
-	private PreparedStatement insertionUtilisateur;
-	private PreparedStatement selectionUtilisateurParNom;
+	private static final String COLONNES_MEDICAMENT = "ID, PRODUIT, DCI, DOSAGE, DLU, QUANTITÉ, LOT, CLASSE, NUM_CAISSE, CAISSE";
+	private static final String COLONNES_AVION = "NOM, CONSTRUCTEUR, TYPE_MOTEUR, TYPE_DE_VOL, TONNE_MAX, TAILLE_PORTE_CM, "
+			+ "DIMENSIONS_SOUTE_CM, VOLUME_UTILISABLE_M3, EXIGENCE_PISTE_M, PORTEE_CHARGE_KM, PORTEE_VIDE_KM, "
+			+ "VITESSE_CROISIERE_KMH, CONSOMMATION_CARBURANT_LH, POSITIONS_PALETTES, etat, lieu_attentat, date_attentat";
+	private static final String COLONNES_PRESCRIPTION = "ID, PRéNOM, NOM, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, "
+			+ "DATE_PRESCRIPTION, lieu_Attentat, date_Attentat";
+	private static final String MOUVEMENT_ENTREE = "ENTREE";
+	private static final String MOUVEMENT_SORTIE = "SORTIE";
+	private static final String MOUVEMENT_TRANSFERT = "TRANSFERT";
+	private static final String MOUVEMENT_CORRECTION = "CORRECTION";
+	private static final String STOCK_INDISPONIBLE = "Stock indisponible pour le moment, réessayez.";
+
+	/*
+	 * Requêtes par clé ou par index, partagées avec SchemaBDD#verifierIndex qui
+	 * vérifie par EXPLAIN qu'aucune ne parcourt une table entière.
+	 */
+	static final String UTILISATEUR_PAR_IDENTIFIANT = "SELECT identifiant, `prénom`, nom,  date_naissance, mdp, statut "
+			+ "FROM personne WHERE identifiant = ?";
+	static final String UTILISATEUR_PAR_NOM = "SELECT * FROM personne WHERE identifiant = ?";
+	static final String UTILISATEUR_ET_NAISSANCE = "SELECT COUNT(*) FROM personne "
+			+ "WHERE identifiant = ? AND date_naissance = ?";
+	static final String STOCKS_PRODUIT = "SELECT PRODUIT, DCI, DOSAGE, SUM(QUANTITÉ) FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? GROUP BY PRODUIT, DCI, DOSAGE";
+	static final String STOCK_DLU = "SELECT SUM(QUANTITÉ) FROM médicament WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?";
+	static final String LOTS_A_CORRIGER = "SELECT ID, QUANTITÉ FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ? FOR UPDATE";
+	static final String ENTREES_LOT_A_PROJETER = "SELECT COALESCE(SUM(QUANTITÉ), 0) "
+			+ "FROM OLD TABLE (DELETE FROM mouvement_a_projeter WHERE MEDICAMENT_ID = ?)";
+	static final String CORRECTION_LOT = "UPDATE médicament SET QUANTITÉ = ? WHERE ID = ?";
+	static final String LOT_EXISTE = "SELECT COUNT(*) FROM médicament WHERE ID = ?";
+	static final String SORTIE_TRANSFERT = "SELECT PRODUIT, DOSAGE FROM FINAL TABLE (UPDATE médicament "
+			+ "SET QUANTITÉ = QUANTITÉ - ? WHERE ID = ? AND QUANTITÉ >= ?)";
+	static final String STOCK_A_LA_DATE = "SELECT COALESCE(SUM(m.QUANTITÉ), 0) "
+			+ "FROM médicament l JOIN mouvement_stock m ON m.MEDICAMENT_ID = l.ID "
+			+ "WHERE l.PRODUIT = ? AND l.DOSAGE = ? AND m.DATE_MOUVEMENT < ?";
+	static final String PROJECTION_LOT = "SELECT PRODUIT, DOSAGE FROM FINAL TABLE (UPDATE médicament "
+			+ "SET QUANTITÉ = QUANTITÉ + ? WHERE ID = ?)";
+	static final String AFFECTATION_AVION = "UPDATE avion SET etat = ?, lieu_attentat = ?, date_attentat = ? "
+			+ "WHERE nom = ?";
+	static final String MODIFICATION_MOT_DE_PASSE = "UPDATE personne SET mdp = ? WHERE identifiant = ?";
+	static final String LOT_PAR_NUMERO = "SELECT ID FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ? AND LOT = ? FETCH FIRST ROW ONLY";
+	static final String LOTS_PAR_PEREMPTION = "SELECT ID, DLU, QUANTITÉ FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? AND DLU >= ? AND QUANTITÉ > 0 "
+			+ "ORDER BY PRODUIT, DOSAGE, DLU FOR UPDATE";
+	static final String SORTIE_LOT = "UPDATE médicament SET QUANTITÉ = QUANTITÉ - ? WHERE ID = ?";
+	static final String PRODUITS_DELIVRABLES = "SELECT DISTINCT PRODUIT, DOSAGE FROM médicament "
+			+ "USE INDEX (idx_medicament_produit_dosage_dlu) WHERE DLU >= ? AND QUANTITÉ > 0 ORDER BY PRODUIT, DOSAGE";
+	static final String LOTS_DELIVRABLES = "SELECT " + COLONNES_MEDICAMENT + " FROM médicament "
+			+ "USE INDEX (idx_medicament_produit_dosage_dlu) WHERE DLU >= ? AND QUANTITÉ > 0 ORDER BY PRODUIT, DOSAGE, DLU";
+	static final String STOCK_DELIVRABLE = "SELECT COALESCE(SUM(QUANTITÉ), 0) FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? AND DLU >= ?";
+	static final String LOTS_A_DELIVRER = "SELECT ID, QUANTITÉ FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ? AND QUANTITÉ > 0 ORDER BY ID FOR UPDATE";
+	static final String SOMME_STOCK = "SELECT COALESCE(SUM(QUANTITÉ), 0) FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?";
+	static final String DLU_DELIVRABLES = "SELECT DISTINCT DLU FROM médicament "
+			+ "WHERE PRODUIT = ? AND DOSAGE = ? AND DLU >= ? AND QUANTITÉ > 0 ORDER BY DLU";
+	static final String BLESSES_SOIGNES = "UPDATE attentat SET Pers_à_soigner = Pers_à_soigner - ? "
+			+ "WHERE lieu = ? AND date_evenement = ?";
+	static final String PRESCRIPTIONS_PATIENT = "SELECT " + COLONNES_PRESCRIPTION + " FROM prescription "
+			+ "WHERE PRéNOM = ? AND NOM = ?";
+	static final String PRESCRIPTION_EXISTE = "SELECT COUNT(*) FROM prescription WHERE PRéNOM = ? AND NOM = ?";
+	static final String MISE_EN_VEILLE = "MERGE INTO lot_a_veiller (MEDICAMENT_ID) KEY (MEDICAMENT_ID) VALUES (?)";
+	static final String FILIGRANE_PEREMPTION = "SELECT DLU_MAX FROM veille_peremption WHERE HORIZON = ?";
+	static final String ALERTES_DLU_FRANCHIES = "MERGE INTO alerte_peremption (MEDICAMENT_ID, HORIZON) "
+			+ "KEY (MEDICAMENT_ID, HORIZON) "
+			+ "SELECT ID, ? FROM médicament WHERE DLU > ? AND DLU <= ?";
+	static final String ALERTE_LOT_VEILLE = "MERGE INTO alerte_peremption (MEDICAMENT_ID, HORIZON) "
+			+ "KEY (MEDICAMENT_ID, HORIZON) "
+			+ "SELECT ID, ? FROM médicament WHERE ID = ? AND DLU <= ?";
+	static final String AVANCEE_FILIGRANE = "MERGE INTO veille_peremption (HORIZON, DLU_MAX) "
+			+ "KEY (HORIZON) VALUES (?, ?)";
+	static final String PAGE_MEDICAMENTS_SUIVANTE = "SELECT " + COLONNES_MEDICAMENT + " FROM médicament WHERE ID > ? "
+			+ "ORDER BY ID FETCH FIRST ? ROWS ONLY";
+	static final String PAGE_MEDICAMENTS_PRECEDENTE = "SELECT " + COLONNES_MEDICAMENT + " FROM médicament "
+			+ "WHERE ID < ? ORDER BY ID DESC FETCH FIRST ? ROWS ONLY";
+	static final String PAGE_AVIONS_SUIVANTE = "SELECT " + COLONNES_AVION + " FROM avion WHERE NOM > ? "
+			+ "ORDER BY NOM FETCH FIRST ? ROWS ONLY";
+	static final String PAGE_AVIONS_PRECEDENTE = "SELECT " + COLONNES_AVION + " FROM avion WHERE NOM < ? "
+			+ "ORDER BY NOM DESC FETCH FIRST ? ROWS ONLY";
+	static final String PAGE_PRESCRIPTIONS_SUIVANTE = "SELECT " + COLONNES_PRESCRIPTION + " FROM prescription "
+			+ "WHERE ID > ? ORDER BY ID FETCH FIRST ? ROWS ONLY";
+	static final String PAGE_PRESCRIPTIONS_PRECEDENTE = "SELECT " + COLONNES_PRESCRIPTION + " FROM prescription "
+			+ "WHERE ID < ? ORDER BY ID DESC FETCH FIRST ? ROWS ONLY";
+	static final String PAGE_PRESCRIPTIONS_PATIENT_SUIVANTE = "SELECT " + COLONNES_PRESCRIPTION + " FROM prescription "
+			+ "WHERE PRéNOM = ? AND NOM = ? AND ID > ? "
+			+ "ORDER BY PRéNOM, NOM, ID FETCH FIRST ? ROWS ONLY";
+	static final String PAGE_PRESCRIPTIONS_PATIENT_PRECEDENTE = "SELECT " + COLONNES_PRESCRIPTION + " FROM prescription "
+			+ "WHERE PRéNOM = ? AND NOM = ? AND ID < ? "
+			+ "ORDER BY PRéNOM DESC, NOM DESC, ID DESC FETCH FIRST ? ROWS ONLY";
+	static final String RECHERCHE_MEDICAMENTS = "SELECT " + COLONNES_MEDICAMENT + " FROM médicament "
+			+ "WHERE PRODUIT_MIN LIKE ? ESCAPE '\\' "
+			+ "ORDER BY PRODUIT_MIN, ID FETCH FIRST ? ROWS ONLY";
+	static final String RECHERCHE_AVIONS = "SELECT " + COLONNES_AVION + " FROM avion "
+			+ "WHERE NOM_MIN LIKE ? ESCAPE '\\' ORDER BY NOM_MIN, NOM FETCH FIRST ? ROWS ONLY";
+	static final String RECHERCHE_ATTENTATS = "SELECT lieu, Tot_blessés, Pers_à_soigner, date_evenement FROM attentat "
+			+ "WHERE LIEU_MIN LIKE ? ESCAPE '\\' ORDER BY LIEU_MIN, date_evenement FETCH FIRST ? ROWS ONLY";
+	static final String RECHERCHE_PRESCRIPTIONS = "SELECT " + COLONNES_PRESCRIPTION + " FROM prescription "
+			+ "WHERE NOM_MIN LIKE ? ESCAPE '\\' "
+			+ "ORDER BY NOM_MIN, ID FETCH FIRST ? ROWS ONLY";
+
+	private static BDD instance;
+	private final PoolConnexions pool;
+	private final CacheReference<LigneAttentat> cacheAttentats;
+	private final CacheReference<LigneAvion> cacheAvions;
+	private final CopyOnWriteArrayList<EcouteurBDD> ecouteurs = new CopyOnWriteArrayList<>();
+	private final RegistreMetriques metriques;
+	private ConfigurationBDD configuration;
+	private int versionSchema = -1;
+	private ProjectionStock projection;
+	private StockMemoire stockMemoire;
+	private VeillePeremption veillePeremption;
+
+	/**
+	 * Constructeur de la classe BDD à partir d'un pool de connexions existant.
+	 * La durée de vie et la taille des caches des attentats et des avions sont
+	 * configurables par les propriétés système {@code escrim.cache.dureeVie} (en ms)
+	 * et {@code escrim.cache.taille}.
+	 *
+	 * @param pool Le pool dans lequel emprunter les connexions.
+	 */
+	public BDD(PoolConnexions pool) {
+		this.pool = pool;
+		this.metriques = new RegistreMetriques(pool.getHistogrammeAttente());
+		long dureeVie = Long.getLong("escrim.cache.dureeVie", 300_000L);
+		int taille = Integer.getInteger("escrim.cache.taille", 10_000);
+		this.cacheAttentats = new CacheReference<>(this::recupererListeAttentat, dureeVie, taille);
+		this.cacheAvions = new CacheReference<>(this::recupererStocksAvions, dureeVie, taille);
+	}
 
 	/**
-	 * Constructeur de la classe BDD. Initialise la connexion à la base de données
-	 * et prépare les requêtes SQL.
+	 * Obtient l'instance partagée de la base de données, en ouvrant le pool de
+	 * connexions au premier appel selon {@link ConfigurationBDD#depuisProprietes()}.
+	 * L'instance partagée projette les entrées de stock en attente toutes les
+	 * {@code escrim.stock.projection} ms, par lots de {@code escrim.stock.tailleProjection}
+	 * mouvements ({@link ProjectionStock}). La propriété {@code escrim.stock.memoire}
+	 * active le stock en mémoire des prescriptions ({@link #activerStockMemoire(long, int)}).
+	 * Elle veille aussi les péremptions des lots ({@link VeillePeremption}).
+	 *
+	 * @return L'instance unique de BDD.
 	 */
-	public BDD() {
-		openDBConnection();
-		prepareStatements();
+	public static synchronized BDD getInstance() {
+		if (instance == null) {
+			ConfigurationBDD configuration = ConfigurationBDD.depuisProprietes();
+			instance = new BDD(openDBConnection(configuration));
+			instance.configuration = configuration;
+			instance.versionSchema = instance.initialiserSchema();
+			instance.metriques.exporterJmx("escrim:type=BDD,name=Metriques");
+			instance.projection = new ProjectionStock(instance, Long.getLong("escrim.stock.projection", 200L),
+					Integer.getInteger("escrim.stock.tailleProjection", 1_000));
+			instance.veillePeremption = new VeillePeremption(instance,
+					Arrays.stream(System.getProperty("escrim.peremption.horizons", "7,30,90").split(","))
+							.map(horizon -> Integer.valueOf(horizon.trim())).toList(),
+					Long.getLong("escrim.peremption.periode", 900_000L));
+			if (Boolean.getBoolean("escrim.stock.memoire")) {
+				instance.activerStockMemoire(Long.getLong("escrim.stock.memoire.delai", 100L),
+						Integer.getInteger("escrim.stock.memoire.tailleLot", 500));
+			}
+			if (instance.pool.getSuiviFuites() != null) {
+				instance.pool.getSuiviFuites().exporterJmx("escrim:type=BDD,name=Fuites");
+			}
+		}
+		return instance;
 	}
 
 	/**
-	 * Ouvre une connexion à la base de données.
+	 * Ouvre le pool de connexions à la base de données décrite par les propriétés
+	 * système.
+	 *
+	 * @return Le pool de connexions créé.
+	 * @see #openDBConnection(ConfigurationBDD)
 	 */
-	public void openDBConnection() {
-		JdbcDataSource dataSource = new JdbcDataSource();
-		dataSource.setURL("jdbc:h2:tcp://localhost/~/test");
-		dataSource.setUser("sa");
-		dataSource.setPassword("");
+	public static PoolConnexions openDBConnection() {
+		return openDBConnection(ConfigurationBDD.depuisProprietes());
+	}
 
-		try {
-			dbConnection = dataSource.getConnection();
-		} catch (SQLException e) {
-			e.printStackTrace();
+	/**
+	 * Ouvre le pool de connexions à la base de données. La taille et les délais du
+	 * pool sont configurables par les propriétés système {@code escrim.pool.taille},
+	 * {@code escrim.pool.inactivite} et {@code escrim.pool.attente} (en ms), et la
+	 * capacité du cache de requêtes par {@code escrim.pool.cacheRequetes}. La
+	 * propriété {@code escrim.bdd.debugFuites} active le suivi des requêtes et
+	 * résultats restés ouverts ({@link SuiviFuites}).
+	 *
+	 * @param configuration Le mode de stockage et l'emplacement de la base.
+	 * @return Le pool de connexions créé.
+	 */
+	public static PoolConnexions openDBConnection(ConfigurationBDD configuration) {
+		int taille = Integer.getInteger("escrim.pool.taille", 4);
+		long inactivite = Long.getLong("escrim.pool.inactivite", 60_000L);
+		long attente = Long.getLong("escrim.pool.attente", 5_000L);
+		// Chaque connexion finit par préparer presque toutes les requêtes de BDD
+		// (près de cinquante textes), puisque les vues et les tâches de fond
+		// (projection, veille des péremptions, stock en mémoire) se partagent le
+		// pool : le cache doit les contenir toutes pour qu'aucune ne soit évincée
+		// puis réanalysée après la mise en route.
+		int cacheRequetes = Integer.getInteger("escrim.pool.cacheRequetes", 64);
+		SuiviFuites suiviFuites = Boolean.getBoolean("escrim.bdd.debugFuites") ? new SuiviFuites() : null;
+		return new PoolConnexions(configuration.creerDataSource(), taille, inactivite, attente, cacheRequetes,
+				suiviFuites);
+	}
+
+	/**
+	 * Active le stock en mémoire des prescriptions : les délivrances de
+	 * {@link #insererPrescription} sont réservées en mémoire puis écrites en base
+	 * par lots ({@link StockMemoire}).
+	 *
+	 * @param delai     Le délai maximal avant l'écriture d'une délivrance en base, en ms.
+	 * @param tailleLot Le nombre de délivrances en attente qui déclenche une écriture anticipée.
+	 * @return Le stock en mémoire, déjà actif s'il l'était.
+	 */
+	public synchronized StockMemoire activerStockMemoire(long delai, int tailleLot) {
+		if (stockMemoire == null) {
+			stockMemoire = new StockMemoire(this, delai, tailleLot, pool.getDelaiAttente());
 		}
+		return stockMemoire;
 	}
 
 	/**
-	 * Prépare les requêtes SQL à exécuter.
+	 * @return La veille des péremptions de l'instance partagée, ou null pour
+	 *         une base ouverte directement sur un pool.
 	 */
-	public void prepareStatements() {
+	public VeillePeremption getVeillePeremption() {
+		return veillePeremption;
+	}
+
+	/**
+	 * Arrête la veille des péremptions, écrit les délivrances du stock en mémoire et projette les dernières entrées
+	 * de stock, ferme les connexions du pool et arrête le serveur TCP
+	 * éventuellement démarré pour la base embarquée.
+	 */
+	public void fermer() {
+		if (veillePeremption != null) {
+			veillePeremption.arreter();
+		}
+		if (stockMemoire != null) {
+			stockMemoire.arreter();
+		}
+		if (projection != null) {
+			projection.arreter();
+		}
+		pool.fermer();
+		if (configuration != null) {
+			configuration.arreter();
+		}
+	}
+
+	/**
+	 * Crée les tables, contraintes et index manquants de la base.
+	 *
+	 * @return La version du schéma, ou -1 si l'initialisation a échoué.
+	 * @see SchemaBDD#initialiser(Connection)
+	 */
+	public int initialiserSchema() {
+		Mesure mesure = metriques.demarrer("initialiserSchema");
+		Connection connexion = null;
 		try {
-			insertionUtilisateur = dbConnection.prepareStatement(
-					"INSERT INTO personne (identifiant, prénom, nom, date_naissance, mdp, statut) VALUES (?, ?, ?, ?, ?, ?)");
-			selectionUtilisateurParNom = dbConnection.prepareStatement("SELECT * FROM personne WHERE identifiant = ?");
+			connexion = pool.emprunter();
+			return SchemaBDD.initialiser(connexion);
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
+			return -1;
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer();
+		}
+	}
+
+	/**
+	 * @return La version du schéma vérifiée à l'ouverture de l'instance partagée,
+	 *         ou -1 si la base n'a pas pu être initialisée.
+	 */
+	public int getVersionSchema() {
+		return versionSchema;
+	}
+
+	/**
+	 * @return Le pool de connexions utilisé par cette instance.
+	 */
+	public PoolConnexions getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return Le registre des durées d'appel, erreurs et lignes renvoyées par méthode.
+	 */
+	public RegistreMetriques getMetriques() {
+		return metriques;
+	}
+
+	/**
+	 * @return Le cache de la liste des attentats.
+	 */
+	public CacheReference<LigneAttentat> getCacheAttentats() {
+		return cacheAttentats;
+	}
+
+	/**
+	 * @return Le cache de la liste des avions.
+	 */
+	public CacheReference<LigneAvion> getCacheAvions() {
+		return cacheAvions;
+	}
+
+	/**
+	 * Inscrit un écouteur des écritures validées, s'il ne l'est pas déjà.
+	 *
+	 * @param ecouteur L'écouteur à prévenir.
+	 */
+	public void ajouterEcouteur(EcouteurBDD ecouteur) {
+		ecouteurs.addIfAbsent(ecouteur);
+	}
+
+	/**
+	 * Désinscrit un écouteur des écritures.
+	 *
+	 * @param ecouteur L'écouteur à ne plus prévenir.
+	 */
+	public void retirerEcouteur(EcouteurBDD ecouteur) {
+		ecouteurs.remove(ecouteur);
+	}
+
+	/**
+	 * Prévient les écouteurs d'une écriture validée. L'échec d'un écouteur
+	 * n'annule pas l'écriture et n'empêche pas les autres d'être prévenus.
+	 */
+	private void notifier(Consumer<EcouteurBDD> notification) {
+		for (EcouteurBDD ecouteur : ecouteurs) {
+			try {
+				notification.accept(ecouteur);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
 		}
 	}
 
+	/**
+	 * Renvoie la liste des attentats depuis le cache, relue en base seulement
+	 * si elle n'y est plus valable.
+	 *
+	 * @return La liste non modifiable des attentats.
+	 * @see #recupererListeAttentat()
+	 */
+	public List<LigneAttentat> recupererAttentatsEnCache() {
+		Mesure mesure = metriques.demarrer("recupererAttentatsEnCache");
+		List<LigneAttentat> attentats = cacheAttentats.obtenir();
+		mesure.terminer(attentats.size());
+		return attentats;
+	}
+
+	/**
+	 * Renvoie la liste des avions depuis le cache, relue en base seulement si
+	 * elle n'y est plus valable.
+	 *
+	 * @return La liste non modifiable des avions.
+	 * @see #recupererStocksAvions()
+	 */
+	public List<LigneAvion> recupererAvionsEnCache() {
+		Mesure mesure = metriques.demarrer("recupererAvionsEnCache");
+		List<LigneAvion> avions = cacheAvions.obtenir();
+		mesure.terminer(avions.size());
+		return avions;
+	}
 	/**
 	 * Insère un nouvel utilisateur dans la base de données.
 	 * 
@@ -69,17 +406,26 @@ public class BDD {
 	 */
 	public void insererUtilisateur(String identifiant, String prenom, String nom, LocalDate dateNaissance, String mdp,
 			String statut) {
+		Mesure mesure = metriques.demarrer("insererUtilisateur");
+		Connection connexion = null;
 		try {
+			connexion = pool.emprunter();
+			PreparedStatement insertionUtilisateur = pool.preparer(connexion,
+					"INSERT INTO personne (identifiant, prénom, nom, date_naissance, mdp, statut) VALUES (?, ?, ?, ?, ?, ?)");
 			insertionUtilisateur.setString(1, identifiant);
 			insertionUtilisateur.setString(2, prenom);
 			insertionUtilisateur.setString(3, nom);
 			insertionUtilisateur.setDate(4, Date.valueOf(dateNaissance));
 			insertionUtilisateur.setString(5, mdp);
 			insertionUtilisateur.setString(6, statut);
-			
+
 			insertionUtilisateur.executeUpdate();
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer();
 		}
 	}
 
@@ -91,25 +437,31 @@ public class BDD {
 	 *         existe, sinon un tableau vide.
 	 */
 	public String[] stockerUtilisateurParIdentifiant(String identifiant) {
+		Mesure mesure = metriques.demarrer("stockerUtilisateurParIdentifiant");
 		String[] res = new String[6];
+		Connection connexion = null;
 		try {
-			PreparedStatement selectionUtilisateurParIdentifiant = dbConnection.prepareStatement(
-					"SELECT identifiant, `prénom`, nom,  date_naissance, mdp, statut FROM personne WHERE identifiant = ?");
+			connexion = pool.emprunter();
+			PreparedStatement selectionUtilisateurParIdentifiant = pool.preparer(connexion, UTILISATEUR_PAR_IDENTIFIANT);
 			selectionUtilisateurParIdentifiant.setString(1, identifiant);
-			ResultSet rs = selectionUtilisateurParIdentifiant.executeQuery();
-			boolean existe = false;
-			while (rs.next()) {
-				existe = true;
-				res[1] = rs.getString("prénom");
-				res[2] = rs.getString("nom");
-				res[3] = rs.getDate("date_naissance").toString();
-				res[4] = rs.getString("mdp");
-				res[5] = rs.getString("statut");
-				
+			try (ResultSet rs = selectionUtilisateurParIdentifiant.executeQuery()) {
+				boolean existe = false;
+				while (rs.next()) {
+					existe = true;
+					res[1] = rs.getString("prénom");
+					res[2] = rs.getString("nom");
+					res[3] = rs.getDate("date_naissance").toString();
+					res[4] = rs.getString("mdp");
+					res[5] = rs.getString("statut");
+				}
+				res[0] = String.valueOf(existe);
 			}
-			res[0] = String.valueOf(existe);
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer();
 		}
 		return res;
 	}
@@ -122,20 +474,29 @@ public class BDD {
 	 *         existe, sinon un tableau vide.
 	 */
 	public String[] stockerUtilisateurAPartirNom(String nom) {
+		Mesure mesure = metriques.demarrer("stockerUtilisateurAPartirNom");
 		String[] res = new String[4];
+		Connection connexion = null;
 		try {
+			connexion = pool.emprunter();
+			PreparedStatement selectionUtilisateurParNom = pool.preparer(connexion, UTILISATEUR_PAR_NOM);
 			selectionUtilisateurParNom.setString(1, nom);
-			ResultSet rs = selectionUtilisateurParNom.executeQuery();
-			boolean existe = false;
-			while (rs.next()) {
-				existe = true;
-				res[1] = rs.getString("prénom");
-				res[2] = rs.getString("mdp");
-				res[3] = rs.getString("statut");
+			try (ResultSet rs = selectionUtilisateurParNom.executeQuery()) {
+				boolean existe = false;
+				while (rs.next()) {
+					existe = true;
+					res[1] = rs.getString("prénom");
+					res[2] = rs.getString("mdp");
+					res[3] = rs.getString("statut");
+				}
+				res[0] = String.valueOf(existe);
 			}
-			res[0] = String.valueOf(existe);
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer();
 		}
 		return res;
 	}
@@ -150,67 +511,211 @@ public class BDD {
 	 *         utilisateur dans la base de données, sinon False.
 	 */
 	public boolean verifierIdentifiantEtDateNaissance(String identifiant, Date dateNaissance) {
+		Mesure mesure = metriques.demarrer("verifierIdentifiantEtDateNaissance");
+		Connection connexion = null;
 		try {
-			PreparedStatement statement = dbConnection
-					.prepareStatement("SELECT COUNT(*) FROM personne WHERE identifiant = ? AND date_naissance = ?");
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion, UTILISATEUR_ET_NAISSANCE);
 			statement.setString(1, identifiant);
 			statement.setDate(2, dateNaissance);
-			ResultSet resultSet = statement.executeQuery();
-			resultSet.next();
-			int count = resultSet.getInt(1);
-			return count > 0;
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				int count = resultSet.getInt(1);
+				return count > 0;
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
 			return false;
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer();
 		}
 	}
 
 	/**
 	 * Récupère les stocks de médicaments depuis la base de données.
 	 * 
-	 * @return Une liste de tableaux de String, où chaque tableau représente les
-	 *         informations d'un médicament.
+	 * @return La liste des lots de médicaments.
 	 */
-	public List<String[]> recupererStocksMedicaments() {
-		List<String[]> stocksMedicaments = new ArrayList<>();
+	public List<LigneMedicament> recupererStocksMedicaments() {
+		Mesure mesure = metriques.demarrer("recupererStocksMedicaments");
+		List<LigneMedicament> stocksMedicaments = new ArrayList<>();
+		Connection connexion = null;
 		try {
-			PreparedStatement statement = dbConnection.prepareStatement(
-					"SELECT PRODUIT, DCI, DOSAGE, DLU, QUANTITÉ, LOT, CLASSE, NUM_CAISSE, CAISSE FROM médicament");
-			ResultSet resultSet = statement.executeQuery();
-			while (resultSet.next()) {
-				String[] medicament = new String[9];
-				for (int i = 0; i < 9; i++) {
-					medicament[i] = resultSet.getString(i + 1);
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion,
+					"SELECT " + COLONNES_MEDICAMENT + " FROM médicament");
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					stocksMedicaments.add(lireMedicament(resultSet));
 				}
-				stocksMedicaments.add(medicament);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer(stocksMedicaments.size());
 		}
 		return stocksMedicaments;
 	}
+
+	/**
+	 * Récupère les produits délivrables, ceux dont au moins un lot est en stock
+	 * et non périmé. La base les lit dans l'ordre de l'index (PRODUIT, DOSAGE,
+	 * DLU) et ne renvoie chaque produit qu'une fois.
+	 * 
+	 * @return Les produits délivrables, triés par produit puis dosage.
+	 */
+	public List<LigneProduit> recupererProduitsDelivrables() {
+		Mesure mesure = metriques.demarrer("recupererProduitsDelivrables");
+		List<LigneProduit> produits = new ArrayList<>();
+		Connection connexion = null;
+		try {
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion, PRODUITS_DELIVRABLES);
+			statement.setDate(1, Date.valueOf(LocalDate.now()));
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					produits.add(new LigneProduit(texte(resultSet, 1), texte(resultSet, 2)));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer(produits.size());
+		}
+		return produits;
+	}
+
+	/**
+	 * Récupère les lots délivrables, en stock et non périmés.
+	 * 
+	 * @return Les lots délivrables, triés par produit, dosage puis date limite d'utilisation.
+	 */
+	public List<LigneMedicament> recupererLotsDelivrables() {
+		Mesure mesure = metriques.demarrer("recupererLotsDelivrables");
+		List<LigneMedicament> lots = new ArrayList<>();
+		Connection connexion = null;
+		try {
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion, LOTS_DELIVRABLES);
+			statement.setDate(1, Date.valueOf(LocalDate.now()));
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					lots.add(lireMedicament(resultSet));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer(lots.size());
+		}
+		return lots;
+	}
 	
-	public List<String[]> recupererStocksAvions(){
-		List<String[]> stocksAvion = new ArrayList<>();
+	/**
+	 * Récupère les produits dont le stock cumulé sur tous leurs lots est
+	 * inférieur au seuil. Le regroupement est fait par la base, qui ne renvoie
+	 * que les produits concernés.
+	 * 
+	 * @param seuil Le seuil d'alerte, exclu.
+	 * @return Les produits en stock bas, triés par produit et dosage.
+	 */
+	public List<LigneStockBas> recupererStocksBas(int seuil) {
+		Mesure mesure = metriques.demarrer("recupererStocksBas");
+		List<LigneStockBas> stocksBas = new ArrayList<>();
+		Connection connexion = null;
+		try {
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion,
+					"SELECT PRODUIT, DCI, DOSAGE, SUM(QUANTITÉ) FROM médicament GROUP BY PRODUIT, DCI, DOSAGE "
+							+ "HAVING SUM(QUANTITÉ) < ? ORDER BY PRODUIT, DOSAGE");
+			statement.setInt(1, seuil);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					stocksBas.add(lireStockBas(resultSet));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer(stocksBas.size());
+		}
+		return stocksBas;
+	}
+
+	/**
+	 * Récupère le stock cumulé d'un produit et d'un dosage, pour chacune de ses
+	 * DCI, quel que soit le seuil d'alerte. Sert à recalculer les seuls produits
+	 * touchés par une écriture.
+	 * 
+	 * @param produit Le nom du produit.
+	 * @param dosage  Le dosage du produit.
+	 * @return Le stock cumulé par DCI ; vide si le produit n'a aucun lot.
+	 */
+	public List<LigneStockBas> recupererStocksProduit(String produit, String dosage) {
+		Mesure mesure = metriques.demarrer("recupererStocksProduit");
+		List<LigneStockBas> stocks = new ArrayList<>();
+		Connection connexion = null;
 		try {
-			PreparedStatement statement = dbConnection.prepareStatement(
-					"SELECT NOM, CONSTRUCTEUR, TYPE_MOTEUR, TYPE_DE_VOL,TONNE_MAX,TAILLE_PORTE_CM,DIMENSIONS_SOUTE_CM,VOLUME_UTILISABLE_M3,EXIGENCE_PISTE_M,PORTEE_CHARGE_KM,PORTEE_VIDE_KM,VITESSE_CROISIERE_KMH,CONSOMMATION_CARBURANT_LH,POSITIONS_PALETTES,etat,lieu_attentat,date_attentat FROM avion");
-			ResultSet resultSet = statement.executeQuery();
-			while (resultSet.next()) {
-				String[] avion = new String[17];
-				for (int i = 0; i < 17; i++) {
-					avion[i] = resultSet.getString(i + 1);
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion, STOCKS_PRODUIT);
+			statement.setString(1, produit);
+			statement.setString(2, dosage);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					stocks.add(lireStockBas(resultSet));
 				}
-				stocksAvion.add(avion);
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer(stocks.size());
+		}
+		return stocks;
+	}
+
+	/**
+	 * Récupère les avions et leur affectation depuis la base de données.
+	 * 
+	 * @return La liste des avions.
+	 */
+	public List<LigneAvion> recupererStocksAvions(){
+		Mesure mesure = metriques.demarrer("recupererStocksAvions");
+		List<LigneAvion> stocksAvion = new ArrayList<>();
+		Connection connexion = null;
+		try {
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion,
+					"SELECT " + COLONNES_AVION + " FROM avion");
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					stocksAvion.add(lireAvion(resultSet));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			mesure.echec(e);
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer(stocksAvion.size());
 		}
 		return stocksAvion;
 	}
 	
 	/**
-	 * Récupère la quantité en stock d'un médicament spécifié par son nom, dosage et date limite d'utilisation.
+	 * Récupère la quantité en stock d'un médicament spécifié par son nom, dosage et date limite d'utilisation,
+	 * additionnée sur tous les lots de cette DLU.
 	 * 
 	 * @param nom     Le nom du médicament.
 	 * @param dosage  Le dosage du médicament.
@@ -218,47 +723,275 @@ public class BDD {
 	 * @return La quantité en stock du médicament, ou -1 en cas d'erreur ou si le médicament n'est pas trouvé.
 	 */
 	public int getMedicamentStock(String nom, String dosage, LocalDate dlu) {
+	    Mesure mesure = metriques.demarrer("getMedicamentStock");
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement statement = dbConnection.prepareStatement(
-	            "SELECT QUANTITÉ FROM médicament WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?");
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, STOCK_DLU);
 	        statement.setString(1, nom);
 	        statement.setString(2, dosage);
 	        statement.setDate(3, Date.valueOf(dlu));
-	        ResultSet resultSet = statement.executeQuery();
-	        if (resultSet.next()) {
-	            return resultSet.getInt("QUANTITÉ");
+	        try (ResultSet resultSet = statement.executeQuery()) {
+    	        if (resultSet.next()) {
+    	            int quantite = resultSet.getInt(1);
+    	            if (!resultSet.wasNull()) {
+    	                return quantite;
+    	            }
+    	        }
 	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
 	    }
 	    return -1; // Retourne -1 en cas d'erreur ou si le médicament n'est pas trouvé
 	}
 
 	/**
-	 * Met à jour la quantité en stock d'un médicament spécifié par son nom, dosage et date limite d'utilisation.
+	 * Corrige la quantité en stock d'un médicament spécifié par son nom, dosage et date limite d'utilisation,
+	 * par exemple après un inventaire. Pour chaque lot concerné, les entrées encore en attente de projection
+	 * sont d'abord appliquées, puis l'écart avec la quantité comptée est inscrit au registre des mouvements
+	 * comme correction, dans la même transaction.
 	 * 
 	 * @param nom         Le nom du médicament.
 	 * @param dosage      Le dosage du médicament.
 	 * @param dlu         La date limite d'utilisation du médicament.
 	 * @param newQuantity La nouvelle quantité en stock.
+	 * @param acteur      L'identifiant de l'utilisateur qui corrige le stock.
 	 * @return true si la mise à jour a réussi, sinon false.
 	 */
-	public boolean updateMedicamentStock(String nom, String dosage, LocalDate dlu, int newQuantity) {
+	public boolean updateMedicamentStock(String nom, String dosage, LocalDate dlu, int newQuantity, String acteur) {
+	    Mesure mesure = metriques.demarrer("updateMedicamentStock");
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement statement = dbConnection.prepareStatement(
-	            "UPDATE médicament SET QUANTITÉ = ? WHERE PRODUIT = ? AND DOSAGE = ? AND DLU = ?");
-	        statement.setInt(1, newQuantity);
-	        statement.setString(2, nom);
-	        statement.setString(3, dosage);
-	        statement.setDate(4, Date.valueOf(dlu));
-	        int affectedRows = statement.executeUpdate();
-	        return affectedRows > 0;
+	        connexion = pool.emprunter();
+	        int corriges = enTransaction(connexion, c -> {
+	            PreparedStatement lots = pool.preparer(c, LOTS_A_CORRIGER);
+	            lots.setString(1, nom);
+	            lots.setString(2, dosage);
+	            lots.setDate(3, Date.valueOf(dlu));
+	            List<long[]> quantites = new ArrayList<>();
+	            try (ResultSet resultSet = lots.executeQuery()) {
+	                while (resultSet.next()) {
+	                    quantites.add(new long[] { resultSet.getLong(1), resultSet.getInt(2) });
+	                }
+	            }
+	            PreparedStatement enAttente = pool.preparer(c, ENTREES_LOT_A_PROJETER);
+	            PreparedStatement miseAJour = pool.preparer(c, CORRECTION_LOT);
+	            for (long[] lot : quantites) {
+	                enAttente.setLong(1, lot[0]);
+	                long quantite = lot[1];
+	                try (ResultSet resultSet = enAttente.executeQuery()) {
+	                    resultSet.next();
+	                    quantite += resultSet.getLong(1);
+	                }
+	                miseAJour.setInt(1, newQuantity);
+	                miseAJour.setLong(2, lot[0]);
+	                miseAJour.executeUpdate();
+	                if (newQuantity != quantite) {
+	                    ajouterMouvement(c, lot[0], MOUVEMENT_CORRECTION, (int) (newQuantity - quantite), acteur, null, false);
+	                }
+	            }
+	            return quantites.size();
+	        });
+	        if (corriges > 0) {
+	            notifier(ecouteur -> ecouteur.stockModifie(nom, dosage));
+	        }
+	        return corriges > 0;
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
 	    }
 	    return false;
 	}
 
+	/**
+	 * Réapprovisionne un lot existant. L'entrée est seulement ajoutée au registre
+	 * des mouvements et à la file de projection, sans verrouiller la ligne du lot
+	 * que les prescriptions décrémentent ; elle est reportée dans QUANTITÉ par la
+	 * prochaine projection ({@link #projeterMouvements(int)}).
+	 * 
+	 * @param medicamentId L'identifiant du lot.
+	 * @param quantite     La quantité reçue, positive.
+	 * @param acteur       L'identifiant du logisticien.
+	 * @return true si l'entrée est enregistrée, sinon false.
+	 */
+	public boolean reapprovisionner(long medicamentId, int quantite, String acteur) {
+	    if (quantite <= 0) {
+	        return false;
+	    }
+	    Mesure mesure = metriques.demarrer("reapprovisionner");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        enTransaction(connexion, c -> ajouterMouvement(c, medicamentId, MOUVEMENT_ENTREE, quantite, acteur, null, true));
+	        return true;
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return false;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Transfère une quantité d'un lot à un autre, par exemple d'une caisse à une
+	 * autre. La sortie du lot source est appliquée aussitôt par une mise à jour
+	 * conditionnelle, comme une délivrance, et l'entrée du lot destination est mise
+	 * en attente de projection ; les deux mouvements sont inscrits au registre dans
+	 * la même transaction.
+	 * 
+	 * @param source      L'identifiant du lot d'origine.
+	 * @param destination L'identifiant du lot de destination.
+	 * @param quantite    La quantité transférée, positive.
+	 * @param acteur      L'identifiant du logisticien.
+	 * @return true si le transfert est enregistré, false si le stock source est insuffisant,
+	 *         si un lot n'existe pas ou en cas d'erreur.
+	 */
+	public boolean transfererStock(long source, long destination, int quantite, String acteur) {
+	    if (quantite <= 0 || source == destination) {
+	        return false;
+	    }
+	    Mesure mesure = metriques.demarrer("transfererStock");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        String[] produitSource = enTransaction(connexion, c -> {
+	            PreparedStatement existe = pool.preparer(c, LOT_EXISTE);
+	            existe.setLong(1, destination);
+	            try (ResultSet resultSet = existe.executeQuery()) {
+	                resultSet.next();
+	                if (resultSet.getInt(1) == 0) {
+	                    return null;
+	                }
+	            }
+	            PreparedStatement sortie = pool.preparer(c, SORTIE_TRANSFERT);
+	            sortie.setInt(1, quantite);
+	            sortie.setLong(2, source);
+	            sortie.setInt(3, quantite);
+	            String[] produit;
+	            try (ResultSet resultSet = sortie.executeQuery()) {
+	                if (!resultSet.next()) {
+	                    return null;
+	                }
+	                produit = new String[] { resultSet.getString(1), resultSet.getString(2) };
+	            }
+	            ajouterMouvement(c, source, MOUVEMENT_TRANSFERT, -quantite, acteur, null, false);
+	            ajouterMouvement(c, destination, MOUVEMENT_TRANSFERT, quantite, acteur, null, true);
+	            return produit;
+	        });
+	        if (produitSource == null) {
+	            return false;
+	        }
+	        notifier(ecouteur -> ecouteur.stockModifie(produitSource[0], produitSource[1]));
+	        return true;
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return false;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Calcule le stock d'un médicament à la fin d'une journée passée à partir du
+	 * registre des mouvements, par l'index des mouvements par lot et par date.
+	 * 
+	 * @param produit Le nom du médicament.
+	 * @param dosage  Le dosage du médicament.
+	 * @param date    Le jour dont on veut le stock au soir.
+	 * @return Le stock de tous les lots du médicament à cette date, ou -1 en cas d'erreur.
+	 */
+	public int getStockALaDate(String produit, String dosage, LocalDate date) {
+	    Mesure mesure = metriques.demarrer("getStockALaDate");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, STOCK_A_LA_DATE);
+	        statement.setString(1, produit);
+	        statement.setString(2, dosage);
+	        statement.setTimestamp(3, Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+	        try (ResultSet resultSet = statement.executeQuery()) {
+	            resultSet.next();
+	            return resultSet.getInt(1);
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return -1;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Reporte dans QUANTITÉ des entrées en attente de projection. Les entrées d'un
+	 * même lot sont additionnées et appliquées en une seule mise à jour, dans la
+	 * transaction qui les retire de la file : un lot réapprovisionné cent fois
+	 * entre deux projections n'est modifié qu'une fois. Les lots sont modifiés par
+	 * identifiant croissant.
+	 * 
+	 * @param taille Le nombre maximal de mouvements projetés.
+	 * @return Le nombre de mouvements projetés, ou -1 en cas d'erreur.
+	 */
+	public int projeterMouvements(int taille) {
+	    Mesure mesure = metriques.demarrer("projeterMouvements");
+	    Map<Long, Integer> parLot = new TreeMap<>();
+	    List<String[]> produitsModifies = new ArrayList<>();
+	    int projetes = 0;
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        projetes = enTransaction(connexion, c -> {
+	            PreparedStatement retrait = pool.preparer(c,
+	                "SELECT MEDICAMENT_ID, QUANTITÉ FROM OLD TABLE (DELETE FROM mouvement_a_projeter FETCH FIRST ? ROWS ONLY)");
+	            retrait.setInt(1, taille);
+	            int retires = 0;
+	            try (ResultSet resultSet = retrait.executeQuery()) {
+	                while (resultSet.next()) {
+	                    parLot.merge(resultSet.getLong(1), resultSet.getInt(2), Integer::sum);
+	                    retires++;
+	                }
+	            }
+	            PreparedStatement application = pool.preparer(c, PROJECTION_LOT);
+	            for (Map.Entry<Long, Integer> lot : parLot.entrySet()) {
+	                application.setInt(1, lot.getValue());
+	                application.setLong(2, lot.getKey());
+	                try (ResultSet resultSet = application.executeQuery()) {
+	                    if (resultSet.next()) {
+	                        produitsModifies.add(new String[] { resultSet.getString(1), resultSet.getString(2) });
+	                    }
+	                }
+	                if (lot.getValue() > 0) {
+	                    mettreEnVeille(c, lot.getKey());
+	                }
+	            }
+	            return retires;
+	        });
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return -1;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer(projetes);
+	    }
+	    for (String[] produit : produitsModifies) {
+	        notifier(ecouteur -> ecouteur.stockModifie(produit[0], produit[1]));
+	    }
+	    return projetes;
+	}
+
 	/**
 	 * Met à jour les informations d'un avion dans la base de données.
 	 * 
@@ -269,10 +1002,12 @@ public class BDD {
 	 * @return true si la mise à jour a réussi, sinon false.
 	 */
 	public boolean updateAvion(String avionNom, String etat, String lieuAttentat, LocalDate dateAttentat) {
+	    Mesure mesure = metriques.demarrer("updateAvion");
+	    Connection connexion = null;
 	    try {
+	        connexion = pool.emprunter();
 	        // Prépare la requête SQL pour mettre à jour les informations de l'avion
-	        PreparedStatement statement = dbConnection.prepareStatement(
-	            "UPDATE avion SET etat = ?, lieu_attentat = ?, date_attentat = ? WHERE nom = ?");
+	        PreparedStatement statement = pool.preparer(connexion, AFFECTATION_AVION);
 
 	        // Associe les valeurs aux paramètres de la requête
 	        statement.setString(1, etat);
@@ -282,9 +1017,19 @@ public class BDD {
 
 	        // Exécute la mise à jour et vérifie si les lignes sont affectées
 	        int affectedRows = statement.executeUpdate();
+	        if (affectedRows > 0) {
+	            cacheAvions.modifier(avions -> avions.stream()
+	                    .map(avion -> avion.nom().equals(avionNom) ? avion.affecter(etat, lieuAttentat, dateAttentat) : avion)
+	                    .toList());
+	            notifier(ecouteur -> ecouteur.avionModifie(avionNom));
+	        }
 	        return affectedRows > 0;
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
 	    }
 	    return false;
 	}
@@ -298,44 +1043,83 @@ public class BDD {
 	 * @return True si la modification a réussi, sinon False.
 	 */
 	public boolean modifierMotDePasse(String identifiant, String nouveauMdp) {
+		Mesure mesure = metriques.demarrer("modifierMotDePasse");
+		Connection connexion = null;
 		try {
-			PreparedStatement statement = dbConnection
-					.prepareStatement("UPDATE personne SET mdp = ? WHERE identifiant = ?");
+			connexion = pool.emprunter();
+			PreparedStatement statement = pool.preparer(connexion, MODIFICATION_MOT_DE_PASSE);
 			statement.setString(1, nouveauMdp);
 			statement.setString(2, identifiant);
 			int rowsAffected = statement.executeUpdate();
 			return rowsAffected > 0;
 		} catch (SQLException e) {
 			e.printStackTrace();
+			mesure.echec(e);
 			return false;
+		} finally {
+			pool.rendre(connexion);
+			mesure.terminer();
 		}
 	}
 
 	/**
-	 * Permet d'insérer un nouveau médicament dans la base de données.
+	 * Permet d'insérer un nouveau médicament dans la base de données. Si le lot
+	 * existe déjà (même produit, dosage, date limite et numéro de lot), la
+	 * réception est un réapprovisionnement : elle est seulement ajoutée au
+	 * registre des mouvements, comme {@link #reapprovisionner(long, int, String)}.
+	 * Sinon le lot est créé et son entrée inscrite au registre dans la même transaction.
 	 * 
 	 * @param les nouvelles informations du produits rentrées dans la base de données
+	 * @param acteur L'identifiant du logisticien qui réceptionne le médicament.
 	 * @void Ajoute l'élément à la base de données
 	 */
-	public void insererMedicament(String produit, String dci, String dosage, LocalDate dateLimite, int quantity, String lot, String classe, int numCaisse, String caisse) {
+	public void insererMedicament(String produit, String dci, String dosage, LocalDate dateLimite, int quantity, String lot, String classe, int numCaisse, String caisse, String acteur) {
+	    Mesure mesure = metriques.demarrer("insererMedicament");
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement insertionMedicament = dbConnection.prepareStatement(
-	            "INSERT INTO médicament (PRODUIT, DCI, DOSAGE, DLU, QUANTITÉ, LOT, CLASSE, NUM_CAISSE, CAISSE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
-	        insertionMedicament.setString(1, produit);
-	        insertionMedicament.setString(2, dci);
-	        insertionMedicament.setString(3, dosage);
-	        insertionMedicament.setDate(4, Date.valueOf(dateLimite));
-	        insertionMedicament.setInt(5, quantity);
-	        insertionMedicament.setString(6, lot);
-	        insertionMedicament.setString(7, classe);
-	        insertionMedicament.setInt(8, numCaisse);
-	        insertionMedicament.setString(9, caisse);
-
-	        System.out.println("Executing query: " + insertionMedicament);
-	        int result = insertionMedicament.executeUpdate();
-	        System.out.println("Result: " + result);
+	        connexion = pool.emprunter();
+	        boolean cree = enTransaction(connexion, c -> {
+	            if (lot != null) {
+	                PreparedStatement lotExistant = pool.preparer(c, LOT_PAR_NUMERO);
+	                lotExistant.setString(1, produit);
+	                lotExistant.setString(2, dosage);
+	                lotExistant.setDate(3, Date.valueOf(dateLimite));
+	                lotExistant.setString(4, lot);
+	                try (ResultSet resultSet = lotExistant.executeQuery()) {
+	                    if (resultSet.next()) {
+	                        if (quantity > 0) {
+	                            ajouterMouvement(c, resultSet.getLong(1), MOUVEMENT_ENTREE, quantity, acteur, null, true);
+	                        }
+	                        return false;
+	                    }
+	                }
+	            }
+	            PreparedStatement insertionMedicament = pool.preparer(c,
+	                "SELECT ID FROM FINAL TABLE (INSERT INTO médicament (PRODUIT, DCI, DOSAGE, DLU, QUANTITÉ, LOT, CLASSE, NUM_CAISSE, CAISSE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?))");
+	            insertionMedicament.setString(1, produit);
+	            insertionMedicament.setString(2, dci);
+	            insertionMedicament.setString(3, dosage);
+	            insertionMedicament.setDate(4, Date.valueOf(dateLimite));
+	            insertionMedicament.setInt(5, quantity);
+	            insertionMedicament.setString(6, lot);
+	            insertionMedicament.setString(7, classe);
+	            insertionMedicament.setInt(8, numCaisse);
+	            insertionMedicament.setString(9, caisse);
+	            try (ResultSet resultSet = insertionMedicament.executeQuery()) {
+	                resultSet.next();
+	                ajouterMouvement(c, resultSet.getLong(1), MOUVEMENT_ENTREE, quantity, acteur, null, false);
+	            }
+	            return true;
+	        });
+	        if (cree) {
+	            notifier(ecouteur -> ecouteur.stockModifie(produit, dosage));
+	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
 	    }
 	}
 
@@ -347,72 +1131,604 @@ public class BDD {
 	 */
 	
 	public void insererAttentat(String lieu, int tot_blesses, int pers_à_soigner, LocalDate date_evenement) {
+	    Mesure mesure = metriques.demarrer("insererAttentat");
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement insertionAttentat = dbConnection.prepareStatement(
+	        connexion = pool.emprunter();
+	        PreparedStatement insertionAttentat = pool.preparer(connexion,
 	            "INSERT INTO Attentat (lieu, Tot_blessés, Pers_à_soigner, date_evenement) VALUES (?, ?, ?, ?)");
 	        insertionAttentat.setString(1, lieu);
 	        insertionAttentat.setInt(2, tot_blesses);
 	        insertionAttentat.setInt(3, pers_à_soigner);
 	        insertionAttentat.setDate(4, Date.valueOf(date_evenement));
 
-	        System.out.println("Executing query: " + insertionAttentat);
 	        int result = insertionAttentat.executeUpdate();
-	        System.out.println("Result: " + result);
+	        if (result > 0) {
+	            LigneAttentat attentat = new LigneAttentat(lieu, tot_blesses, pers_à_soigner, date_evenement);
+	            cacheAttentats.modifier(attentats -> {
+	                List<LigneAttentat> modifies = new ArrayList<>(attentats);
+	                modifies.add(attentat);
+	                return modifies;
+	            });
+	            notifier(ecouteur -> ecouteur.attentatModifie(lieu, date_evenement));
+	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
 	    }
 	}
 	
 	/**
 	 * Insère une prescription dans la base de données pour un patient donné.
+	 * Si la date limite d'utilisation n'est pas précisée, la quantité est
+	 * répartie sur les lots non périmés, les plus proches de la péremption
+	 * d'abord ({@link #delivrerPrescriptionParPeremption}). Si le stock en
+	 * mémoire est actif, toutes les délivrances y sont réservées, avec ou sans
+	 * DLU, et la prescription est écrite en base dans le délai du stock en
+	 * mémoire.
 	 * 
 	 * @param prenom        Le prénom du patient.
 	 * @param nom           Le nom du patient.
-	 * @param nom_medicament   Le nom et dosage du médicament sous forme de chaîne, séparés par " ; ", suivi de la date limite d'utilisation au format "yyyy-MM-dd".
+	 * @param nom_medicament   Le nom et dosage du médicament sous forme de chaîne, séparés par " ; ", suivi éventuellement de la date limite d'utilisation au format "yyyy-MM-dd".
 	 * @param quantity      La quantité prescrite du médicament.
 	 * @param id_med        L'identifiant du médecin prescrivant le médicament.
 	 * @param infoAttentat  Les informations sur l'attentat (lieu et date) séparées par " ; ".
 	 * @return Un message de succès si la prescription est réussie, ou une indication du nombre de produits disponibles si la quantité demandée dépasse le stock.
 	 */
 	public String insererPrescription(String prenom, String nom, String nom_medicament, int quantity, String id_med, String infoAttentat) {
+	    Mesure mesure = metriques.demarrer("insererPrescription");
 	    try {
 	        // Supposons que les détails du médicament sont correctement extraits ici
 	        String[] details = nom_medicament.split(" ; ");
 	        String produit = details[0];
 	        String dosage = details[1];
-	        LocalDate dlu = LocalDate.parse(details[2]);
 	        String[] info = infoAttentat.split(" ; ");
 	        String lieuAttentat = info[0];
 	        LocalDate dateAttentat=  LocalDate.parse(info[1]);
 
-	        int currentStock = getMedicamentStock(produit, dosage, dlu);
-	        if (currentStock >= quantity) {
-	            updateMedicamentStock(produit, dosage, dlu, currentStock - quantity);
-	            
-	            PreparedStatement insertionPrescription = dbConnection.prepareStatement(
-	                "INSERT INTO prescription (PRéNOM, NOM, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, DATE_PRESCRIPTION, lieu_Attentat, date_Attentat) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+	        StockMemoire memoire = stockMemoire;
+	        if (details.length == 2) {
+	            int stockRestant = memoire != null
+	                    ? memoire.delivrerParPeremption(prenom, nom, produit, dosage, quantity, id_med, lieuAttentat, dateAttentat)
+	                    : delivrerPrescriptionParPeremption(prenom, nom, produit, dosage, quantity, id_med, lieuAttentat, dateAttentat);
+	            if (stockRestant >= 0) {
+	                return "Success";
+	            }
+	            if (stockRestant == StockMemoire.ECRITURE_EN_RETARD) {
+	                return STOCK_INDISPONIBLE;
+	            }
+	            int disponibles = memoire != null ? memoire.getStockDelivrable(produit, dosage) : getStockDelivrable(produit, dosage);
+	            return "Il n'y a que " + Math.max(0, disponibles) + " produit(s) disponibles";
+	        }
+	        LocalDate dlu = LocalDate.parse(details[2]);
+	        int stockRestant = memoire != null
+	                ? memoire.delivrer(prenom, nom, produit, dosage, dlu, quantity, id_med, lieuAttentat, dateAttentat)
+	                : delivrerPrescription(prenom, nom, produit, dosage, dlu, quantity, id_med, lieuAttentat, dateAttentat);
+	        if (stockRestant >= 0) {
+	            return "Success";
+	        } else if (stockRestant == StockMemoire.ECRITURE_EN_RETARD) {
+	            return STOCK_INDISPONIBLE;
+	        } else {
+	           int disponibles = memoire != null ? memoire.getStock(produit, dosage, dlu) : getMedicamentStock(produit, dosage, dlu);
+	           return "Il n'y a que " + Math.max(0, disponibles) + " produit(s) disponibles";
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return "Erreur de base de données.";
+	    } finally {
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Délivre une prescription en une seule transaction : les lots de la DLU
+	 * sont lus et verrouillés par identifiant croissant, et la quantité est
+	 * prise sur le premier lot puis sur les suivants quand il est épuisé, comme
+	 * dans {@link #delivrerPrescriptionParPeremption}. La prescription est
+	 * insérée, chaque sortie inscrite au registre des mouvements avec le médecin
+	 * et la référence de la prescription, et le nombre de blessés restants de
+	 * l'attentat décrémenté. Les lots étant verrouillés, deux prescriptions
+	 * simultanées ne peuvent pas rendre le stock négatif.
+	 * 
+	 * @param prenom        Le prénom du patient.
+	 * @param nom           Le nom du patient.
+	 * @param produit       Le nom du médicament.
+	 * @param dosage        Le dosage du médicament.
+	 * @param dlu           La date limite d'utilisation du lot.
+	 * @param quantity      La quantité prescrite.
+	 * @param id_med        L'identifiant du médecin prescripteur.
+	 * @param lieuAttentat  Le lieu de l'attentat.
+	 * @param dateAttentat  La date de l'attentat.
+	 * @return Le stock restant de la DLU après délivrance, ou -1 si le stock est insuffisant.
+	 * @throws SQLException Si une erreur SQL survient ; la transaction est alors annulée.
+	 */
+	public int delivrerPrescription(String prenom, String nom, String produit, String dosage, LocalDate dlu, int quantity,
+	        String id_med, String lieuAttentat, LocalDate dateAttentat) throws SQLException {
+	    Mesure mesure = metriques.demarrer("delivrerPrescription");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        int stockRestant = enTransaction(connexion, c -> {
+	            PreparedStatement lots = pool.preparer(c, LOTS_A_DELIVRER);
+	            lots.setString(1, produit);
+	            lots.setString(2, dosage);
+	            lots.setDate(3, Date.valueOf(dlu));
+	            List<long[]> disponibles = new ArrayList<>();
+	            long total = 0;
+	            try (ResultSet resultSet = lots.executeQuery()) {
+	                while (resultSet.next()) {
+	                    disponibles.add(new long[] { resultSet.getLong(1), resultSet.getInt(2) });
+	                    total += resultSet.getInt(2);
+	                }
+	            }
+	            if (quantity <= 0 || total < quantity) {
+	                return -1;
+	            }
+
+	            PreparedStatement insertionPrescription = pool.preparer(c,
+	                "SELECT ID FROM FINAL TABLE (INSERT INTO prescription (PRéNOM, NOM, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, DATE_PRESCRIPTION, lieu_Attentat, date_Attentat) VALUES (?, ?, ?, ?, ?, ?, ?, ?))");
 	            insertionPrescription.setString(1, prenom);
 	            insertionPrescription.setString(2, nom);
 	            insertionPrescription.setString(3, id_med);
-	            insertionPrescription.setString(4, nom_medicament);
+	            insertionPrescription.setString(4, produit + " ; " + dosage + " ; " + dlu);
 	            insertionPrescription.setInt(5, quantity);
 	            insertionPrescription.setDate(6, Date.valueOf(LocalDate.now()));
 	            insertionPrescription.setString(7, lieuAttentat);
 	            insertionPrescription.setDate(8, Date.valueOf(dateAttentat));
-	            insertionPrescription.executeUpdate();
+	            long prescriptionId;
+	            try (ResultSet resultSet = insertionPrescription.executeQuery()) {
+	                resultSet.next();
+	                prescriptionId = resultSet.getLong(1);
+	            }
+	            PreparedStatement sortie = pool.preparer(c, SORTIE_LOT);
+	            int reste = quantity;
+	            for (int i = 0; i < disponibles.size() && reste > 0; i++) {
+	                long[] lot = disponibles.get(i);
+	                int pris = (int) Math.min(lot[1], reste);
+	                reste -= pris;
+	                sortie.setInt(1, pris);
+	                sortie.setLong(2, lot[0]);
+	                sortie.executeUpdate();
+	                ajouterMouvement(c, lot[0], MOUVEMENT_SORTIE, -pris, id_med, prescriptionId, false);
+	            }
 
-	            decrementBlessesRestants(lieuAttentat, dateAttentat);
-	            return "Success";
-	        } else {
-	           return "Il n'y a que " + currentStock+ " produit(s) disponibles";
+	            decrementBlessesRestants(c, lieuAttentat, dateAttentat, 1);
+	            return (int) Math.min(Integer.MAX_VALUE, total - quantity);
+	        });
+	        if (stockRestant >= 0) {
+	            blesseSoigne(lieuAttentat, dateAttentat, 1);
+	            notifier(ecouteur -> ecouteur.stockModifie(produit, dosage));
 	        }
+	        return stockRestant;
 	    } catch (SQLException e) {
-	        e.printStackTrace();
-	        return "Erreur de base de données.";
+	        mesure.echec();
+	        throw e;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
 	    }
 	}
 	
 	
+	/**
+	 * Délivre une prescription par produit et dosage, en une seule transaction :
+	 * les lots non périmés du produit sont lus et verrouillés dans l'ordre de
+	 * leur date limite d'utilisation, par un parcours de l'index
+	 * (PRODUIT, DOSAGE, DLU), et la quantité est prise sur les lots les plus
+	 * proches de la péremption d'abord, en passant au lot suivant quand l'un est
+	 * épuisé. Une prescription est enregistrée par lot entamé, avec sa DLU, et
+	 * le nombre de blessés restants de l'attentat est décrémenté une fois.
+	 * 
+	 * @param prenom        Le prénom du patient.
+	 * @param nom           Le nom du patient.
+	 * @param produit       Le nom du médicament.
+	 * @param dosage        Le dosage du médicament.
+	 * @param quantity      La quantité prescrite.
+	 * @param id_med        L'identifiant du médecin prescripteur.
+	 * @param lieuAttentat  Le lieu de l'attentat.
+	 * @param dateAttentat  La date de l'attentat.
+	 * @return Le stock non périmé restant du produit après délivrance, ou -1 si le stock est insuffisant.
+	 * @throws SQLException Si une erreur SQL survient ; la transaction est alors annulée.
+	 */
+	public int delivrerPrescriptionParPeremption(String prenom, String nom, String produit, String dosage, int quantity,
+	        String id_med, String lieuAttentat, LocalDate dateAttentat) throws SQLException {
+	    Mesure mesure = metriques.demarrer("delivrerPrescriptionParPeremption");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        int stockRestant = enTransaction(connexion, c -> {
+	            PreparedStatement lots = pool.preparer(c, LOTS_PAR_PEREMPTION);
+	            lots.setString(1, produit);
+	            lots.setString(2, dosage);
+	            lots.setDate(3, Date.valueOf(LocalDate.now()));
+	            List<long[]> disponibles = new ArrayList<>();
+	            List<LocalDate> dlus = new ArrayList<>();
+	            long total = 0;
+	            try (ResultSet resultSet = lots.executeQuery()) {
+	                while (resultSet.next()) {
+	                    disponibles.add(new long[] { resultSet.getLong(1), resultSet.getInt(3) });
+	                    dlus.add(resultSet.getDate(2).toLocalDate());
+	                    total += resultSet.getInt(3);
+	                }
+	            }
+	            if (quantity <= 0 || total < quantity) {
+	                return -1;
+	            }
+
+	            PreparedStatement sortie = pool.preparer(c, SORTIE_LOT);
+	            PreparedStatement insertionPrescription = pool.preparer(c,
+	                "SELECT ID FROM FINAL TABLE (INSERT INTO prescription (PRéNOM, NOM, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, DATE_PRESCRIPTION, lieu_Attentat, date_Attentat) VALUES (?, ?, ?, ?, ?, ?, ?, ?))");
+	            int reste = quantity;
+	            for (int i = 0; i < disponibles.size() && reste > 0; i++) {
+	                long[] lot = disponibles.get(i);
+	                int pris = (int) Math.min(lot[1], reste);
+	                reste -= pris;
+	                sortie.setInt(1, pris);
+	                sortie.setLong(2, lot[0]);
+	                sortie.executeUpdate();
+
+	                insertionPrescription.setString(1, prenom);
+	                insertionPrescription.setString(2, nom);
+	                insertionPrescription.setString(3, id_med);
+	                insertionPrescription.setString(4, produit + " ; " + dosage + " ; " + dlus.get(i));
+	                insertionPrescription.setInt(5, pris);
+	                insertionPrescription.setDate(6, Date.valueOf(LocalDate.now()));
+	                insertionPrescription.setString(7, lieuAttentat);
+	                insertionPrescription.setDate(8, Date.valueOf(dateAttentat));
+	                try (ResultSet resultSet = insertionPrescription.executeQuery()) {
+	                    resultSet.next();
+	                    ajouterMouvement(c, lot[0], MOUVEMENT_SORTIE, -pris, id_med, resultSet.getLong(1), false);
+	                }
+	            }
+	            decrementBlessesRestants(c, lieuAttentat, dateAttentat, 1);
+	            return (int) Math.min(Integer.MAX_VALUE, total - quantity);
+	        });
+	        if (stockRestant >= 0) {
+	            blesseSoigne(lieuAttentat, dateAttentat, 1);
+	            notifier(ecouteur -> ecouteur.stockModifie(produit, dosage));
+	        }
+	        return stockRestant;
+	    } catch (SQLException e) {
+	        mesure.echec();
+	        throw e;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Additionne le stock des lots non périmés d'un médicament, toutes DLU confondues.
+	 *
+	 * @param produit Le nom du médicament.
+	 * @param dosage  Le dosage du médicament.
+	 * @return Le stock délivrable, ou -1 en cas d'erreur.
+	 */
+	public int getStockDelivrable(String produit, String dosage) {
+	    Mesure mesure = metriques.demarrer("getStockDelivrable");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, STOCK_DELIVRABLE);
+	        statement.setString(1, produit);
+	        statement.setString(2, dosage);
+	        statement.setDate(3, Date.valueOf(LocalDate.now()));
+	        try (ResultSet resultSet = statement.executeQuery()) {
+	            resultSet.next();
+	            return resultSet.getInt(1);
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return -1;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Relève les lots périmés et ceux qui le seront dans chaque horizon, en une
+	 * transaction. Pour chaque horizon, un filigrane enregistré en base retient
+	 * la DLU jusqu'à laquelle les lots ont été relevés : un passage ne lit, par
+	 * l'index des DLU, que les lots dont la DLU est entrée dans l'horizon depuis
+	 * le passage précédent, puis, par la clé primaire, les lots de la file
+	 * {@code lot_a_veiller}, où chaque transaction qui augmente le stock d'un lot
+	 * l'inscrit. Les lots relevés sont gardés dans {@code alerte_peremption},
+	 * d'où sont retirés les lots vides et, pour les horizons à venir, les lots
+	 * déjà périmés : le rapport compte les alertes restantes.
+	 *
+	 * @param horizons Les horizons en jours.
+	 * @return Le rapport du passage, ou null en cas d'erreur.
+	 */
+	public RapportPeremption veillerPeremptions(List<Integer> horizons) {
+	    Mesure mesure = metriques.demarrer("veillerPeremptions");
+	    LocalDate aujourdhui = LocalDate.now();
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        RapportPeremption rapport = enTransaction(connexion, c -> {
+	            PreparedStatement filigrane = pool.preparer(c, FILIGRANE_PEREMPTION);
+	            PreparedStatement datesFranchies = pool.preparer(c, ALERTES_DLU_FRANCHIES);
+	            PreparedStatement avancer = pool.preparer(c, AVANCEE_FILIGRANE);
+	            List<Integer> releves = new ArrayList<>();
+	            // L'horizon 0 relève les lots périmés : DLU antérieure à aujourd'hui.
+	            releves.add(0);
+	            releves.addAll(horizons);
+	            Map<Integer, LocalDate> limites = new LinkedHashMap<>();
+	            for (int horizon : releves) {
+	                LocalDate limite = horizon == 0 ? aujourdhui.minusDays(1) : aujourdhui.plusDays(horizon);
+	                LocalDate dluMax = LocalDate.of(1, 1, 1);
+	                filigrane.setInt(1, horizon);
+	                try (ResultSet resultSet = filigrane.executeQuery()) {
+	                    if (resultSet.next()) {
+	                        dluMax = resultSet.getDate(1).toLocalDate();
+	                    }
+	                }
+	                if (limite.isAfter(dluMax)) {
+	                    datesFranchies.setInt(1, horizon);
+	                    datesFranchies.setDate(2, Date.valueOf(dluMax));
+	                    datesFranchies.setDate(3, Date.valueOf(limite));
+	                    datesFranchies.executeUpdate();
+	                    dluMax = limite;
+	                    avancer.setInt(1, horizon);
+	                    avancer.setDate(2, Date.valueOf(dluMax));
+	                    avancer.executeUpdate();
+	                }
+	                limites.put(horizon, dluMax);
+	            }
+
+	            // Les lots de la file sont relevés après les DLU franchies : un lot
+	            // validé trop tard pour le relevé par DLU y est déjà, ou y sera au
+	            // passage suivant.
+	            List<Long> enVeille = new ArrayList<>();
+	            try (ResultSet resultSet = pool.preparer(c,
+	                    "SELECT MEDICAMENT_ID FROM OLD TABLE (DELETE FROM lot_a_veiller)").executeQuery()) {
+	                while (resultSet.next()) {
+	                    enVeille.add(resultSet.getLong(1));
+	                }
+	            }
+	            if (!enVeille.isEmpty()) {
+	                PreparedStatement alerte = pool.preparer(c, ALERTE_LOT_VEILLE);
+	                for (Map.Entry<Integer, LocalDate> limite : limites.entrySet()) {
+	                    for (long medicamentId : enVeille) {
+	                        alerte.setInt(1, limite.getKey());
+	                        alerte.setLong(2, medicamentId);
+	                        alerte.setDate(3, Date.valueOf(limite.getValue()));
+	                        alerte.addBatch();
+	                    }
+	                }
+	                alerte.executeBatch();
+	            }
+
+	            // Un lot vide sort des alertes ; il est remis en veille dès que son
+	            // stock augmente. Un lot périmé ne compte plus que dans l'horizon 0.
+	            PreparedStatement purge = pool.preparer(c,
+	                "DELETE FROM alerte_peremption a WHERE EXISTS (SELECT 1 FROM médicament m WHERE m.ID = a.MEDICAMENT_ID "
+	                + "AND (m.QUANTITÉ = 0 OR (a.HORIZON > 0 AND m.DLU < ?)))");
+	            purge.setDate(1, Date.valueOf(aujourdhui));
+	            purge.executeUpdate();
+
+	            Map<Integer, Integer> alertes = new HashMap<>();
+	            try (ResultSet resultSet = pool.preparer(c,
+	                    "SELECT HORIZON, COUNT(*) FROM alerte_peremption GROUP BY HORIZON").executeQuery()) {
+	                while (resultSet.next()) {
+	                    alertes.put(resultSet.getInt(1), resultSet.getInt(2));
+	                }
+	            }
+	            Map<Integer, Integer> aPerimer = new HashMap<>();
+	            for (int horizon : horizons) {
+	                aPerimer.put(horizon, alertes.getOrDefault(horizon, 0));
+	            }
+	            return new RapportPeremption(aujourdhui, alertes.getOrDefault(0, 0), aPerimer);
+	        });
+	        notifier(ecouteur -> ecouteur.peremptionsVerifiees(rapport));
+	        return rapport;
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return null;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Écrit en une transaction un lot de délivrances réservées par le stock en
+	 * mémoire. Les lots de chaque (produit, dosage, DLU) sont verrouillés une
+	 * fois et servis par identifiant croissant ; chaque lot de médicament et
+	 * chaque attentat n'est mis à jour qu'une fois pour tout le lot de
+	 * délivrances. Chaque réservation d'une délivrance est écrite comme une
+	 * prescription de sa DLU, au format "produit ; dosage ; DLU", comme dans
+	 * {@link #delivrerPrescriptionParPeremption}. Une délivrance dont une
+	 * réservation ne tient plus dans le stock en base est refusée sans annuler
+	 * les autres : ses lignes sont enregistrées dans
+	 * {@code prescription_refusee} et signalées aux écouteurs
+	 * ({@link EcouteurBDD#prescriptionRefusee}) une fois la transaction validée.
+	 *
+	 * @param delivrances Les délivrances, dans l'ordre de leur réservation.
+	 * @return Pour chaque délivrance, true si elle est écrite, false si elle est
+	 *         refusée faute de stock ; ou null si la transaction a échoué.
+	 */
+	boolean[] enregistrerDelivrances(List<StockMemoire.Delivrance> delivrances) {
+	    Mesure mesure = metriques.demarrer("enregistrerDelivrances");
+	    boolean[] enregistrees = new boolean[delivrances.size()];
+	    Map<Map.Entry<String, LocalDate>, Integer> blessesParAttentat = new LinkedHashMap<>();
+	    Set<Map.Entry<String, String>> produitsModifies = new LinkedHashSet<>();
+	    List<LignePrescription> refusees = new ArrayList<>();
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        enTransaction(connexion, c -> {
+	            PreparedStatement lots = pool.preparer(c, LOTS_A_DELIVRER);
+	            PreparedStatement insertionPrescription = pool.preparer(c,
+	                "SELECT ID FROM FINAL TABLE (INSERT INTO prescription (PRéNOM, NOM, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, DATE_PRESCRIPTION, lieu_Attentat, date_Attentat) VALUES (?, ?, ?, ?, ?, ?, ?, ?))");
+	            PreparedStatement insertionRefus = pool.preparer(c,
+	                "SELECT ID FROM FINAL TABLE (INSERT INTO prescription_refusee (PRéNOM, NOM, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, DATE_PRESCRIPTION, lieu_Attentat, date_Attentat, DATE_REFUS) VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP))");
+	            Map<StockMemoire.Cle, List<long[]>> lotsParCle = new HashMap<>();
+	            // Stock de chaque (produit, dosage, DLU) encore libre après les délivrances déjà acceptées du lot.
+	            Map<StockMemoire.Cle, Long> restantParCle = new HashMap<>();
+	            Map<Long, Integer> sortiesParLot = new TreeMap<>();
+	            for (int i = 0; i < enregistrees.length; i++) {
+	                StockMemoire.Delivrance delivrance = delivrances.get(i);
+	                Map<StockMemoire.Cle, Long> demandeParCle = new HashMap<>();
+	                for (StockMemoire.Reservation reservation : delivrance.reservations()) {
+	                    StockMemoire.Cle cle = reservation.cle();
+	                    if (!lotsParCle.containsKey(cle)) {
+	                        List<long[]> disponibles = new ArrayList<>();
+	                        long total = 0;
+	                        lots.setString(1, cle.produit());
+	                        lots.setString(2, cle.dosage());
+	                        lots.setDate(3, Date.valueOf(cle.dlu()));
+	                        try (ResultSet resultSet = lots.executeQuery()) {
+	                            while (resultSet.next()) {
+	                                disponibles.add(new long[] { resultSet.getLong(1), resultSet.getInt(2) });
+	                                total += resultSet.getInt(2);
+	                            }
+	                        }
+	                        lotsParCle.put(cle, disponibles);
+	                        restantParCle.put(cle, total);
+	                    }
+	                    demandeParCle.merge(cle, (long) reservation.quantite(), Long::sum);
+	                }
+	                boolean enStock = demandeParCle.entrySet().stream()
+	                        .allMatch(demande -> restantParCle.get(demande.getKey()) >= demande.getValue());
+	                if (enStock) {
+	                    demandeParCle.forEach((cle, demande) -> restantParCle.merge(cle, -demande, Long::sum));
+	                }
+	                PreparedStatement insertion = enStock ? insertionPrescription : insertionRefus;
+	                for (StockMemoire.Reservation reservation : delivrance.reservations()) {
+	                    StockMemoire.Cle cle = reservation.cle();
+	                    String medicament = cle.produit() + " ; " + cle.dosage() + " ; " + cle.dlu();
+	                    insertion.setString(1, delivrance.prenom());
+	                    insertion.setString(2, delivrance.nom());
+	                    insertion.setString(3, delivrance.idMedecin());
+	                    insertion.setString(4, medicament);
+	                    insertion.setInt(5, reservation.quantite());
+	                    insertion.setDate(6, Date.valueOf(delivrance.date()));
+	                    insertion.setString(7, delivrance.lieuAttentat());
+	                    insertion.setDate(8, Date.valueOf(delivrance.dateAttentat()));
+	                    long prescriptionId;
+	                    try (ResultSet resultSet = insertion.executeQuery()) {
+	                        resultSet.next();
+	                        prescriptionId = resultSet.getLong(1);
+	                    }
+	                    if (!enStock) {
+	                        refusees.add(new LignePrescription(prescriptionId, delivrance.prenom(), delivrance.nom(),
+	                                delivrance.idMedecin(), medicament, reservation.quantite(), delivrance.date(),
+	                                delivrance.lieuAttentat(), delivrance.dateAttentat()));
+	                        continue;
+	                    }
+	                    int reste = reservation.quantite();
+	                    for (long[] lot : lotsParCle.get(cle)) {
+	                        int pris = (int) Math.min(lot[1], reste);
+	                        if (pris == 0) {
+	                            continue;
+	                        }
+	                        lot[1] -= pris;
+	                        reste -= pris;
+	                        sortiesParLot.merge(lot[0], pris, Integer::sum);
+	                        ajouterMouvement(c, lot[0], MOUVEMENT_SORTIE, -pris, delivrance.idMedecin(), prescriptionId, false);
+	                        if (reste == 0) {
+	                            break;
+	                        }
+	                    }
+	                    produitsModifies.add(Map.entry(cle.produit(), cle.dosage()));
+	                }
+	                if (!enStock) {
+	                    continue;
+	                }
+	                blessesParAttentat.merge(Map.entry(delivrance.lieuAttentat(), delivrance.dateAttentat()), 1, Integer::sum);
+	                enregistrees[i] = true;
+	            }
+	            PreparedStatement sortie = pool.preparer(c, SORTIE_LOT);
+	            for (Map.Entry<Long, Integer> lot : sortiesParLot.entrySet()) {
+	                sortie.setInt(1, lot.getValue());
+	                sortie.setLong(2, lot.getKey());
+	                sortie.executeUpdate();
+	            }
+	            for (Map.Entry<Map.Entry<String, LocalDate>, Integer> attentat : blessesParAttentat.entrySet()) {
+	                decrementBlessesRestants(c, attentat.getKey().getKey(), attentat.getKey().getValue(), attentat.getValue());
+	            }
+	            return null;
+	        });
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	        return null;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer(delivrances.size());
+	    }
+	    blessesParAttentat.forEach((attentat, blesses) -> blesseSoigne(attentat.getKey(), attentat.getValue(), blesses));
+	    produitsModifies.forEach(produit -> notifier(ecouteur -> ecouteur.stockModifie(produit.getKey(), produit.getValue())));
+	    refusees.forEach(refusee -> notifier(ecouteur -> ecouteur.prescriptionRefusee(refusee)));
+	    return enregistrees;
+	}
+
+	/**
+	 * Additionne le stock de tous les lots d'un médicament de même DLU.
+	 *
+	 * @throws SQLException Si la lecture échoue.
+	 */
+	long sommeStock(String produit, String dosage, LocalDate dlu) throws SQLException {
+	    Mesure mesure = metriques.demarrer("sommeStock");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, SOMME_STOCK);
+	        statement.setString(1, produit);
+	        statement.setString(2, dosage);
+	        statement.setDate(3, Date.valueOf(dlu));
+	        try (ResultSet resultSet = statement.executeQuery()) {
+	            resultSet.next();
+	            return resultSet.getLong(1);
+	        }
+	    } catch (SQLException e) {
+	        mesure.echec();
+	        throw e;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Liste les DLU des lots non périmés et non vides d'un médicament, de la
+	 * plus proche à la plus lointaine.
+	 *
+	 * @throws SQLException Si la lecture échoue.
+	 */
+	List<LocalDate> dluDelivrables(String produit, String dosage) throws SQLException {
+	    Mesure mesure = metriques.demarrer("dluDelivrables");
+	    List<LocalDate> dlus = new ArrayList<>();
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, DLU_DELIVRABLES);
+	        statement.setString(1, produit);
+	        statement.setString(2, dosage);
+	        statement.setDate(3, Date.valueOf(LocalDate.now()));
+	        try (ResultSet resultSet = statement.executeQuery()) {
+	            while (resultSet.next()) {
+	                dlus.add(resultSet.getDate(1).toLocalDate());
+	            }
+	        }
+	        return dlus;
+	    } catch (SQLException e) {
+	        mesure.echec();
+	        throw e;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer(dlus.size());
+	    }
+	}
+
 	/**
 	 * Décrémente le nombre de blessés restants à soigner lors d'un attentat donné.
 	 * 
@@ -421,37 +1737,74 @@ public class BDD {
 	 * @throws SQLException Si une erreur SQL survient lors de l'exécution de la requête.
 	 */
 	public void decrementBlessesRestants(String lieuAttentat, LocalDate dateAttentat) throws SQLException {
-	    PreparedStatement updateAttentat = dbConnection.prepareStatement(
-	        "UPDATE attentat SET Pers_à_soigner = Pers_à_soigner - 1 WHERE lieu = ? AND date_evenement = ?");
-	    updateAttentat.setString(1, lieuAttentat);
-	    updateAttentat.setDate(2, Date.valueOf(dateAttentat));
+	    Mesure mesure = metriques.demarrer("decrementBlessesRestants");
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        decrementBlessesRestants(connexion, lieuAttentat, dateAttentat, 1);
+	        blesseSoigne(lieuAttentat, dateAttentat, 1);
+	    } catch (SQLException e) {
+	        mesure.echec();
+	        throw e;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
+	    }
+	}
+
+	/**
+	 * Reporte dans le cache des attentats des blessés de moins à soigner, une
+	 * fois la décrémentation validée en base, et prévient les écouteurs.
+	 */
+	private void blesseSoigne(String lieuAttentat, LocalDate dateAttentat, int blesses) {
+	    cacheAttentats.modifier(attentats -> attentats.stream()
+	            .map(attentat -> attentat.lieu().equals(lieuAttentat) && attentat.dateEvenement().equals(dateAttentat)
+	                    ? new LigneAttentat(attentat.lieu(), attentat.totBlesses(), attentat.persASoigner() - blesses,
+	                            attentat.dateEvenement())
+	                    : attentat)
+	            .toList());
+	    notifier(ecouteur -> ecouteur.attentatModifie(lieuAttentat, dateAttentat));
+	}
+
+	/**
+	 * Décrémente le nombre de blessés restants sur une connexion déjà empruntée,
+	 * éventuellement dans une transaction en cours.
+	 */
+	private void decrementBlessesRestants(Connection connexion, String lieuAttentat, LocalDate dateAttentat, int blesses) throws SQLException {
+	    PreparedStatement updateAttentat = pool.preparer(connexion, BLESSES_SOIGNES);
+	    updateAttentat.setInt(1, blesses);
+	    updateAttentat.setString(2, lieuAttentat);
+	    updateAttentat.setDate(3, Date.valueOf(dateAttentat));
 	    updateAttentat.executeUpdate();
 	}
 
 
 	/**
 	 * Récupère la liste des attentats enregistrés dans la base de données.
-	 * Chaque élément de la liste est un tableau de chaînes de caractères contenant les détails d'un attentat.
 	 * Les détails comprennent le lieu de l'attentat, le nombre total de blessés, le nombre de personnes à soigner
 	 * et la date de l'événement.
 	 * 
-	 * @return La liste des attentats, où chaque élément est un tableau de chaînes de caractères.
+	 * @return La liste des attentats.
 	 */
-	public List<String[]> recupererListeAttentat() {
-	    List<String[]> listeAttentats = new ArrayList<>();
+	public List<LigneAttentat> recupererListeAttentat() {
+	    Mesure mesure = metriques.demarrer("recupererListeAttentat");
+	    List<LigneAttentat> listeAttentats = new ArrayList<>();
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement statement = dbConnection.prepareStatement(
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion,
 	                "SELECT lieu, Tot_blessés, Pers_à_soigner, date_evenement FROM attentat");
-	        ResultSet resultSet = statement.executeQuery();
-	        while (resultSet.next()) {
-	            String[] attentat = new String[4];
-	            for (int i = 0; i < 4; i++) {
-	                attentat[i] = resultSet.getString(i + 1);
-	            }
-	            listeAttentats.add(attentat);
+	        try (ResultSet resultSet = statement.executeQuery()) {
+    	        while (resultSet.next()) {
+    	            listeAttentats.add(lireAttentat(resultSet));
+    	        }
 	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer(listeAttentats.size());
 	    }
 	    return listeAttentats;
 	}
@@ -459,27 +1812,30 @@ public class BDD {
 	
 	/**
 	 * Récupère la liste des prescriptions enregistrées dans la base de données.
-	 * Chaque élément de la liste est un tableau de chaînes de caractères contenant les détails d'une prescription.
 	 * Les détails comprennent le prénom du patient, le nom du patient, l'identifiant du médecin, le nom du médicament,
 	 * la quantité prescrite, la date de la prescription, le lieu de l'attentat associé et la date de l'attentat.
 	 * 
-	 * @return La liste des prescriptions, où chaque élément est un tableau de chaînes de caractères.
+	 * @return La liste des prescriptions.
 	 */
-	public List<String[]> recupererListePrescription(){
-	    List<String[]> listePrescriptions = new ArrayList<>();
+	public List<LignePrescription> recupererListePrescription(){
+	    Mesure mesure = metriques.demarrer("recupererListePrescription");
+	    List<LignePrescription> listePrescriptions = new ArrayList<>();
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement statement = dbConnection.prepareStatement(
-	                "SELECT prénom, nom, ID_MEDECIN, nom_medicament, quantité, date_prescription, lieu_Attentat, date_Attentat FROM prescription");
-	        ResultSet resultSet = statement.executeQuery();
-	        while (resultSet.next()) {
-	            String[] prescription = new String[8];
-	            for (int i = 0; i < 8; i++) {
-	                prescription[i] = resultSet.getString(i + 1);
-	            }
-	            listePrescriptions.add(prescription);
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion,
+	                "SELECT " + COLONNES_PRESCRIPTION + " FROM prescription");
+	        try (ResultSet resultSet = statement.executeQuery()) {
+    	        while (resultSet.next()) {
+    	            listePrescriptions.add(lirePrescription(resultSet));
+    	        }
 	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer(listePrescriptions.size());
 	    }
 	    return listePrescriptions;
 	}
@@ -487,38 +1843,204 @@ public class BDD {
 	
 	/**
 	 * Récupère la liste des prescriptions pour un patient donné.
-	 * Chaque élément de la liste est un tableau de chaînes de caractères contenant les détails d'une prescription.
 	 * Les détails comprennent la date de la prescription, l'identifiant du médecin, le nom du médicament prescrit,
 	 * la quantité prescrite, le lieu de l'attentat associé et la date de l'attentat.
 	 * 
 	 * @param prenom Le prénom du patient pour lequel récupérer les prescriptions.
 	 * @param nom Le nom du patient pour lequel récupérer les prescriptions.
-	 * @return La liste des prescriptions du patient spécifié, où chaque élément est un tableau de chaînes de caractères.
+	 * @return La liste des prescriptions du patient spécifié.
 	 */
-	public List<String[]> recupererPrescriptionsParPatient(String prenom, String nom) {
-	    List<String[]> prescriptions = new ArrayList<>();
+	public List<LignePrescription> recupererPrescriptionsParPatient(String prenom, String nom) {
+	    Mesure mesure = metriques.demarrer("recupererPrescriptionsParPatient");
+	    List<LignePrescription> prescriptions = new ArrayList<>();
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement statement = dbConnection.prepareStatement(
-	            "SELECT DATE_PRESCRIPTION, Id_MEDECIN, NOM_MEDICAMENT, QUANTITÉ, lieu_Attentat, date_Attentat FROM prescription WHERE PRéNOM = ? AND NOM = ? ");
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, PRESCRIPTIONS_PATIENT);
 	        statement.setString(1, prenom);
 	        statement.setString(2, nom);
-	        ResultSet resultSet = statement.executeQuery();
-	        while (resultSet.next()) {
-	            String[] prescription = new String[6];
-	            prescription[0] = resultSet.getDate("DATE_PRESCRIPTION").toString();
-	            prescription[1] = resultSet.getString("Id_MEDECIN");
-	            prescription[2] = resultSet.getString("NOM_MEDICAMENT");
-	            prescription[3] = String.valueOf(resultSet.getInt("QUANTITÉ"));
-	            prescription[4] = resultSet.getString("lieu_Attentat");
-	            prescription[5] = resultSet.getDate("date_Attentat").toString();
-	            prescriptions.add(prescription);
+	        try (ResultSet resultSet = statement.executeQuery()) {
+    	        while (resultSet.next()) {
+    	            prescriptions.add(lirePrescription(resultSet));
+    	        }
 	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer(prescriptions.size());
 	    }
 	    return prescriptions;
 	}
 
+	/**
+	 * Récupère une page de lots de médicaments triés par identifiant. La page est
+	 * lue par clé à partir du curseur, sans parcourir les lots qui le précèdent.
+	 * 
+	 * @param curseur  L'identifiant du lot de référence, 0 pour la première page.
+	 * @param suivante true pour les lots qui suivent le curseur, false pour ceux qui le précèdent.
+	 * @param taille   Le nombre maximal de lots de la page.
+	 * @return Les lots de la page, par identifiant croissant ; vide en fin de table.
+	 */
+	public List<LigneMedicament> recupererPageMedicaments(long curseur, boolean suivante, int taille) {
+	    return lirePage("recupererPageMedicaments", suivante
+	            ? PAGE_MEDICAMENTS_SUIVANTE : PAGE_MEDICAMENTS_PRECEDENTE,
+	            curseur, suivante, taille, BDD::lireMedicament);
+	}
+
+	/**
+	 * Récupère une page d'avions triés par nom, lue par clé à partir du curseur.
+	 * 
+	 * @param curseur  Le nom de l'avion de référence, chaîne vide pour la première page.
+	 * @param suivante true pour les avions qui suivent le curseur, false pour ceux qui le précèdent.
+	 * @param taille   Le nombre maximal d'avions de la page.
+	 * @return Les avions de la page, par nom croissant ; vide en fin de table.
+	 */
+	public List<LigneAvion> recupererPageAvions(String curseur, boolean suivante, int taille) {
+	    return lirePage("recupererPageAvions", suivante
+	            ? PAGE_AVIONS_SUIVANTE : PAGE_AVIONS_PRECEDENTE,
+	            curseur, suivante, taille, BDD::lireAvion);
+	}
+
+	/**
+	 * Récupère une page de prescriptions triées par identifiant, lue par clé à
+	 * partir du curseur.
+	 * 
+	 * @param curseur  L'identifiant de la prescription de référence, 0 pour la première page.
+	 * @param suivante true pour les prescriptions qui suivent le curseur, false pour celles qui le précèdent.
+	 * @param taille   Le nombre maximal de prescriptions de la page.
+	 * @return Les prescriptions de la page, par identifiant croissant ; vide en fin de table.
+	 */
+	public List<LignePrescription> recupererPagePrescriptions(long curseur, boolean suivante, int taille) {
+	    return lirePage("recupererPagePrescriptions", suivante
+	            ? PAGE_PRESCRIPTIONS_SUIVANTE : PAGE_PRESCRIPTIONS_PRECEDENTE,
+	            curseur, suivante, taille, BDD::lirePrescription);
+	}
+
+	/**
+	 * Récupère une page des prescriptions d'un patient, triées par identifiant
+	 * et lues par clé à partir du curseur dans l'index du patient : le coût ne
+	 * dépend pas de la longueur de son historique. Le tri reprend toutes les
+	 * colonnes de l'index pour que H2 lise les pages suivantes dans l'ordre de
+	 * l'index et s'arrête à la taille de la page.
+	 * 
+	 * @param prenom   Le prénom du patient.
+	 * @param nom      Le nom du patient.
+	 * @param curseur  L'identifiant de la prescription de référence, 0 pour la première page.
+	 * @param suivante true pour les prescriptions qui suivent le curseur, false pour celles qui le précèdent.
+	 * @param taille   Le nombre maximal de prescriptions de la page.
+	 * @return Les prescriptions de la page, par identifiant croissant ; vide en fin d'historique.
+	 */
+	public List<LignePrescription> recupererPagePrescriptionsPatient(String prenom, String nom, long curseur,
+	        boolean suivante, int taille) {
+	    return lirePage("recupererPagePrescriptionsPatient", suivante
+	            ? PAGE_PRESCRIPTIONS_PATIENT_SUIVANTE : PAGE_PRESCRIPTIONS_PATIENT_PRECEDENTE,
+	            suivante, taille, BDD::lirePrescription, prenom, nom, curseur, taille);
+	}
+
+	/**
+	 * Recherche les lots de médicaments dont le produit commence par le texte
+	 * donné, sans tenir compte de la casse. La recherche parcourt l'index de la
+	 * colonne PRODUIT_MIN et s'arrête à la limite, quelle que soit la taille du stock.
+	 * 
+	 * @param debut  Le début du nom de produit recherché.
+	 * @param limite Le nombre maximal de lots renvoyés.
+	 * @return Les lots trouvés, par produit puis identifiant.
+	 */
+	public List<LigneMedicament> rechercherMedicaments(String debut, int limite) {
+	    return lirePage("rechercherMedicaments", RECHERCHE_MEDICAMENTS, motifDebut(debut), true, limite, BDD::lireMedicament);
+	}
+
+	/**
+	 * Recherche les avions dont le nom commence par le texte donné, sans tenir
+	 * compte de la casse, par l'index de la colonne NOM_MIN.
+	 * 
+	 * @param debut  Le début du nom d'avion recherché.
+	 * @param limite Le nombre maximal d'avions renvoyés.
+	 * @return Les avions trouvés, par nom.
+	 */
+	public List<LigneAvion> rechercherAvions(String debut, int limite) {
+	    return lirePage("rechercherAvions", RECHERCHE_AVIONS, motifDebut(debut), true, limite, BDD::lireAvion);
+	}
+
+	/**
+	 * Recherche les attentats dont le lieu commence par le texte donné, sans
+	 * tenir compte de la casse, par l'index de la colonne LIEU_MIN.
+	 * 
+	 * @param debut  Le début du lieu recherché.
+	 * @param limite Le nombre maximal d'attentats renvoyés.
+	 * @return Les attentats trouvés, par lieu puis date.
+	 */
+	public List<LigneAttentat> rechercherAttentats(String debut, int limite) {
+	    return lirePage("rechercherAttentats", RECHERCHE_ATTENTATS,
+	            motifDebut(debut), true, limite, BDD::lireAttentat);
+	}
+
+	/**
+	 * Recherche les prescriptions dont le nom du patient commence par le texte
+	 * donné, sans tenir compte de la casse, par l'index de la colonne NOM_MIN.
+	 * 
+	 * @param debut  Le début du nom de patient recherché.
+	 * @param limite Le nombre maximal de prescriptions renvoyées.
+	 * @return Les prescriptions trouvées, par nom puis identifiant.
+	 */
+	public List<LignePrescription> rechercherPrescriptions(String debut, int limite) {
+	    return lirePage("rechercherPrescriptions", RECHERCHE_PRESCRIPTIONS, motifDebut(debut), true, limite, BDD::lirePrescription);
+	}
+
+	/**
+	 * Construit le motif LIKE d'une recherche par début de texte, en minuscules,
+	 * les caractères spéciaux de LIKE saisis étant pris littéralement.
+	 */
+	private static String motifDebut(String debut) {
+	    String minuscules = debut.toLowerCase(Locale.ROOT);
+	    return minuscules.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+
+	/**
+	 * Exécute une requête paramétrée par le curseur (ou le motif recherché) et
+	 * la taille, et remet dans l'ordre croissant les lignes d'une page précédente.
+	 * L'appel est mesuré sous le nom de la méthode publique appelante.
+	 */
+	private <T> List<T> lirePage(String methode, String sql, Object curseur, boolean suivante, int taille,
+	        LecteurLigne<T> lecteur) {
+	    return lirePage(methode, sql, suivante, taille, lecteur, curseur, taille);
+	}
+
+	/**
+	 * Exécute une requête de page avec ses paramètres dans l'ordre, et remet
+	 * dans l'ordre croissant les lignes d'une page précédente.
+	 */
+	private <T> List<T> lirePage(String methode, String sql, boolean suivante, int taille, LecteurLigne<T> lecteur,
+	        Object... parametres) {
+	    Mesure mesure = metriques.demarrer(methode);
+	    List<T> page = new ArrayList<>(taille);
+	    Connection connexion = null;
+	    try {
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, sql);
+	        for (int i = 0; i < parametres.length; i++) {
+	            statement.setObject(i + 1, parametres[i]);
+	        }
+	        try (ResultSet resultSet = statement.executeQuery()) {
+    	        while (resultSet.next()) {
+    	            page.add(lecteur.lire(resultSet));
+    	        }
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        mesure.echec(e);
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer(page.size());
+	    }
+	    if (!suivante) {
+	        Collections.reverse(page);
+	    }
+	    return page;
+	}
+
 	/**
 	 * Vérifie si une prescription existe pour un patient donné.
 	 * 
@@ -528,19 +2050,172 @@ public class BDD {
 	 */
 
 	public boolean prescriptionExiste(String prenom, String nom) {
+	    Mesure mesure = metriques.demarrer("prescriptionExiste");
+	    Connection connexion = null;
 	    try {
-	        PreparedStatement statement = dbConnection.prepareStatement(
-	            "SELECT COUNT(*) FROM prescription WHERE PRéNOM = ? AND NOM = ?");
+	        connexion = pool.emprunter();
+	        PreparedStatement statement = pool.preparer(connexion, PRESCRIPTION_EXISTE);
 	        statement.setString(1, prenom);
 	        statement.setString(2, nom);
-	        ResultSet resultSet = statement.executeQuery();
-	        resultSet.next();
-	        int count = resultSet.getInt(1);
-	        return count > 0;
+	        try (ResultSet resultSet = statement.executeQuery()) {
+    	        resultSet.next();
+    	        int count = resultSet.getInt(1);
+    	        return count > 0;
+	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
+	        mesure.echec(e);
 	        return false;
+	    } finally {
+	        pool.rendre(connexion);
+	        mesure.terminer();
 	    }
 	}
 
+	/**
+	 * Inscrit un mouvement au registre des stocks. Une entrée mise en attente de
+	 * projection n'est reportée dans QUANTITÉ que par {@link #projeterMouvements(int)} ;
+	 * sinon l'appelant a déjà modifié QUANTITÉ dans la même transaction, et un
+	 * lot dont le stock augmente est mis en veille des péremptions.
+	 *
+	 * @return L'identifiant du mouvement.
+	 */
+	private long ajouterMouvement(Connection connexion, long medicamentId, String type, int quantite, String acteur,
+	        Long prescriptionId, boolean aProjeter) throws SQLException {
+	    PreparedStatement insertion = pool.preparer(connexion,
+	        "SELECT ID FROM FINAL TABLE (INSERT INTO mouvement_stock (MEDICAMENT_ID, TYPE, QUANTITÉ, ACTEUR, PRESCRIPTION_ID, DATE_MOUVEMENT) "
+	        + "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP))");
+	    insertion.setLong(1, medicamentId);
+	    insertion.setString(2, type);
+	    insertion.setInt(3, quantite);
+	    insertion.setString(4, acteur);
+	    insertion.setObject(5, prescriptionId);
+	    long mouvementId;
+	    try (ResultSet resultSet = insertion.executeQuery()) {
+	        resultSet.next();
+	        mouvementId = resultSet.getLong(1);
+	    }
+	    if (aProjeter) {
+	        PreparedStatement file = pool.preparer(connexion,
+	            "INSERT INTO mouvement_a_projeter (MOUVEMENT_ID, MEDICAMENT_ID, QUANTITÉ) VALUES (?, ?, ?)");
+	        file.setLong(1, mouvementId);
+	        file.setLong(2, medicamentId);
+	        file.setInt(3, quantite);
+	        file.executeUpdate();
+	    } else if (quantite > 0) {
+	        mettreEnVeille(connexion, medicamentId);
+	    }
+	    return mouvementId;
+	}
+
+	/**
+	 * Inscrit un lot dont le stock vient d'augmenter dans la file de la veille
+	 * des péremptions, dans la transaction qui modifie son stock : le prochain
+	 * passage de {@link #veillerPeremptions(List)} ne le voit qu'une fois
+	 * l'augmentation validée, quel que soit l'ordre des identifiants.
+	 */
+	private void mettreEnVeille(Connection connexion, long medicamentId) throws SQLException {
+	    PreparedStatement miseEnVeille = pool.preparer(connexion, MISE_EN_VEILLE);
+	    miseEnVeille.setLong(1, medicamentId);
+	    miseEnVeille.executeUpdate();
+	}
+
+	/**
+	 * Travail exécuté dans une transaction sur une connexion empruntée.
+	 */
+	@FunctionalInterface
+	private interface Travail<T> {
+	    T executer(Connection connexion) throws SQLException;
+	}
+
+	/**
+	 * Exécute un travail en une transaction : validée s'il se termine, annulée
+	 * puis relancée s'il échoue. Un échec de l'annulation est joint à l'erreur
+	 * du travail, qui reste celle relancée.
+	 */
+	private static <T> T enTransaction(Connection connexion, Travail<T> travail) throws SQLException {
+	    connexion.setAutoCommit(false);
+	    try {
+	        T resultat = travail.executer(connexion);
+	        connexion.commit();
+	        return resultat;
+	    } catch (SQLException | RuntimeException e) {
+	        try {
+	            connexion.rollback();
+	        } catch (SQLException annulation) {
+	            e.addSuppressed(annulation);
+	        }
+	        throw e;
+	    } finally {
+	        connexion.setAutoCommit(true);
+	    }
+	}
+
+	/**
+	 * Lecture d'une ligne de résultat en objet typé.
+	 */
+	@FunctionalInterface
+	private interface LecteurLigne<T> {
+	    T lire(ResultSet resultSet) throws SQLException;
+	}
+
+	/**
+	 * Lit un lot de médicament dans l'ordre de {@link #COLONNES_MEDICAMENT}.
+	 */
+	private static LigneMedicament lireMedicament(ResultSet resultSet) throws SQLException {
+	    return new LigneMedicament(resultSet.getLong(1), texte(resultSet, 2), texte(resultSet, 3), texte(resultSet, 4),
+	            date(resultSet, 5), resultSet.getInt(6), texte(resultSet, 7), texte(resultSet, 8), resultSet.getInt(9),
+	            texte(resultSet, 10));
+	}
+
+	/**
+	 * Lit un stock cumulé dans l'ordre de colonnes PRODUIT, DCI, DOSAGE, SUM(QUANTITÉ).
+	 */
+	private static LigneStockBas lireStockBas(ResultSet resultSet) throws SQLException {
+	    return new LigneStockBas(texte(resultSet, 1), texte(resultSet, 2), texte(resultSet, 3), resultSet.getInt(4));
+	}
+
+	/**
+	 * Lit un avion dans l'ordre de {@link #COLONNES_AVION}.
+	 */
+	private static LigneAvion lireAvion(ResultSet resultSet) throws SQLException {
+	    return new LigneAvion(texte(resultSet, 1), texte(resultSet, 2), texte(resultSet, 3), texte(resultSet, 4),
+	            resultSet.getDouble(5), texte(resultSet, 6), texte(resultSet, 7), resultSet.getDouble(8),
+	            resultSet.getInt(9), resultSet.getInt(10), resultSet.getInt(11), resultSet.getInt(12),
+	            resultSet.getInt(13), resultSet.getInt(14), texte(resultSet, 15), texte(resultSet, 16),
+	            date(resultSet, 17));
+	}
+
+	/**
+	 * Lit un attentat dans l'ordre de colonnes lieu, Tot_blessés, Pers_à_soigner, date_evenement.
+	 */
+	private static LigneAttentat lireAttentat(ResultSet resultSet) throws SQLException {
+	    return new LigneAttentat(texte(resultSet, 1), resultSet.getInt(2), resultSet.getInt(3), date(resultSet, 4));
+	}
+
+	/**
+	 * Lit une prescription dans l'ordre de {@link #COLONNES_PRESCRIPTION}.
+	 */
+	private static LignePrescription lirePrescription(ResultSet resultSet) throws SQLException {
+	    return new LignePrescription(resultSet.getLong(1), texte(resultSet, 2), texte(resultSet, 3),
+	            texte(resultSet, 4), texte(resultSet, 5), resultSet.getInt(6), date(resultSet, 7), texte(resultSet, 8),
+	            date(resultSet, 9));
+	}
+
+	/**
+	 * Lit une colonne texte sans ses espaces de remplissage.
+	 */
+	private static String texte(ResultSet resultSet, int colonne) throws SQLException {
+	    String valeur = resultSet.getString(colonne);
+	    return valeur == null ? null : valeur.trim();
+	}
+
+	/**
+	 * Lit une colonne date, ou null si elle est vide.
+	 */
+	private static LocalDate date(ResultSet resultSet, int colonne) throws SQLException {
+	    Date valeur = resultSet.getDate(colonne);
+	    return valeur == null ? null : valeur.toLocalDate();
+	}
+
 }
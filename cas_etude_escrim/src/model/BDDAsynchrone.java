@@ -0,0 +1,255 @@
+package model;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javafx.application.Platform;
+
+/**
+ * Variante non bloquante de {@link BDD} : chaque appel s'exécute sur un
+ * exécuteur dédié aux accès à la base, et son résultat est rendu sur le thread
+ * fourni à la construction (le thread JavaFX pour l'instance partagée).
+ * Les traitements enchaînés sur les {@link CompletableFuture} renvoyés peuvent
+ * donc modifier l'interface directement.
+ */
+public class BDDAsynchrone {
+	private static BDDAsynchrone instance;
+	private final BDD bdd;
+	private final ExecutorService executeur;
+	private final Executor executeurResultats;
+
+	/**
+	 * Constructeur de la façade asynchrone.
+	 *
+	 * @param bdd                La base de données appelée.
+	 * @param threads            Le nombre de threads d'accès à la base.
+	 * @param executeurResultats L'exécuteur sur lequel les résultats sont rendus.
+	 */
+	public BDDAsynchrone(BDD bdd, int threads, Executor executeurResultats) {
+		this.bdd = bdd;
+		this.executeurResultats = executeurResultats;
+		AtomicInteger numero = new AtomicInteger();
+		this.executeur = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "escrim-bdd-" + numero.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Renvoie l'instance partagée, qui utilise autant de threads que le pool
+	 * de connexions de {@link BDD#getInstance()} et rend ses résultats sur le
+	 * thread JavaFX.
+	 *
+	 * @return L'instance partagée.
+	 */
+	public static synchronized BDDAsynchrone getInstance() {
+		if (instance == null) {
+			BDD bdd = BDD.getInstance();
+			instance = new BDDAsynchrone(bdd, bdd.getPool().getTailleMax(), Platform::runLater);
+		}
+		return instance;
+	}
+
+	/**
+	 * Exécute un appel à la base sur l'exécuteur dédié.
+	 *
+	 * @param <T>   Le type du résultat.
+	 * @param appel L'appel à exécuter.
+	 * @return Le résultat, complété sur l'exécuteur des résultats ; toute erreur
+	 *         de l'appel, y compris une {@link Error}, le complète en échec.
+	 */
+	public <T> CompletableFuture<T> executer(Function<BDD, T> appel) {
+		CompletableFuture<T> resultat = new CompletableFuture<>();
+		executeur.execute(() -> {
+			try {
+				T valeur = appel.apply(bdd);
+				executeurResultats.execute(() -> resultat.complete(valeur));
+			} catch (Throwable e) {
+				e.printStackTrace();
+				executeurResultats.execute(() -> resultat.completeExceptionally(e));
+			}
+		});
+		return resultat;
+	}
+
+	/**
+	 * Arrête les threads d'accès à la base.
+	 */
+	public void fermer() {
+		executeur.shutdown();
+	}
+
+	/**
+	 * @see BDD#insererUtilisateur(String, String, String, LocalDate, String, String)
+	 */
+	public CompletableFuture<Void> insererUtilisateur(String identifiant, String prenom, String nom,
+			LocalDate dateNaissance, String mdp, String statut) {
+		return executer(b -> {
+			b.insererUtilisateur(identifiant, prenom, nom, dateNaissance, mdp, statut);
+			return null;
+		});
+	}
+
+	/**
+	 * @see BDD#stockerUtilisateurParIdentifiant(String)
+	 */
+	public CompletableFuture<String[]> stockerUtilisateurParIdentifiant(String identifiant) {
+		return executer(b -> b.stockerUtilisateurParIdentifiant(identifiant));
+	}
+
+	/**
+	 * @see BDD#stockerUtilisateurAPartirNom(String)
+	 */
+	public CompletableFuture<String[]> stockerUtilisateurAPartirNom(String nom) {
+		return executer(b -> b.stockerUtilisateurAPartirNom(nom));
+	}
+
+	/**
+	 * @see BDD#verifierIdentifiantEtDateNaissance(String, Date)
+	 */
+	public CompletableFuture<Boolean> verifierIdentifiantEtDateNaissance(String identifiant, Date dateNaissance) {
+		return executer(b -> b.verifierIdentifiantEtDateNaissance(identifiant, dateNaissance));
+	}
+
+	/**
+	 * @see BDD#modifierMotDePasse(String, String)
+	 */
+	public CompletableFuture<Boolean> modifierMotDePasse(String identifiant, String nouveauMdp) {
+		return executer(b -> b.modifierMotDePasse(identifiant, nouveauMdp));
+	}
+
+	/**
+	 * @see BDD#recupererStocksMedicaments()
+	 */
+	public CompletableFuture<List<LigneMedicament>> recupererStocksMedicaments() {
+		return executer(BDD::recupererStocksMedicaments);
+	}
+
+	/**
+	 * @see BDD#recupererProduitsDelivrables()
+	 */
+	public CompletableFuture<List<LigneProduit>> recupererProduitsDelivrables() {
+		return executer(BDD::recupererProduitsDelivrables);
+	}
+
+	/**
+	 * @see BDD#recupererLotsDelivrables()
+	 */
+	public CompletableFuture<List<LigneMedicament>> recupererLotsDelivrables() {
+		return executer(BDD::recupererLotsDelivrables);
+	}
+
+	/**
+	 * @see BDD#recupererStocksBas(int)
+	 */
+	public CompletableFuture<List<LigneStockBas>> recupererStocksBas(int seuil) {
+		return executer(b -> b.recupererStocksBas(seuil));
+	}
+
+	/**
+	 * @see BDD#recupererStocksProduit(String, String)
+	 */
+	public CompletableFuture<List<LigneStockBas>> recupererStocksProduit(String produit, String dosage) {
+		return executer(b -> b.recupererStocksProduit(produit, dosage));
+	}
+
+	/**
+	 * Renvoie la liste des avions. Si le cache est valable, le résultat est
+	 * déjà disponible, sans passer par les threads d'accès à la base.
+	 *
+	 * @return La liste non modifiable des avions.
+	 * @see BDD#recupererAvionsEnCache()
+	 */
+	public CompletableFuture<List<LigneAvion>> recupererAvionsEnCache() {
+		List<LigneAvion> avions = bdd.getCacheAvions().enCache();
+		return avions != null ? CompletableFuture.completedFuture(avions) : executer(BDD::recupererAvionsEnCache);
+	}
+
+	/**
+	 * @see BDD#updateAvion(String, String, String, LocalDate)
+	 */
+	public CompletableFuture<Boolean> updateAvion(String avionNom, String etat, String lieuAttentat,
+			LocalDate dateAttentat) {
+		return executer(b -> b.updateAvion(avionNom, etat, lieuAttentat, dateAttentat));
+	}
+
+	/**
+	 * @see BDD#insererMedicament(String, String, String, LocalDate, int, String, String, int, String, String)
+	 */
+	public CompletableFuture<Void> insererMedicament(String produit, String dci, String dosage, LocalDate dateLimite,
+			int quantity, String lot, String classe, int numCaisse, String caisse, String acteur) {
+		return executer(b -> {
+			b.insererMedicament(produit, dci, dosage, dateLimite, quantity, lot, classe, numCaisse, caisse, acteur);
+			return null;
+		});
+	}
+
+	/**
+	 * @see BDD#insererAttentat(String, int, int, LocalDate)
+	 */
+	public CompletableFuture<Void> insererAttentat(String lieu, int totBlesses, int persASoigner,
+			LocalDate dateEvenement) {
+		return executer(b -> {
+			b.insererAttentat(lieu, totBlesses, persASoigner, dateEvenement);
+			return null;
+		});
+	}
+
+	/**
+	 * @see BDD#insererPrescription(String, String, String, int, String, String)
+	 */
+	public CompletableFuture<String> insererPrescription(String prenom, String nom, String nomMedicament,
+			int quantity, String idMed, String infoAttentat) {
+		return executer(b -> b.insererPrescription(prenom, nom, nomMedicament, quantity, idMed, infoAttentat));
+	}
+
+	/**
+	 * Renvoie la liste des attentats. Si le cache est valable, le résultat est
+	 * déjà disponible, sans passer par les threads d'accès à la base.
+	 *
+	 * @return La liste non modifiable des attentats.
+	 * @see BDD#recupererAttentatsEnCache()
+	 */
+	public CompletableFuture<List<LigneAttentat>> recupererAttentatsEnCache() {
+		List<LigneAttentat> attentats = bdd.getCacheAttentats().enCache();
+		return attentats != null ? CompletableFuture.completedFuture(attentats)
+				: executer(BDD::recupererAttentatsEnCache);
+	}
+
+	/**
+	 * @see BDD#rechercherAttentats(String, int)
+	 */
+	public CompletableFuture<List<LigneAttentat>> rechercherAttentats(String debut, int limite) {
+		return executer(b -> b.rechercherAttentats(debut, limite));
+	}
+
+	/**
+	 * @see BDD#recupererPrescriptionsParPatient(String, String)
+	 */
+	public CompletableFuture<List<LignePrescription>> recupererPrescriptionsParPatient(String prenom, String nom) {
+		return executer(b -> b.recupererPrescriptionsParPatient(prenom, nom));
+	}
+
+	/**
+	 * @see BDD#recupererPagePrescriptionsPatient(String, String, long, boolean, int)
+	 */
+	public CompletableFuture<List<LignePrescription>> recupererPagePrescriptionsPatient(String prenom, String nom,
+			long curseur, boolean suivante, int taille) {
+		return executer(b -> b.recupererPagePrescriptionsPatient(prenom, nom, curseur, suivante, taille));
+	}
+
+	/**
+	 * @see BDD#prescriptionExiste(String, String)
+	 */
+	public CompletableFuture<Boolean> prescriptionExiste(String prenom, String nom) {
+		return executer(b -> b.prescriptionExiste(prenom, nom));
+	}
+}
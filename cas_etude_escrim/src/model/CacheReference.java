@@ -0,0 +1,123 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache en lecture d'une liste de données de référence (attentats, avions) qui
+ * change rarement. La liste est relue en base à la première demande, à
+ * l'expiration de sa durée de vie ou après une invalidation ; les méthodes
+ * d'écriture de {@link BDD} la mettent à jour directement.
+ * Une liste plus longue que la taille maximale n'est pas conservée.
+ *
+ * @param <T> Le type des lignes de la liste.
+ */
+public class CacheReference<T> {
+	private final Supplier<List<T>> lecture;
+	private final long dureeVieNs;
+	private final int tailleMax;
+	private final LongAdder succes = new LongAdder();
+	private final LongAdder echecs = new LongAdder();
+	private List<T> valeurs;
+	private long lueLe;
+	private long version;
+
+	/**
+	 * Constructeur du cache.
+	 *
+	 * @param lecture     La lecture de la liste en base.
+	 * @param dureeVieMs  La durée pendant laquelle une liste lue reste valable, en ms.
+	 * @param tailleMax   Le nombre maximal de lignes conservées.
+	 */
+	public CacheReference(Supplier<List<T>> lecture, long dureeVieMs, int tailleMax) {
+		this.lecture = lecture;
+		this.dureeVieNs = dureeVieMs * 1_000_000L;
+		this.tailleMax = tailleMax;
+	}
+
+	/**
+	 * Renvoie la liste en cache si elle est encore valable, sans lire la base.
+	 *
+	 * @return La liste non modifiable, ou null si elle doit être relue.
+	 */
+	public synchronized List<T> enCache() {
+		if (valeurs == null || System.nanoTime() - lueLe > dureeVieNs) {
+			return null;
+		}
+		succes.increment();
+		return valeurs;
+	}
+
+	/**
+	 * Renvoie la liste en cache, ou la relit en base si elle n'est plus valable.
+	 * Une liste lue pendant une écriture concurrente est renvoyée sans être
+	 * conservée.
+	 *
+	 * @return La liste non modifiable.
+	 */
+	public List<T> obtenir() {
+		long versionLue;
+		synchronized (this) {
+			List<T> enCache = enCache();
+			if (enCache != null) {
+				return enCache;
+			}
+			versionLue = version;
+		}
+		echecs.increment();
+		List<T> lues = List.copyOf(lecture.get());
+		synchronized (this) {
+			if (version == versionLue && lues.size() <= tailleMax) {
+				valeurs = lues;
+				lueLe = System.nanoTime();
+			}
+		}
+		return lues;
+	}
+
+	/**
+	 * Applique une écriture à la liste en cache, si elle est chargée, sans
+	 * relire la base ni prolonger sa durée de vie.
+	 *
+	 * @param modification La transformation de la liste.
+	 */
+	public synchronized void modifier(UnaryOperator<List<T>> modification) {
+		version++;
+		if (valeurs != null) {
+			List<T> modifiees = List.copyOf(modification.apply(valeurs));
+			valeurs = modifiees.size() <= tailleMax ? modifiees : null;
+		}
+	}
+
+	/**
+	 * Oublie la liste en cache ; elle sera relue à la prochaine demande.
+	 */
+	public synchronized void invalider() {
+		version++;
+		valeurs = null;
+	}
+
+	/**
+	 * @return Le nombre de demandes servies par le cache.
+	 */
+	public long getSucces() {
+		return succes.sum();
+	}
+
+	/**
+	 * @return Le nombre de demandes qui ont lu la base.
+	 */
+	public long getEchecs() {
+		return echecs.sum();
+	}
+
+	/**
+	 * @return La part des demandes servies par le cache, entre 0 et 1.
+	 */
+	public double getTauxSucces() {
+		long total = getSucces() + getEchecs();
+		return total == 0 ? 0 : (double) getSucces() / total;
+	}
+}
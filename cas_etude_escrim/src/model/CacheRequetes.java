@@ -0,0 +1,91 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache LRU des requêtes préparées d'une connexion, indexé par le texte SQL.
+ * Une requête préparée n'est analysée qu'une fois par connexion ; la moins
+ * récemment utilisée est fermée lorsque la capacité est dépassée.
+ * Un cache n'est utilisé que par le détenteur courant de sa connexion.
+ */
+public class CacheRequetes {
+	private final Connection connexion;
+	private final LongAdder succes;
+	private final LongAdder echecs;
+	private final Map<String, PreparedStatement> requetes;
+
+	/**
+	 * Constructeur du cache.
+	 *
+	 * @param connexion La connexion propriétaire des requêtes.
+	 * @param capacite  Le nombre maximal de requêtes conservées.
+	 * @param succes    Le compteur des requêtes trouvées dans le cache.
+	 * @param echecs    Le compteur des requêtes qu'il a fallu préparer.
+	 */
+	public CacheRequetes(Connection connexion, int capacite, LongAdder succes, LongAdder echecs) {
+		this.connexion = connexion;
+		this.succes = succes;
+		this.echecs = echecs;
+		this.requetes = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> plusAncienne) {
+				if (size() > capacite) {
+					fermer(plusAncienne.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Renvoie la requête préparée correspondant au texte SQL, en la préparant si
+	 * elle n'est pas encore dans le cache. La requête ne doit pas être fermée par
+	 * l'appelant.
+	 *
+	 * @param sql Le texte SQL de la requête.
+	 * @return La requête préparée.
+	 * @throws SQLException Si la préparation échoue.
+	 */
+	public PreparedStatement preparer(String sql) throws SQLException {
+		PreparedStatement requete = requetes.get(sql);
+		if (requete != null && !requete.isClosed()) {
+			succes.increment();
+			return requete;
+		}
+		echecs.increment();
+		requete = connexion.prepareStatement(sql);
+		requetes.put(sql, requete);
+		return requete;
+	}
+
+	/**
+	 * Ferme toutes les requêtes du cache.
+	 */
+	public void vider() {
+		for (PreparedStatement requete : requetes.values()) {
+			fermer(requete);
+		}
+		requetes.clear();
+	}
+
+	/**
+	 * @return Le nombre de requêtes actuellement en cache.
+	 */
+	public int taille() {
+		return requetes.size();
+	}
+
+	private static void fermer(PreparedStatement requete) {
+		try {
+			requete.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+}
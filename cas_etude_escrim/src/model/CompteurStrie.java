@@ -0,0 +1,107 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compteur de stock réparti en bandes, pour que des threads qui réservent en
+ * même temps sur le même produit ne se disputent pas une seule variable. Chaque
+ * thread réserve d'abord dans sa bande, par compare-and-set, puis dans les
+ * autres ; si aucune bande ne suffit seule, il regroupe toutes les bandes dans
+ * la sienne.
+ *
+ * Aucune bande ne devient négative : une réservation ne retire d'une bande que
+ * ce qu'elle y trouve. Le total n'est qu'approché pendant les réservations
+ * concurrentes, et une réservation proche de l'épuisement peut être refusée
+ * pendant qu'un autre thread regroupe les bandes.
+ */
+final class CompteurStrie {
+	/** Écart entre deux bandes, pour qu'elles ne partagent pas une ligne de cache de 64 octets. */
+	private static final int ECART = 8;
+
+	private final AtomicLongArray cellules;
+	private final int masque;
+
+	/**
+	 * Crée un compteur.
+	 *
+	 * @param initial La quantité initiale.
+	 */
+	CompteurStrie(long initial) {
+		int bandes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+		this.cellules = new AtomicLongArray(bandes * ECART);
+		this.masque = bandes - 1;
+		cellules.set(0, Math.max(0, initial));
+	}
+
+	/**
+	 * Réserve une quantité si elle est disponible.
+	 *
+	 * @param quantite La quantité à réserver, positive.
+	 * @return true si la quantité est réservée, false si le stock ne suffit pas.
+	 */
+	boolean reserver(long quantite) {
+		int debut = bande();
+		for (int i = 0; i <= masque; i++) {
+			int indice = ((debut + i) & masque) * ECART;
+			long valeur;
+			while ((valeur = cellules.get(indice)) >= quantite) {
+				if (cellules.compareAndSet(indice, valeur, valeur - quantite)) {
+					return true;
+				}
+			}
+		}
+		long regroupe = 0;
+		for (int i = 0; i <= masque; i++) {
+			regroupe += cellules.getAndSet(i * ECART, 0);
+		}
+		boolean reserve = regroupe >= quantite;
+		cellules.getAndAdd(debut * ECART, reserve ? regroupe - quantite : regroupe);
+		return reserve;
+	}
+
+	/**
+	 * Ajoute une quantité au stock.
+	 *
+	 * @param quantite La quantité ajoutée, positive.
+	 */
+	void crediter(long quantite) {
+		cellules.getAndAdd(bande() * ECART, quantite);
+	}
+
+	/**
+	 * Retire au plus une quantité du stock, sans le rendre négatif.
+	 *
+	 * @param quantite La quantité à retirer, positive.
+	 * @return La quantité effectivement retirée.
+	 */
+	long retirer(long quantite) {
+		long reste = quantite;
+		for (int i = 0; i <= masque && reste > 0; i++) {
+			int indice = i * ECART;
+			long valeur;
+			while ((valeur = cellules.get(indice)) > 0) {
+				long pris = Math.min(valeur, reste);
+				if (cellules.compareAndSet(indice, valeur, valeur - pris)) {
+					reste -= pris;
+					break;
+				}
+			}
+		}
+		return quantite - reste;
+	}
+
+	/**
+	 * @return Le stock disponible, approché si des réservations sont en cours.
+	 */
+	long total() {
+		long total = 0;
+		for (int i = 0; i <= masque; i++) {
+			total += cellules.get(i * ECART);
+		}
+		return total;
+	}
+
+	private int bande() {
+		return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 32) & masque;
+	}
+}
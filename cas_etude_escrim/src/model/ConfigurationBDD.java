@@ -0,0 +1,132 @@
+package model;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.Server;
+
+/**
+ * Configuration du stockage H2 : serveur TCP distant ou base embarquée dans le
+ * processus, avec taille du cache MVStore et serveur TCP optionnel permettant
+ * aux autres postes de se connecter à la base embarquée.
+ * Les valeurs sont lues dans les propriétés système {@code escrim.bdd.*}.
+ */
+public class ConfigurationBDD {
+
+	/**
+	 * Mode de stockage de la base.
+	 */
+	public enum Mode {
+		/** Connexion à un serveur H2 démarré séparément. */
+		TCP,
+		/** Base ouverte dans le processus, sans passer par le réseau. */
+		EMBARQUE
+	}
+
+	private final Mode mode;
+	private final String hote;
+	private final String chemin;
+	private final int cacheKo;
+	private final boolean serveurTcp;
+	private final int portTcp;
+	private final String urlForcee;
+	private Server serveur;
+
+	/**
+	 * Constructeur de la configuration.
+	 *
+	 * @param mode       Le mode de stockage.
+	 * @param hote       L'hôte du serveur H2 en mode TCP.
+	 * @param chemin     Le chemin de la base, par exemple {@code ~/test}.
+	 * @param cacheKo    La taille du cache de pages MVStore en Ko (mode embarqué).
+	 * @param serveurTcp Vrai pour exposer la base embarquée aux autres postes.
+	 * @param portTcp    Le port du serveur TCP.
+	 * @param urlForcee  Une URL JDBC complète qui remplace les autres réglages, ou null.
+	 */
+	public ConfigurationBDD(Mode mode, String hote, String chemin, int cacheKo, boolean serveurTcp, int portTcp,
+			String urlForcee) {
+		this.mode = mode;
+		this.hote = hote;
+		this.chemin = chemin;
+		this.cacheKo = cacheKo;
+		this.serveurTcp = serveurTcp;
+		this.portTcp = portTcp;
+		this.urlForcee = urlForcee;
+	}
+
+	/**
+	 * Lit la configuration dans les propriétés système : {@code escrim.bdd.mode}
+	 * ({@code tcp} ou {@code embarque}), {@code escrim.bdd.hote},
+	 * {@code escrim.bdd.chemin}, {@code escrim.bdd.cacheKo},
+	 * {@code escrim.bdd.serveurTcp}, {@code escrim.bdd.portTcp} et
+	 * {@code escrim.bdd.url}.
+	 *
+	 * @return La configuration lue, avec les valeurs par défaut historiques.
+	 */
+	public static ConfigurationBDD depuisProprietes() {
+		Mode mode = "embarque".equalsIgnoreCase(System.getProperty("escrim.bdd.mode", "tcp")) ? Mode.EMBARQUE
+				: Mode.TCP;
+		return new ConfigurationBDD(mode,
+				System.getProperty("escrim.bdd.hote", "localhost"),
+				System.getProperty("escrim.bdd.chemin", "~/test"),
+				Integer.getInteger("escrim.bdd.cacheKo", 64 * 1024),
+				Boolean.getBoolean("escrim.bdd.serveurTcp"),
+				Integer.getInteger("escrim.bdd.portTcp", 9092),
+				System.getProperty("escrim.bdd.url"));
+	}
+
+	/**
+	 * @return L'URL JDBC correspondant à la configuration.
+	 */
+	public String url() {
+		if (urlForcee != null) {
+			return urlForcee;
+		}
+		if (mode == Mode.TCP) {
+			return "jdbc:h2:tcp://" + hote + "/" + chemin;
+		}
+		return "jdbc:h2:" + chemin + ";CACHE_SIZE=" + cacheKo;
+	}
+
+	/**
+	 * Crée la source de connexions physiques, en démarrant au besoin le serveur
+	 * TCP qui partage la base embarquée. Si ce serveur ne peut pas démarrer, la
+	 * base reste utilisable localement.
+	 *
+	 * @return La source de connexions.
+	 */
+	public DataSource creerDataSource() {
+		if (mode == Mode.EMBARQUE && serveurTcp && serveur == null) {
+			try {
+				serveur = Server.createTcpServer("-tcpPort", String.valueOf(portTcp), "-tcpAllowOthers", "-ifExists")
+						.start();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL(url());
+		dataSource.setUser("sa");
+		dataSource.setPassword("");
+		return dataSource;
+	}
+
+	/**
+	 * Arrête le serveur TCP éventuellement démarré par cette configuration.
+	 */
+	public void arreter() {
+		if (serveur != null) {
+			serveur.stop();
+			serveur = null;
+		}
+	}
+
+	/**
+	 * @return Le mode de stockage.
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+}
@@ -0,0 +1,106 @@
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+/**
+ * Démarrage de l'application. La page d'accueil s'affiche sans attendre la
+ * base : l'ouverture du pool, la vérification du schéma et le chargement des
+ * données de référence (attentats et avions) se font sur un thread dédié, et
+ * leur résultat est rendu sur le thread JavaFX.
+ *
+ * Les durées sont mesurées depuis le lancement du processus jusqu'à la
+ * première image de la page d'accueil et jusqu'à la base prête.
+ */
+public final class Demarrage {
+	private static final CompletableFuture<Boolean> base = new CompletableFuture<>();
+	private static final AtomicBoolean lance = new AtomicBoolean();
+	private static volatile long premiereImageMs = -1;
+	private static volatile long basePreteMs = -1;
+
+	private Demarrage() {
+	}
+
+	/**
+	 * Lance la préparation de la base sur un thread dédié. Seul le premier
+	 * appel la lance ; les suivants renvoient la même préparation.
+	 *
+	 * @return La préparation, complétée sur le thread JavaFX par true si la
+	 *         base est prête, false si elle n'a pas pu être initialisée.
+	 */
+	public static CompletableFuture<Boolean> preparerBase() {
+		if (lance.compareAndSet(false, true)) {
+			Thread thread = new Thread(Demarrage::preparer, "escrim-demarrage");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		return base;
+	}
+
+	/**
+	 * Mesure la durée jusqu'à la première image de la scène, à la fin de sa
+	 * première mise en page.
+	 *
+	 * @param scene La première scène affichée.
+	 */
+	public static void mesurerPremiereImage(Scene scene) {
+		Runnable[] ecouteur = new Runnable[1];
+		ecouteur[0] = () -> {
+			if (premiereImageMs < 0) {
+				premiereImageMs = depuisLancement();
+				Platform.runLater(() -> scene.removePostLayoutPulseListener(ecouteur[0]));
+			}
+		};
+		scene.addPostLayoutPulseListener(ecouteur[0]);
+	}
+
+	/**
+	 * @return La durée du lancement du processus à la première image en ms, ou
+	 *         -1 si elle n'est pas encore affichée.
+	 */
+	public static long getPremiereImageMs() {
+		return premiereImageMs;
+	}
+
+	/**
+	 * @return La durée du lancement du processus à la base prête en ms, ou -1
+	 *         si la préparation n'est pas terminée.
+	 */
+	public static long getBasePreteMs() {
+		return basePreteMs;
+	}
+
+	/**
+	 * @return Les durées du démarrage, sur une ligne.
+	 */
+	public static String rapport() {
+		return String.format("démarrage : première image %s, base %s (depuis le lancement du processus)",
+				premiereImageMs < 0 ? "non affichée" : premiereImageMs + " ms",
+				basePreteMs < 0 ? "non prête" : (base.getNow(false) ? "prête " : "en échec ") + basePreteMs + " ms");
+	}
+
+	private static void preparer() {
+		boolean prete = false;
+		try {
+			BDD bdd = BDD.getInstance();
+			prete = bdd.getVersionSchema() >= 0;
+			if (prete) {
+				bdd.recupererAttentatsEnCache();
+				bdd.recupererAvionsEnCache();
+			}
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+		basePreteMs = depuisLancement();
+		boolean resultat = prete;
+		Platform.runLater(() -> base.complete(resultat));
+	}
+
+	private static long depuisLancement() {
+		return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+	}
+}
@@ -0,0 +1,56 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Écouteur des écritures enregistrées par {@link BDD}, pour que les vues
+ * ouvertes ne mettent à jour que les lignes concernées. Les méthodes sont
+ * appelées sur le thread qui a effectué l'écriture, une fois celle-ci validée ;
+ * un écouteur qui modifie l'interface doit repasser sur le thread JavaFX.
+ */
+public interface EcouteurBDD {
+
+	/**
+	 * Appelée après un ajout de lot ou une modification de quantité.
+	 *
+	 * @param produit Le produit dont le stock a changé.
+	 * @param dosage  Le dosage du produit.
+	 */
+	default void stockModifie(String produit, String dosage) {
+	}
+
+	/**
+	 * Appelée après l'ajout d'un attentat ou un changement du nombre de blessés à soigner.
+	 *
+	 * @param lieu          Le lieu de l'attentat.
+	 * @param dateEvenement La date de l'attentat.
+	 */
+	default void attentatModifie(String lieu, LocalDate dateEvenement) {
+	}
+
+	/**
+	 * Appelée après un changement d'état ou d'affectation d'un avion.
+	 *
+	 * @param nom Le nom de l'avion.
+	 */
+	default void avionModifie(String nom) {
+	}
+
+	/**
+	 * Appelée après chaque passage de la veille des péremptions.
+	 *
+	 * @param rapport Les lots périmés et à périmer, à la date du passage.
+	 */
+	default void peremptionsVerifiees(RapportPeremption rapport) {
+	}
+
+	/**
+	 * Appelée quand une délivrance confirmée par le stock en mémoire est refusée
+	 * à l'écriture, faute de stock en base ; elle est enregistrée dans
+	 * {@code prescription_refusee}.
+	 *
+	 * @param prescription La prescription refusée.
+	 */
+	default void prescriptionRefusee(LignePrescription prescription) {
+	}
+}
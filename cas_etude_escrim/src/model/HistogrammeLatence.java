@@ -0,0 +1,117 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées à classes logarithmiques, dans l'esprit de
+ * HdrHistogram : chaque puissance de deux est découpée en {@value #SOUS_CLASSES}
+ * classes égales, ce qui borne l'erreur relative d'un percentile à 12,5 %
+ * sur toute la plage, de la nanoseconde à plusieurs heures, avec une mémoire
+ * fixe. L'enregistrement est sans verrou et peut être appelé de plusieurs threads.
+ */
+public class HistogrammeLatence {
+	private static final int BITS_SOUS_CLASSES = 3;
+	private static final int SOUS_CLASSES = 1 << BITS_SOUS_CLASSES;
+	private static final int CLASSES = (64 - BITS_SOUS_CLASSES) * SOUS_CLASSES;
+
+	private final AtomicLongArray comptes = new AtomicLongArray(CLASSES);
+	private final LongAdder nombre = new LongAdder();
+	private final LongAdder totalNs = new LongAdder();
+	private final AtomicLong maxNs = new AtomicLong();
+
+	/**
+	 * Enregistre une durée.
+	 *
+	 * @param dureeNs La durée, en nanosecondes ; une valeur négative compte pour zéro.
+	 */
+	public void enregistrer(long dureeNs) {
+		long duree = Math.max(0, dureeNs);
+		comptes.incrementAndGet(classe(duree));
+		nombre.increment();
+		totalNs.add(duree);
+		maxNs.accumulateAndGet(duree, Math::max);
+	}
+
+	/**
+	 * @return Le nombre de durées enregistrées.
+	 */
+	public long getNombre() {
+		return nombre.sum();
+	}
+
+	/**
+	 * @return La durée moyenne, en microsecondes.
+	 */
+	public double getMoyenneMicros() {
+		long n = nombre.sum();
+		return n == 0 ? 0 : totalNs.sum() / 1000.0 / n;
+	}
+
+	/**
+	 * @return La durée maximale exacte, en microsecondes.
+	 */
+	public double getMaxMicros() {
+		return maxNs.get() / 1000.0;
+	}
+
+	/**
+	 * Renvoie le percentile demandé, arrondi à la borne haute de sa classe.
+	 *
+	 * @param percentile Le percentile, entre 0 et 100.
+	 * @return La durée du percentile, en microsecondes ; 0 si l'histogramme est vide.
+	 */
+	public double getPercentileMicros(double percentile) {
+		long n = nombre.sum();
+		if (n == 0) {
+			return 0;
+		}
+		long rang = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+		long cumul = 0;
+		for (int i = 0; i < CLASSES; i++) {
+			cumul += comptes.get(i);
+			if (cumul >= rang) {
+				return Math.min(borneHaute(i), maxNs.get()) / 1000.0;
+			}
+		}
+		return getMaxMicros();
+	}
+
+	/**
+	 * Remet l'histogramme à zéro. Les enregistrements concurrents peuvent être
+	 * partiellement conservés.
+	 */
+	public void reinitialiser() {
+		for (int i = 0; i < CLASSES; i++) {
+			comptes.set(i, 0);
+		}
+		nombre.reset();
+		totalNs.reset();
+		maxNs.set(0);
+	}
+
+	/**
+	 * Les valeurs inférieures à {@value #SOUS_CLASSES} ont chacune leur classe ;
+	 * au-delà, la classe est donnée par la position du bit de poids fort et les
+	 * {@value #BITS_SOUS_CLASSES} bits qui le suivent.
+	 */
+	private static int classe(long valeur) {
+		if (valeur < SOUS_CLASSES) {
+			return (int) valeur;
+		}
+		int exposant = 63 - Long.numberOfLeadingZeros(valeur);
+		int sousClasse = (int) (valeur >>> (exposant - BITS_SOUS_CLASSES)) & (SOUS_CLASSES - 1);
+		return (exposant - BITS_SOUS_CLASSES + 1) * SOUS_CLASSES + sousClasse;
+	}
+
+	private static long borneHaute(int classe) {
+		if (classe < SOUS_CLASSES) {
+			return classe;
+		}
+		int exposant = classe / SOUS_CLASSES + BITS_SOUS_CLASSES - 1;
+		long largeur = 1L << (exposant - BITS_SOUS_CLASSES);
+		long debut = (long) (SOUS_CLASSES + classe % SOUS_CLASSES) << (exposant - BITS_SOUS_CLASSES);
+		return debut + largeur - 1;
+	}
+}
@@ -0,0 +1,14 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Attentat tel qu'enregistré dans la table {@code attentat}.
+ *
+ * @param lieu          Le lieu de l'attentat.
+ * @param totBlesses    Le nombre total de blessés.
+ * @param persASoigner  Le nombre de personnes restant à soigner.
+ * @param dateEvenement La date de l'attentat.
+ */
+public record LigneAttentat(String lieu, int totBlesses, int persASoigner, LocalDate dateEvenement) {
+}
@@ -0,0 +1,42 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Avion tel qu'enregistré dans la table {@code avion}.
+ *
+ * @param nom                     Le nom de l'avion.
+ * @param constructeur            Le constructeur.
+ * @param typeMoteur              Le type de motorisation.
+ * @param typeDeVol               Le type de vol.
+ * @param tonneMax                La charge maximale, en tonnes.
+ * @param taillePorteCm           Les dimensions de la porte, en cm.
+ * @param dimensionsSouteCm       Les dimensions de la soute, en cm.
+ * @param volumeUtilisableM3      Le volume utilisable, en m³.
+ * @param exigencePisteM          La longueur de piste requise, en m.
+ * @param porteeChargeKm          La portée en charge, en km.
+ * @param porteeVideKm            La portée à vide, en km.
+ * @param vitesseCroisiereKmh     La vitesse de croisière, en km/h.
+ * @param consommationCarburantLh La consommation de carburant, en l/h.
+ * @param positionsPalettes       Le nombre de positions de palettes.
+ * @param etat                    L'état de disponibilité (disponible ou occupé).
+ * @param lieuAttentat            Le lieu de l'attentat auquel l'avion est affecté.
+ * @param dateAttentat            La date de l'attentat auquel l'avion est affecté.
+ */
+public record LigneAvion(String nom, String constructeur, String typeMoteur, String typeDeVol, double tonneMax,
+		String taillePorteCm, String dimensionsSouteCm, double volumeUtilisableM3, int exigencePisteM,
+		int porteeChargeKm, int porteeVideKm, int vitesseCroisiereKmh, int consommationCarburantLh,
+		int positionsPalettes, String etat, String lieuAttentat, LocalDate dateAttentat) {
+
+	/**
+	 * @param etat         Le nouvel état de disponibilité.
+	 * @param lieuAttentat Le lieu du nouvel attentat affecté.
+	 * @param dateAttentat La date du nouvel attentat affecté.
+	 * @return Le même avion avec la nouvelle affectation.
+	 */
+	public LigneAvion affecter(String etat, String lieuAttentat, LocalDate dateAttentat) {
+		return new LigneAvion(nom, constructeur, typeMoteur, typeDeVol, tonneMax, taillePorteCm, dimensionsSouteCm,
+				volumeUtilisableM3, exigencePisteM, porteeChargeKm, porteeVideKm, vitesseCroisiereKmh,
+				consommationCarburantLh, positionsPalettes, etat, lieuAttentat, dateAttentat);
+	}
+}
@@ -0,0 +1,21 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Lot de médicament tel qu'enregistré dans la table {@code médicament}.
+ *
+ * @param id        L'identifiant du lot, clé de pagination.
+ * @param produit   Le nom commercial du produit.
+ * @param dci       La dénomination commune internationale.
+ * @param dosage    Le dosage.
+ * @param dlu       La date limite d'utilisation du lot.
+ * @param quantite  La quantité en stock.
+ * @param lot       Le numéro de lot.
+ * @param classe    La classe thérapeutique.
+ * @param numCaisse Le numéro de la caisse de rangement.
+ * @param caisse    Le nom de la caisse de rangement.
+ */
+public record LigneMedicament(long id, String produit, String dci, String dosage, LocalDate dlu, int quantite, String lot,
+		String classe, int numCaisse, String caisse) {
+}
@@ -0,0 +1,20 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Prescription telle qu'enregistrée dans la table {@code prescription}.
+ *
+ * @param id               L'identifiant de la prescription, clé de pagination.
+ * @param prenom           Le prénom du patient.
+ * @param nom              Le nom du patient.
+ * @param idMedecin        L'identifiant du médecin prescripteur.
+ * @param nomMedicament    Le médicament prescrit, au format "produit ; dosage ; DLU".
+ * @param quantite         La quantité prescrite.
+ * @param datePrescription La date de la prescription.
+ * @param lieuAttentat     Le lieu de l'attentat associé.
+ * @param dateAttentat     La date de l'attentat associé.
+ */
+public record LignePrescription(long id, String prenom, String nom, String idMedecin, String nomMedicament, int quantite,
+		LocalDate datePrescription, String lieuAttentat, LocalDate dateAttentat) {
+}
@@ -0,0 +1,10 @@
+package model;
+
+/**
+ * Produit délivrable : au moins un de ses lots est en stock et non périmé.
+ *
+ * @param produit Le nom du médicament.
+ * @param dosage  Le dosage du médicament.
+ */
+public record LigneProduit(String produit, String dosage) {
+}
@@ -0,0 +1,12 @@
+package model;
+
+/**
+ * Produit dont le stock cumulé, tous lots confondus, est sous le seuil d'alerte.
+ *
+ * @param produit         Le nom commercial du produit.
+ * @param dci             La dénomination commune internationale.
+ * @param dosage          Le dosage.
+ * @param quantiteTotale  La quantité totale en stock.
+ */
+public record LigneStockBas(String produit, String dci, String dosage, int quantiteTotale) {
+}
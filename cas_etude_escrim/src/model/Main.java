@@ -3,24 +3,47 @@ package model;
 import javafx.application.Application;
 import javafx.stage.Stage;
 import view.Logiciel;
+import view.RegistreVues;
 
 public class Main extends Application {
     private Logiciel logiciel;
 
+    /**
+     * Affiche la page d'accueil pendant que la base est préparée en
+     * arrière-plan par {@link Demarrage}.
+     */
+    @Override
     public void start(Stage primaryStage) {
         try {
-            this.logiciel = new Logiciel(primaryStage);
+            Demarrage.preparerBase();
+            this.logiciel = RegistreVues.de(primaryStage).accueil();
             this.logiciel.afficheVueAccueil();
-            
-            BDD database = new BDD();
-            database.openDBConnection();
-
-
+            Demarrage.mesurerPremiereImage(primaryStage.getScene());
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Arrête les threads d'accès à la base et ferme les connexions du pool à la
+     * fermeture de l'application. Avec la propriété système
+     * {@code escrim.metriques.rapport}, affiche auparavant les durées du démarrage,
+     * les mesures des appels à la base et, en débogage des fuites, les ressources
+     * JDBC restées ouvertes.
+     */
+    @Override
+    public void stop() {
+        BDDAsynchrone.getInstance().fermer();
+        if (Boolean.getBoolean("escrim.metriques.rapport")) {
+            System.out.println(Demarrage.rapport());
+            System.out.println(BDD.getInstance().getMetriques().rapport());
+            if (BDD.getInstance().getPool().getSuiviFuites() != null) {
+                System.out.println(BDD.getInstance().getPool().getSuiviFuites().rapport());
+            }
+        }
+        BDD.getInstance().fermer();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
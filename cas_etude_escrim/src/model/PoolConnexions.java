@@ -0,0 +1,362 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * Pool borné de connexions JDBC partagé par toute l'application.
+ * Les connexions inactives sont réutilisées, et celles restées inutilisées trop
+ * longtemps sont fermées par une tâche d'éviction périodique. Chaque connexion
+ * conserve ses requêtes préparées dans un {@link CacheRequetes}. En débogage,
+ * un {@link SuiviFuites} vérifie au retour de chaque connexion qu'aucun
+ * résultat ni aucune requête hors cache n'est resté ouvert.
+ */
+public class PoolConnexions {
+	private final DataSource dataSource;
+	private final int tailleMax;
+	private final long delaiInactiviteMs;
+	private final long delaiAttenteMs;
+	private final int capaciteCacheRequetes;
+	private final Semaphore permis;
+	private final Deque<ConnexionInactive> inactives = new ArrayDeque<>();
+	private final Map<Connection, CacheRequetes> caches = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService eviction;
+	private final SuiviFuites suiviFuites;
+	private volatile boolean ferme;
+
+	private final AtomicLong nombreEmprunts = new AtomicLong();
+	private final AtomicLong attenteTotaleNs = new AtomicLong();
+	private final AtomicLong attenteMaxNs = new AtomicLong();
+	private final HistogrammeLatence attentes = new HistogrammeLatence();
+	private final AtomicLong connexionsCreees = new AtomicLong();
+	private final AtomicLong connexionsEvincees = new AtomicLong();
+	private final LongAdder requetesEnCache = new LongAdder();
+	private final LongAdder requetesPreparees = new LongAdder();
+
+	/**
+	 * Connexion rendue au pool, avec l'instant de son retour.
+	 */
+	private static final class ConnexionInactive {
+		private final Connection connexion;
+		private final long rendueA;
+
+		private ConnexionInactive(Connection connexion, long rendueA) {
+			this.connexion = connexion;
+			this.rendueA = rendueA;
+		}
+	}
+
+	/**
+	 * Constructeur du pool.
+	 *
+	 * @param dataSource        La source des connexions physiques.
+	 * @param tailleMax         Le nombre maximal de connexions ouvertes simultanément.
+	 * @param delaiInactiviteMs La durée au-delà de laquelle une connexion inactive est fermée.
+	 * @param delaiAttenteMs    La durée maximale d'attente d'une connexion libre.
+	 * @param capaciteCacheRequetes Le nombre de requêtes préparées conservées par connexion.
+	 */
+	public PoolConnexions(DataSource dataSource, int tailleMax, long delaiInactiviteMs, long delaiAttenteMs,
+			int capaciteCacheRequetes) {
+		this(dataSource, tailleMax, delaiInactiviteMs, delaiAttenteMs, capaciteCacheRequetes, null);
+	}
+
+	/**
+	 * Constructeur du pool avec suivi des ressources JDBC ouvertes.
+	 *
+	 * @param dataSource        La source des connexions physiques.
+	 * @param tailleMax         Le nombre maximal de connexions ouvertes simultanément.
+	 * @param delaiInactiviteMs La durée au-delà de laquelle une connexion inactive est fermée.
+	 * @param delaiAttenteMs    La durée maximale d'attente d'une connexion libre.
+	 * @param capaciteCacheRequetes Le nombre de requêtes préparées conservées par connexion.
+	 * @param suiviFuites       Le suivi des ressources ouvertes, ou null hors débogage.
+	 */
+	public PoolConnexions(DataSource dataSource, int tailleMax, long delaiInactiviteMs, long delaiAttenteMs,
+			int capaciteCacheRequetes, SuiviFuites suiviFuites) {
+		if (tailleMax <= 0) {
+			throw new IllegalArgumentException("La taille du pool doit être positive : " + tailleMax);
+		}
+		this.dataSource = dataSource;
+		this.tailleMax = tailleMax;
+		this.delaiInactiviteMs = delaiInactiviteMs;
+		this.delaiAttenteMs = delaiAttenteMs;
+		this.capaciteCacheRequetes = capaciteCacheRequetes;
+		this.suiviFuites = suiviFuites;
+		this.permis = new Semaphore(tailleMax, true);
+		this.eviction = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "escrim-pool-eviction");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long periode = Math.max(1000, delaiInactiviteMs / 2);
+		eviction.scheduleWithFixedDelay(this::evincerInactives, periode, periode, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Emprunte une connexion au pool, en attendant si toutes sont occupées.
+	 *
+	 * @return Une connexion prête à l'emploi, à rendre avec {@link #rendre(Connection)}.
+	 * @throws SQLException Si aucune connexion n'a pu être obtenue dans le délai imparti.
+	 */
+	public Connection emprunter() throws SQLException {
+		if (ferme) {
+			throw new SQLException("Le pool de connexions est fermé.");
+		}
+		long debut = System.nanoTime();
+		try {
+			if (!permis.tryAcquire(delaiAttenteMs, TimeUnit.MILLISECONDS)) {
+				throw new SQLException("Aucune connexion disponible après " + delaiAttenteMs + " ms.");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Attente d'une connexion interrompue.", e);
+		}
+		try {
+			Connection connexion = prendreInactive();
+			if (connexion == null) {
+				connexion = dataSource.getConnection();
+				if (suiviFuites != null) {
+					connexion = suiviFuites.surveiller(connexion);
+				}
+				connexionsCreees.incrementAndGet();
+			}
+			enregistrerAttente(System.nanoTime() - debut);
+			return connexion;
+		} catch (SQLException | RuntimeException e) {
+			permis.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Rend une connexion au pool. Une connexion fermée ou en transaction
+	 * inachevée est écartée plutôt que réutilisée.
+	 *
+	 * @param connexion La connexion empruntée.
+	 */
+	public void rendre(Connection connexion) {
+		if (connexion == null) {
+			return;
+		}
+		if (suiviFuites != null) {
+			suiviFuites.verifier(connexion);
+		}
+		try {
+			boolean reutilisable = !ferme && !connexion.isClosed() && connexion.getAutoCommit();
+			if (reutilisable) {
+				synchronized (inactives) {
+					inactives.addFirst(new ConnexionInactive(connexion, System.currentTimeMillis()));
+				}
+			} else {
+				fermerSilencieusement(connexion);
+			}
+		} catch (SQLException e) {
+			fermerSilencieusement(connexion);
+		} finally {
+			permis.release();
+		}
+	}
+
+	/**
+	 * Prépare une requête sur une connexion empruntée, en réutilisant la requête
+	 * déjà préparée pour le même texte SQL. La requête ne doit pas être fermée.
+	 *
+	 * @param connexion La connexion empruntée au pool.
+	 * @param sql       Le texte SQL de la requête.
+	 * @return La requête préparée.
+	 * @throws SQLException Si la préparation échoue.
+	 */
+	public PreparedStatement preparer(Connection connexion, String sql) throws SQLException {
+		CacheRequetes cache = caches.computeIfAbsent(connexion,
+				c -> new CacheRequetes(c, capaciteCacheRequetes, requetesEnCache, requetesPreparees));
+		PreparedStatement requete = cache.preparer(sql);
+		if (suiviFuites != null) {
+			suiviFuites.conserver(requete);
+		}
+		return requete;
+	}
+
+	/**
+	 * Ferme le pool et toutes les connexions inactives.
+	 */
+	public void fermer() {
+		ferme = true;
+		eviction.shutdownNow();
+		synchronized (inactives) {
+			for (ConnexionInactive inactive : inactives) {
+				fermerSilencieusement(inactive.connexion);
+			}
+			inactives.clear();
+		}
+	}
+
+	/**
+	 * Récupère la connexion inactive la plus récemment rendue, encore ouverte.
+	 */
+	private Connection prendreInactive() {
+		while (true) {
+			ConnexionInactive inactive;
+			synchronized (inactives) {
+				inactive = inactives.pollFirst();
+			}
+			if (inactive == null) {
+				return null;
+			}
+			try {
+				if (!inactive.connexion.isClosed()) {
+					return inactive.connexion;
+				}
+			} catch (SQLException e) {
+				fermerSilencieusement(inactive.connexion);
+			}
+		}
+	}
+
+	/**
+	 * Ferme les connexions restées inactives plus longtemps que le délai configuré.
+	 */
+	private void evincerInactives() {
+		long limite = System.currentTimeMillis() - delaiInactiviteMs;
+		synchronized (inactives) {
+			Iterator<ConnexionInactive> it = inactives.descendingIterator();
+			while (it.hasNext()) {
+				ConnexionInactive inactive = it.next();
+				if (inactive.rendueA > limite) {
+					break;
+				}
+				it.remove();
+				fermerSilencieusement(inactive.connexion);
+				connexionsEvincees.incrementAndGet();
+			}
+		}
+	}
+
+	private void enregistrerAttente(long attenteNs) {
+		nombreEmprunts.incrementAndGet();
+		attenteTotaleNs.addAndGet(attenteNs);
+		attenteMaxNs.accumulateAndGet(attenteNs, Math::max);
+		attentes.enregistrer(attenteNs);
+	}
+
+	private void fermerSilencieusement(Connection connexion) {
+		CacheRequetes cache = caches.remove(connexion);
+		if (cache != null) {
+			cache.vider();
+		}
+		try {
+			connexion.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		if (suiviFuites != null) {
+			suiviFuites.oublier(connexion);
+		}
+	}
+
+	/**
+	 * @return Le suivi des ressources JDBC ouvertes, ou null hors débogage.
+	 */
+	public SuiviFuites getSuiviFuites() {
+		return suiviFuites;
+	}
+
+	/**
+	 * @return La durée maximale d'attente d'une connexion libre, en ms.
+	 */
+	public long getDelaiAttente() {
+		return delaiAttenteMs;
+	}
+
+	/**
+	 * @return La taille maximale du pool.
+	 */
+	public int getTailleMax() {
+		return tailleMax;
+	}
+
+	/**
+	 * @return Le nombre de connexions actuellement empruntées.
+	 */
+	public int getConnexionsActives() {
+		return tailleMax - permis.availablePermits();
+	}
+
+	/**
+	 * @return Le nombre de connexions ouvertes en attente dans le pool.
+	 */
+	public int getConnexionsInactives() {
+		synchronized (inactives) {
+			return inactives.size();
+		}
+	}
+
+	/**
+	 * @return Le nombre total d'emprunts effectués.
+	 */
+	public long getNombreEmprunts() {
+		return nombreEmprunts.get();
+	}
+
+	/**
+	 * @return Le temps moyen d'obtention d'une connexion, en microsecondes.
+	 */
+	public double getAttenteMoyenneMicros() {
+		long emprunts = nombreEmprunts.get();
+		return emprunts == 0 ? 0 : attenteTotaleNs.get() / 1000.0 / emprunts;
+	}
+
+	/**
+	 * @return Le temps maximal d'obtention d'une connexion, en microsecondes.
+	 */
+	public double getAttenteMaxMicros() {
+		return attenteMaxNs.get() / 1000.0;
+	}
+
+	/**
+	 * @return L'histogramme des temps d'obtention d'une connexion.
+	 */
+	public HistogrammeLatence getHistogrammeAttente() {
+		return attentes;
+	}
+
+	/**
+	 * @return Le nombre de connexions physiques ouvertes depuis le démarrage.
+	 */
+	public long getConnexionsCreees() {
+		return connexionsCreees.get();
+	}
+
+	/**
+	 * @return Le nombre de connexions fermées pour inactivité.
+	 */
+	public long getConnexionsEvincees() {
+		return connexionsEvincees.get();
+	}
+
+	/**
+	 * @return Le nombre de requêtes trouvées dans les caches de requêtes préparées.
+	 */
+	public long getRequetesEnCache() {
+		return requetesEnCache.sum();
+	}
+
+	/**
+	 * @return Le nombre de requêtes qu'il a fallu préparer (analyse côté serveur).
+	 */
+	public long getRequetesPreparees() {
+		return requetesPreparees.sum();
+	}
+}
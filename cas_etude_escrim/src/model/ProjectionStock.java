@@ -0,0 +1,68 @@
+package model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projection périodique des entrées de stock. Les réapprovisionnements et les
+ * entrées de transfert sont seulement ajoutés au registre des mouvements ; un
+ * thread dédié les reporte dans les quantités des lots par lots de mouvements,
+ * par {@link BDD#projeterMouvements(int)}.
+ *
+ * Les sorties (prescriptions, transferts) ne passent pas par la projection :
+ * elles restent appliquées aussitôt par une mise à jour conditionnelle, ce qui
+ * garantit qu'un stock ne devient jamais négatif. Une entrée en attente n'est
+ * donc jamais délivrable avant d'être projetée.
+ */
+public final class ProjectionStock {
+	private final BDD bdd;
+	private final int taille;
+	private final ScheduledExecutorService planificateur;
+
+	/**
+	 * Démarre la projection.
+	 *
+	 * @param bdd     La base dont les entrées sont projetées.
+	 * @param periode L'intervalle entre deux projections, en ms.
+	 * @param taille  Le nombre maximal de mouvements projetés par transaction.
+	 */
+	public ProjectionStock(BDD bdd, long periode, int taille) {
+		this.bdd = bdd;
+		this.taille = taille;
+		this.planificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+			Thread thread = new Thread(tache, "escrim-projection-stock");
+			thread.setDaemon(true);
+			return thread;
+		});
+		planificateur.scheduleWithFixedDelay(this::projeter, periode, periode, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Projette les entrées en attente, lot après lot, tant que la file en contient.
+	 *
+	 * @return Le nombre de mouvements projetés.
+	 */
+	public int projeter() {
+		int total = 0;
+		int projetes;
+		do {
+			projetes = bdd.projeterMouvements(taille);
+			total += Math.max(projetes, 0);
+		} while (projetes == taille);
+		return total;
+	}
+
+	/**
+	 * Arrête la projection périodique puis projette les entrées restantes.
+	 */
+	public void arreter() {
+		planificateur.shutdown();
+		try {
+			planificateur.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		projeter();
+	}
+}
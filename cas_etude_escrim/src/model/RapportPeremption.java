@@ -0,0 +1,28 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Résultat d'un passage de la veille des péremptions.
+ *
+ * @param date     La date du passage.
+ * @param perimes  Le nombre de lots en stock dont la DLU est passée.
+ * @param aPerimer Pour chaque horizon en jours, le nombre de lots en stock
+ *                 encore valides qui seront périmés dans cet horizon.
+ */
+public record RapportPeremption(LocalDate date, int perimes, Map<Integer, Integer> aPerimer) {
+
+	public RapportPeremption {
+		aPerimer = Collections.unmodifiableMap(new TreeMap<>(aPerimer));
+	}
+
+	/**
+	 * @return true si au moins un lot est périmé ou à périmer.
+	 */
+	public boolean aSignaler() {
+		return perimes > 0 || aPerimer.values().stream().anyMatch(nombre -> nombre > 0);
+	}
+}
@@ -0,0 +1,209 @@
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Registre des mesures des méthodes de {@link BDD} : pour chaque méthode, un
+ * histogramme des durées d'appel, le nombre d'erreurs et le nombre de lignes
+ * renvoyées, ainsi que l'histogramme d'attente d'une connexion du pool et le
+ * nombre d'erreurs par état SQL (interblocages, délais de verrou dépassés...).
+ * Le registre peut être lu à la demande avec {@link #rapport()} et exporté
+ * en JMX.
+ */
+public class RegistreMetriques implements RegistreMetriquesMBean {
+
+	/**
+	 * Mesures d'une méthode.
+	 */
+	private static final class Metrique {
+		private final HistogrammeLatence durees = new HistogrammeLatence();
+		private final LongAdder erreurs = new LongAdder();
+		private final LongAdder lignes = new LongAdder();
+	}
+
+	/**
+	 * Mesure d'un appel en cours, démarrée par {@link RegistreMetriques#demarrer(String)}.
+	 */
+	public static final class Mesure {
+		private final Metrique metrique;
+		private final Map<String, LongAdder> erreursParEtat;
+		private final long debut;
+		private boolean echec;
+
+		private Mesure(Metrique metrique, Map<String, LongAdder> erreursParEtat) {
+			this.metrique = metrique;
+			this.erreursParEtat = erreursParEtat;
+			this.debut = System.nanoTime();
+		}
+
+		/**
+		 * Signale que l'appel a échoué.
+		 */
+		public void echec() {
+			echec = true;
+		}
+
+		/**
+		 * Signale que l'appel a échoué et compte l'erreur sous son état SQL. À
+		 * n'appeler que là où l'exception est traitée, et non dans une méthode qui
+		 * la relance, pour qu'elle ne soit comptée qu'une fois.
+		 *
+		 * @param e L'exception SQL à l'origine de l'échec.
+		 */
+		public void echec(SQLException e) {
+			echec();
+			String etat = e.getSQLState() == null ? ETAT_INCONNU : e.getSQLState();
+			erreursParEtat.computeIfAbsent(etat, cle -> new LongAdder()).increment();
+		}
+
+		/**
+		 * Enregistre la durée de l'appel, sans ligne renvoyée.
+		 */
+		public void terminer() {
+			terminer(0);
+		}
+
+		/**
+		 * Enregistre la durée de l'appel et le nombre de lignes renvoyées.
+		 *
+		 * @param lignes Le nombre de lignes renvoyées.
+		 */
+		public void terminer(int lignes) {
+			metrique.durees.enregistrer(System.nanoTime() - debut);
+			metrique.lignes.add(lignes);
+			if (echec) {
+				metrique.erreurs.increment();
+			}
+		}
+	}
+
+	/** État SQL de délai de verrou dépassé (H2). */
+	public static final String ETAT_DELAI_VERROU = "HYT00";
+	/** État SQL d'interblocage ou d'échec de sérialisation. */
+	public static final String ETAT_INTERBLOCAGE = "40001";
+	/** Clé des erreurs sans état SQL, par exemple l'attente d'une connexion du pool. */
+	public static final String ETAT_INCONNU = "inconnu";
+
+	private final Map<String, Metrique> metriques = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> erreursParEtat = new ConcurrentHashMap<>();
+	private final HistogrammeLatence attenteConnexion;
+
+	/**
+	 * Constructeur du registre.
+	 *
+	 * @param attenteConnexion L'histogramme d'attente d'une connexion du pool.
+	 */
+	public RegistreMetriques(HistogrammeLatence attenteConnexion) {
+		this.attenteConnexion = attenteConnexion;
+	}
+
+	/**
+	 * Démarre la mesure d'un appel.
+	 *
+	 * @param methode Le nom de la méthode appelée.
+	 * @return La mesure, à terminer quand l'appel se termine.
+	 */
+	public Mesure demarrer(String methode) {
+		return new Mesure(metriques.computeIfAbsent(methode, nom -> new Metrique()), erreursParEtat);
+	}
+
+	/**
+	 * Enregistre le registre dans le serveur JMX de la plateforme.
+	 *
+	 * @param nom Le nom JMX, par exemple {@code escrim:type=BDD}.
+	 */
+	public void exporterJmx(String nom) {
+		try {
+			ObjectName objectName = new ObjectName(nom);
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public String[] getMethodes() {
+		return new TreeMap<>(metriques).keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public long getAppels(String methode) {
+		Metrique metrique = metriques.get(methode);
+		return metrique == null ? 0 : metrique.durees.getNombre();
+	}
+
+	@Override
+	public long getErreurs(String methode) {
+		Metrique metrique = metriques.get(methode);
+		return metrique == null ? 0 : metrique.erreurs.sum();
+	}
+
+	@Override
+	public long getLignes(String methode) {
+		Metrique metrique = metriques.get(methode);
+		return metrique == null ? 0 : metrique.lignes.sum();
+	}
+
+	@Override
+	public double getPercentileMicros(String methode, double percentile) {
+		Metrique metrique = metriques.get(methode);
+		return metrique == null ? 0 : metrique.durees.getPercentileMicros(percentile);
+	}
+
+	@Override
+	public long getErreursEtat(String etat) {
+		LongAdder erreurs = erreursParEtat.get(etat);
+		return erreurs == null ? 0 : erreurs.sum();
+	}
+
+	@Override
+	public String[] getEtatsErreurs() {
+		return new TreeMap<>(erreursParEtat).keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public double getAttenteConnexionP99Micros() {
+		return attenteConnexion.getPercentileMicros(99);
+	}
+
+	@Override
+	public String rapport() {
+		List<String> lignes = new ArrayList<>();
+		lignes.add(String.format("%-36s %9s %7s %9s %10s %10s %10s %10s", "méthode", "appels", "erreurs", "lignes",
+				"moy µs", "p50 µs", "p99 µs", "max µs"));
+		for (Map.Entry<String, Metrique> entree : new TreeMap<>(metriques).entrySet()) {
+			lignes.add(ligneRapport(entree.getKey(), entree.getValue().durees, entree.getValue().erreurs.sum(),
+					entree.getValue().lignes.sum()));
+		}
+		lignes.add(ligneRapport("(attente connexion)", attenteConnexion, 0, 0));
+		for (Map.Entry<String, LongAdder> entree : new TreeMap<>(erreursParEtat).entrySet()) {
+			lignes.add(String.format("erreurs SQL %-24s %9d", entree.getKey(), entree.getValue().sum()));
+		}
+		return String.join(System.lineSeparator(), lignes);
+	}
+
+	@Override
+	public void reinitialiser() {
+		metriques.clear();
+		erreursParEtat.clear();
+		attenteConnexion.reinitialiser();
+	}
+
+	private static String ligneRapport(String nom, HistogrammeLatence durees, long erreurs, long lignes) {
+		return String.format("%-36s %9d %7d %9d %10.1f %10.1f %10.1f %10.1f", nom, durees.getNombre(), erreurs, lignes,
+				durees.getMoyenneMicros(), durees.getPercentileMicros(50), durees.getPercentileMicros(99),
+				durees.getMaxMicros());
+	}
+}
@@ -0,0 +1,64 @@
+package model;
+
+/**
+ * Interface JMX de {@link RegistreMetriques}, consultable par exemple avec
+ * JConsole ou VisualVM pendant un exercice.
+ */
+public interface RegistreMetriquesMBean {
+
+	/**
+	 * @return Les noms des méthodes mesurées, par ordre alphabétique.
+	 */
+	String[] getMethodes();
+
+	/**
+	 * @param methode Le nom de la méthode.
+	 * @return Le nombre d'appels mesurés.
+	 */
+	long getAppels(String methode);
+
+	/**
+	 * @param methode Le nom de la méthode.
+	 * @return Le nombre d'appels terminés par une erreur.
+	 */
+	long getErreurs(String methode);
+
+	/**
+	 * @param methode Le nom de la méthode.
+	 * @return Le nombre total de lignes renvoyées.
+	 */
+	long getLignes(String methode);
+
+	/**
+	 * @param methode    Le nom de la méthode.
+	 * @param percentile Le percentile, entre 0 et 100.
+	 * @return La durée d'appel du percentile, en microsecondes.
+	 */
+	double getPercentileMicros(String methode, double percentile);
+
+	/**
+	 * @return Les états SQL des erreurs rencontrées, par ordre alphabétique.
+	 */
+	String[] getEtatsErreurs();
+
+	/**
+	 * @param etat L'état SQL, par exemple {@code 40001} pour un interblocage.
+	 * @return Le nombre d'erreurs de cet état, toutes méthodes confondues.
+	 */
+	long getErreursEtat(String etat);
+
+	/**
+	 * @return Le 99e percentile de l'attente d'une connexion du pool, en microsecondes.
+	 */
+	double getAttenteConnexionP99Micros();
+
+	/**
+	 * @return Le tableau des mesures de toutes les méthodes.
+	 */
+	String rapport();
+
+	/**
+	 * Remet toutes les mesures à zéro.
+	 */
+	void reinitialiser();
+}
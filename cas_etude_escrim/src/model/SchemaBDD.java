@@ -0,0 +1,226 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Initialisation versionnée du schéma de la base de données.
+ * Chaque version est une liste d'instructions appliquées une seule fois, dans
+ * une transaction, et enregistrée dans la table {@code schema_version}.
+ */
+public final class SchemaBDD {
+
+	/**
+	 * Instructions de chaque version du schéma ; l'indice 0 correspond à la version 1.
+	 */
+	private static final String[][] VERSIONS = {
+			{
+					"CREATE TABLE IF NOT EXISTS personne (identifiant VARCHAR(100) PRIMARY KEY, prénom VARCHAR(50) NOT NULL, "
+							+ "nom VARCHAR(50) NOT NULL, date_naissance DATE NOT NULL, mdp VARCHAR(50) NOT NULL, statut VARCHAR(20) NOT NULL)",
+					"CREATE TABLE IF NOT EXISTS médicament (PRODUIT VARCHAR(100) NOT NULL, DCI VARCHAR(100), DOSAGE VARCHAR(50) NOT NULL, "
+							+ "DLU DATE NOT NULL, QUANTITÉ INT NOT NULL CHECK (QUANTITÉ >= 0), LOT VARCHAR(50), CLASSE VARCHAR(50), "
+							+ "NUM_CAISSE INT, CAISSE VARCHAR(50))",
+					"CREATE TABLE IF NOT EXISTS avion (NOM VARCHAR(100) PRIMARY KEY, CONSTRUCTEUR VARCHAR(100), TYPE_MOTEUR VARCHAR(50), "
+							+ "TYPE_DE_VOL VARCHAR(50), TONNE_MAX DOUBLE PRECISION, TAILLE_PORTE_CM VARCHAR(50), DIMENSIONS_SOUTE_CM VARCHAR(100), "
+							+ "VOLUME_UTILISABLE_M3 DOUBLE PRECISION, EXIGENCE_PISTE_M INT, PORTEE_CHARGE_KM INT, PORTEE_VIDE_KM INT, "
+							+ "VITESSE_CROISIERE_KMH INT, CONSOMMATION_CARBURANT_LH INT, POSITIONS_PALETTES INT, etat VARCHAR(20), "
+							+ "lieu_attentat VARCHAR(100), date_attentat DATE)",
+					"CREATE TABLE IF NOT EXISTS attentat (lieu VARCHAR(100) NOT NULL, Tot_blessés INT NOT NULL, Pers_à_soigner INT NOT NULL, "
+							+ "date_evenement DATE NOT NULL, PRIMARY KEY (lieu, date_evenement))",
+					"CREATE TABLE IF NOT EXISTS prescription (PRéNOM VARCHAR(50) NOT NULL, NOM VARCHAR(50) NOT NULL, Id_MEDECIN VARCHAR(100), "
+							+ "NOM_MEDICAMENT VARCHAR(300) NOT NULL, QUANTITÉ INT NOT NULL, DATE_PRESCRIPTION DATE NOT NULL, "
+							+ "lieu_Attentat VARCHAR(100), date_Attentat DATE)",
+					"CREATE INDEX IF NOT EXISTS idx_medicament_produit_dosage_dlu ON médicament (PRODUIT, DOSAGE, DLU)",
+					"CREATE INDEX IF NOT EXISTS idx_prescription_patient ON prescription (PRéNOM, NOM)",
+					"CREATE INDEX IF NOT EXISTS idx_attentat_lieu_date ON attentat (lieu, date_evenement)",
+					"CREATE INDEX IF NOT EXISTS idx_personne_identifiant_naissance ON personne (identifiant, date_naissance)" },
+			{
+					"ALTER TABLE médicament ADD COLUMN IF NOT EXISTS ID BIGINT GENERATED BY DEFAULT AS IDENTITY",
+					"CREATE UNIQUE INDEX IF NOT EXISTS idx_medicament_id ON médicament (ID)",
+					"ALTER TABLE prescription ADD COLUMN IF NOT EXISTS ID BIGINT GENERATED BY DEFAULT AS IDENTITY",
+					"CREATE UNIQUE INDEX IF NOT EXISTS idx_prescription_id ON prescription (ID)" },
+			{
+					"CREATE INDEX IF NOT EXISTS idx_medicament_produit_dci_dosage_quantite ON médicament (PRODUIT, DCI, DOSAGE, QUANTITÉ)" },
+			{
+					"ALTER TABLE médicament ADD COLUMN IF NOT EXISTS PRODUIT_MIN VARCHAR(100) GENERATED ALWAYS AS (LOWER(PRODUIT))",
+					"CREATE INDEX IF NOT EXISTS idx_medicament_produit_min ON médicament (PRODUIT_MIN, ID)",
+					"ALTER TABLE avion ADD COLUMN IF NOT EXISTS NOM_MIN VARCHAR(100) GENERATED ALWAYS AS (LOWER(NOM))",
+					"CREATE INDEX IF NOT EXISTS idx_avion_nom_min ON avion (NOM_MIN, NOM)",
+					"ALTER TABLE attentat ADD COLUMN IF NOT EXISTS LIEU_MIN VARCHAR(100) GENERATED ALWAYS AS (LOWER(lieu))",
+					"CREATE INDEX IF NOT EXISTS idx_attentat_lieu_min ON attentat (LIEU_MIN, date_evenement)",
+					"ALTER TABLE prescription ADD COLUMN IF NOT EXISTS NOM_MIN VARCHAR(50) GENERATED ALWAYS AS (LOWER(NOM))",
+					"CREATE INDEX IF NOT EXISTS idx_prescription_nom_min ON prescription (NOM_MIN, ID)" },
+			{
+					"CREATE INDEX IF NOT EXISTS idx_prescription_patient_id ON prescription (PRéNOM, NOM, ID)",
+					"DROP INDEX IF EXISTS idx_prescription_patient" },
+			{
+					"CREATE TABLE IF NOT EXISTS mouvement_stock (ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+							+ "MEDICAMENT_ID BIGINT NOT NULL, TYPE VARCHAR(20) NOT NULL, QUANTITÉ INT NOT NULL, ACTEUR VARCHAR(100), "
+							+ "PRESCRIPTION_ID BIGINT, DATE_MOUVEMENT TIMESTAMP NOT NULL)",
+					"CREATE INDEX IF NOT EXISTS idx_mouvement_medicament_date ON mouvement_stock (MEDICAMENT_ID, DATE_MOUVEMENT)",
+					"CREATE TABLE IF NOT EXISTS mouvement_a_projeter (MOUVEMENT_ID BIGINT PRIMARY KEY, "
+							+ "MEDICAMENT_ID BIGINT NOT NULL, QUANTITÉ INT NOT NULL)",
+					"CREATE INDEX IF NOT EXISTS idx_mouvement_a_projeter_medicament ON mouvement_a_projeter (MEDICAMENT_ID)",
+					"INSERT INTO mouvement_stock (MEDICAMENT_ID, TYPE, QUANTITÉ, DATE_MOUVEMENT) "
+							+ "SELECT ID, 'OUVERTURE', QUANTITÉ, CURRENT_TIMESTAMP FROM médicament" },
+			{
+					"CREATE INDEX IF NOT EXISTS idx_medicament_dlu ON médicament (DLU)",
+					"CREATE TABLE IF NOT EXISTS veille_peremption (HORIZON INT PRIMARY KEY, DLU_MAX DATE NOT NULL, ID_MAX BIGINT NOT NULL)",
+					"CREATE TABLE IF NOT EXISTS alerte_peremption (MEDICAMENT_ID BIGINT NOT NULL, HORIZON INT NOT NULL, "
+							+ "PRIMARY KEY (MEDICAMENT_ID, HORIZON))" },
+			{
+					"CREATE TABLE IF NOT EXISTS lot_a_veiller (MEDICAMENT_ID BIGINT PRIMARY KEY)",
+					"INSERT INTO lot_a_veiller (MEDICAMENT_ID) SELECT ID FROM médicament WHERE QUANTITÉ > 0",
+					"ALTER TABLE veille_peremption DROP COLUMN IF EXISTS ID_MAX" },
+			{
+					"CREATE TABLE IF NOT EXISTS prescription_refusee (ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+							+ "PRéNOM VARCHAR(50) NOT NULL, NOM VARCHAR(50) NOT NULL, Id_MEDECIN VARCHAR(100), "
+							+ "NOM_MEDICAMENT VARCHAR(300) NOT NULL, QUANTITÉ INT NOT NULL, DATE_PRESCRIPTION DATE NOT NULL, "
+							+ "lieu_Attentat VARCHAR(100), date_Attentat DATE, DATE_REFUS TIMESTAMP NOT NULL)" },
+			{
+					// Doublon de la clé primaire de avion, déjà utilisée pour les recherches par nom.
+					"DROP INDEX IF EXISTS idx_avion_nom" },
+	};
+
+	/**
+	 * Requêtes de {@link BDD} qui doivent passer par un index : ce sont les
+	 * constantes mêmes que BDD prépare, pour que la vérification porte sur le
+	 * texte exécuté. Les lectures de tables entières (listes complètes, stocks
+	 * bas) et la file de projection, lue dans n'importe quel ordre, n'y sont pas.
+	 */
+	private static final String[] REQUETES_INDEXEES = {
+			BDD.UTILISATEUR_PAR_IDENTIFIANT, BDD.UTILISATEUR_PAR_NOM, BDD.UTILISATEUR_ET_NAISSANCE,
+			BDD.MODIFICATION_MOT_DE_PASSE, BDD.STOCKS_PRODUIT, BDD.STOCK_DLU, BDD.LOTS_A_CORRIGER,
+			BDD.ENTREES_LOT_A_PROJETER, BDD.CORRECTION_LOT, BDD.LOT_EXISTE, BDD.SORTIE_TRANSFERT, BDD.STOCK_A_LA_DATE,
+			BDD.PROJECTION_LOT, BDD.AFFECTATION_AVION, BDD.LOT_PAR_NUMERO,
+			BDD.LOTS_PAR_PEREMPTION, BDD.SORTIE_LOT, BDD.PRODUITS_DELIVRABLES, BDD.LOTS_DELIVRABLES,
+			BDD.STOCK_DELIVRABLE, BDD.LOTS_A_DELIVRER, BDD.SOMME_STOCK, BDD.DLU_DELIVRABLES,
+			BDD.BLESSES_SOIGNES, BDD.PRESCRIPTIONS_PATIENT, BDD.PRESCRIPTION_EXISTE, BDD.MISE_EN_VEILLE,
+			BDD.FILIGRANE_PEREMPTION, BDD.ALERTES_DLU_FRANCHIES, BDD.ALERTE_LOT_VEILLE, BDD.AVANCEE_FILIGRANE,
+			BDD.PAGE_MEDICAMENTS_SUIVANTE, BDD.PAGE_MEDICAMENTS_PRECEDENTE, BDD.PAGE_AVIONS_SUIVANTE,
+			BDD.PAGE_AVIONS_PRECEDENTE, BDD.PAGE_PRESCRIPTIONS_SUIVANTE, BDD.PAGE_PRESCRIPTIONS_PRECEDENTE,
+			BDD.PAGE_PRESCRIPTIONS_PATIENT_SUIVANTE, BDD.PAGE_PRESCRIPTIONS_PATIENT_PRECEDENTE,
+			BDD.RECHERCHE_MEDICAMENTS, BDD.RECHERCHE_AVIONS, BDD.RECHERCHE_ATTENTATS, BDD.RECHERCHE_PRESCRIPTIONS };
+
+	/**
+	 * Début d'une table de modification ({@code FINAL TABLE (UPDATE ...)},
+	 * {@code OLD TABLE (DELETE ...)}) : EXPLAIN ne montre pas le plan de
+	 * l'instruction qu'elle enveloppe, qui est donc expliquée seule.
+	 */
+	private static final Pattern TABLE_DE_MODIFICATION = Pattern.compile("FROM (FINAL|OLD|NEW) TABLE \\(");
+
+	private SchemaBDD() {
+	}
+
+	/**
+	 * @return La version du schéma attendue par l'application.
+	 */
+	public static int versionCourante() {
+		return VERSIONS.length;
+	}
+
+	/**
+	 * Crée les tables, contraintes et index manquants en appliquant les versions
+	 * du schéma non encore enregistrées.
+	 *
+	 * @param connexion Une connexion en mode auto-commit.
+	 * @return La version du schéma après initialisation.
+	 * @throws SQLException Si une instruction échoue ; la version en cours est annulée.
+	 */
+	public static int initialiser(Connection connexion) throws SQLException {
+		try (Statement statement = connexion.createStatement()) {
+			statement.execute("CREATE TABLE IF NOT EXISTS schema_version (version INT PRIMARY KEY, "
+					+ "applique_le TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+		}
+		int version = lireVersion(connexion);
+		for (int v = version + 1; v <= VERSIONS.length; v++) {
+			connexion.setAutoCommit(false);
+			try (Statement statement = connexion.createStatement()) {
+				for (String instruction : VERSIONS[v - 1]) {
+					statement.execute(instruction);
+				}
+				statement.execute("INSERT INTO schema_version (version) VALUES (" + v + ")");
+				connexion.commit();
+			} catch (SQLException e) {
+				connexion.rollback();
+				throw e;
+			} finally {
+				connexion.setAutoCommit(true);
+			}
+			version = v;
+		}
+		return version;
+	}
+
+	/**
+	 * Vérifie avec EXPLAIN que chaque requête par clé ou par index de
+	 * {@link BDD} utilise un index plutôt qu'un parcours complet de table.
+	 *
+	 * @param connexion Une connexion sur un schéma initialisé.
+	 * @return Les requêtes qui parcourent une table, avec leur plan ; vide si toutes utilisent un index.
+	 * @throws SQLException Si une requête ne peut pas être expliquée.
+	 */
+	public static List<String> verifierIndex(Connection connexion) throws SQLException {
+		List<String> parcoursComplets = new ArrayList<>();
+		for (String requete : REQUETES_INDEXEES) {
+			Matcher modification = TABLE_DE_MODIFICATION.matcher(requete);
+			String expliquee = modification.find()
+					? requete.substring(modification.end(), requete.lastIndexOf(')'))
+					: requete;
+			try (PreparedStatement explain = connexion.prepareStatement("EXPLAIN " + expliquee)) {
+				for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+					explain.setNull(i, java.sql.Types.NULL);
+				}
+				try (ResultSet plan = explain.executeQuery()) {
+					plan.next();
+					String texte = plan.getString(1);
+					if (texte.contains(".tableScan")) {
+						parcoursComplets.add(requete + "\n" + texte);
+					}
+				}
+			}
+		}
+		return parcoursComplets;
+	}
+
+	private static int lireVersion(Connection connexion) throws SQLException {
+		try (Statement statement = connexion.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+			resultSet.next();
+			return resultSet.getInt(1);
+		}
+	}
+
+	/**
+	 * Initialise le schéma de la base configurée puis vérifie l'usage des index.
+	 * Le code de sortie est non nul si une requête parcourt une table.
+	 *
+	 * @param args Non utilisés.
+	 * @throws SQLException Si la base est inaccessible.
+	 */
+	public static void main(String[] args) throws SQLException {
+		PoolConnexions pool = BDD.openDBConnection();
+		Connection connexion = pool.emprunter();
+		try {
+			System.out.println("Schéma en version " + initialiser(connexion));
+			List<String> parcoursComplets = verifierIndex(connexion);
+			for (String parcours : parcoursComplets) {
+				System.out.println("Parcours complet de table :\n" + parcours);
+			}
+			if (!parcoursComplets.isEmpty()) {
+				System.exit(1);
+			}
+			System.out.println("Toutes les requêtes de recherche utilisent un index.");
+		} finally {
+			pool.rendre(connexion);
+			pool.fermer();
+		}
+	}
+}
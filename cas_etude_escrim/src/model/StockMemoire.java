@@ -0,0 +1,429 @@
+package model;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock en mémoire des médicaments prescrits, activé par la propriété
+ * {@code escrim.stock.memoire}. Pendant un afflux de blessés, quelques produits
+ * reçoivent presque toutes les prescriptions et chaque délivrance modifie la
+ * même ligne de {@code médicament} ; avec ce service, le stock de chaque
+ * (produit, dosage, DLU) prescrit est tenu dans un {@link CompteurStrie} et la
+ * délivrance se réserve en mémoire sans verrou. Les prescriptions d'un produit
+ * sans DLU précisée y sont aussi réservées, sur les DLU les plus proches
+ * d'abord : tant que le service est actif, il est seul à délivrer le stock.
+ *
+ * Les délivrances réservées sont écrites en base en différé, par lots, par un
+ * thread dédié ({@link BDD#enregistrerDelivrances(List)}) : une transaction par
+ * lot, une mise à jour par lot de médicament et par attentat. Le délai
+ * {@code escrim.stock.memoire.delai} (en ms) borne la durée pendant laquelle
+ * une délivrance confirmée n'est pas encore en base, et donc perdue en cas
+ * d'arrêt brutal ; un lot est écrit plus tôt dès que
+ * {@code escrim.stock.memoire.tailleLot} délivrances attendent. Au-delà de
+ * quatre lots en attente, les prescripteurs attendent que l'écriture les
+ * rattrape : le retard de la base reste borné même quand les délivrances
+ * arrivent plus vite qu'elle ne les écrit. Un prescripteur n'attend pas plus
+ * longtemps qu'une connexion du pool ; au-delà, sa réservation est rendue et
+ * la délivrance refusée ({@link #ECRITURE_EN_RETARD}), sans bloquer le
+ * thread appelant quand la base est injoignable. Pendant ce délai,
+ * {@link BDD#prescriptionExiste(String, String)} ne voit pas encore la
+ * prescription.
+ *
+ * Les autres écritures du stock (réceptions, transferts, corrections) restent
+ * en base ; le compteur d'un produit est recalé sur la base après chacune
+ * d'elles. Si une correction à la baisse ou un transfert a retiré du stock déjà
+ * réservé, les délivrances qui ne tiennent plus dans le stock en base sont
+ * refusées à l'écriture, comptées dans {@link #getRejets()}, enregistrées dans
+ * {@code prescription_refusee} et signalées au prescripteur par
+ * {@link EcouteurBDD#prescriptionRefusee}.
+ */
+public final class StockMemoire {
+	/**
+	 * Produit, dosage et DLU d'un stock tenu en mémoire.
+	 */
+	record Cle(String produit, String dosage, LocalDate dlu) {
+	}
+
+	/**
+	 * Quantité réservée sur le stock d'une DLU.
+	 */
+	record Reservation(Cle cle, int quantite) {
+	}
+
+	/**
+	 * Délivrance réservée en mémoire, en attente d'écriture en base, servie par
+	 * une ou plusieurs réservations : chacune est écrite comme une prescription
+	 * de sa DLU, comme le fait {@link BDD#delivrerPrescriptionParPeremption}.
+	 */
+	record Delivrance(String prenom, String nom, List<Reservation> reservations, String idMedecin,
+			String lieuAttentat, LocalDate dateAttentat, LocalDate date) {
+	}
+
+	/**
+	 * Stock d'un produit : le compteur des réservations, et ce que le thread
+	 * d'écriture sait de la base.
+	 */
+	private static final class Stock {
+		private final CompteurStrie compteur;
+		/** Somme des quantités en base, lue et modifiée par le seul thread d'écriture. */
+		private long connuEnBase;
+		/** Quantité retirée en base mais déjà réservée en mémoire, à déduire des prochains crédits. */
+		private long dette;
+		private volatile boolean modifieEnBase;
+
+		private Stock(long enBase) {
+			this.compteur = new CompteurStrie(enBase);
+			this.connuEnBase = enBase;
+		}
+	}
+
+	/** Valeur rendue par les délivrances refusées parce que l'écriture en base a trop de retard. */
+	public static final int ECRITURE_EN_RETARD = -2;
+
+	private final BDD bdd;
+	private final int tailleLot;
+	private final long attente;
+	private final Map<Cle, Stock> stocks = new ConcurrentHashMap<>();
+	/** DLU délivrables de chaque (produit, dosage), lues en base et oubliées quand une autre écriture modifie le produit. */
+	private final Map<Map.Entry<String, String>, List<LocalDate>> dlusParProduit = new ConcurrentHashMap<>();
+	private final Queue<Delivrance> enAttente = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger nombreEnAttente = new AtomicInteger();
+	private final AtomicBoolean ecritureDemandee = new AtomicBoolean();
+	private final Semaphore places;
+	private final List<Delivrance> aReessayer = new ArrayList<>();
+	private volatile int nombreAReessayer;
+	private final LongAdder ecrites = new LongAdder();
+	private final LongAdder rejets = new LongAdder();
+	private final ScheduledExecutorService planificateur;
+	private volatile Thread threadEcriture;
+
+	/**
+	 * Démarre le stock en mémoire d'une base.
+	 *
+	 * @param bdd       La base où les délivrances sont écrites.
+	 * @param delai     Le délai maximal avant l'écriture d'une délivrance, en ms.
+	 * @param tailleLot Le nombre de délivrances en attente qui déclenche une écriture anticipée.
+	 * @param attente   La durée maximale d'attente d'une place dans la file d'écriture, en ms.
+	 */
+	StockMemoire(BDD bdd, long delai, int tailleLot, long attente) {
+		this.bdd = bdd;
+		this.tailleLot = tailleLot;
+		this.attente = attente;
+		this.places = new Semaphore(4 * tailleLot);
+		this.planificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+			Thread thread = new Thread(tache, "escrim-stock-memoire");
+			thread.setDaemon(true);
+			threadEcriture = thread;
+			return thread;
+		});
+		planificateur.scheduleWithFixedDelay(this::ecrire, delai, delai, TimeUnit.MILLISECONDS);
+		bdd.ajouterEcouteur(new EcouteurBDD() {
+			@Override
+			public void stockModifie(String produit, String dosage) {
+				// Les écritures du service lui-même sont déjà dans les compteurs.
+				if (Thread.currentThread() != threadEcriture) {
+					dlusParProduit.remove(Map.entry(produit, dosage));
+					stocks.forEach((cle, stock) -> {
+						if (cle.produit().equals(produit) && cle.dosage().equals(dosage)) {
+							stock.modifieEnBase = true;
+						}
+					});
+				}
+			}
+		});
+	}
+
+	/**
+	 * Réserve une délivrance en mémoire et la met en attente d'écriture.
+	 *
+	 * @param prenom       Le prénom du patient.
+	 * @param nom          Le nom du patient.
+	 * @param produit      Le nom du médicament.
+	 * @param dosage       Le dosage du médicament.
+	 * @param dlu          La date limite d'utilisation du lot.
+	 * @param quantity     La quantité prescrite.
+	 * @param id_med       L'identifiant du médecin prescripteur.
+	 * @param lieuAttentat Le lieu de l'attentat.
+	 * @param dateAttentat La date de l'attentat.
+	 * @return Le stock restant, approché, -1 si le stock est insuffisant, ou
+	 *         {@link #ECRITURE_EN_RETARD} si l'écriture en base a trop de retard.
+	 * @throws SQLException Si le stock du produit n'a pas pu être lu en base.
+	 */
+	public int delivrer(String prenom, String nom, String produit, String dosage, LocalDate dlu, int quantity,
+			String id_med, String lieuAttentat, LocalDate dateAttentat) throws SQLException {
+		Cle cle = new Cle(produit, dosage, dlu);
+		Stock stock = stock(cle);
+		if (quantity <= 0 || !stock.compteur.reserver(quantity)) {
+			return -1;
+		}
+		if (!mettreEnAttente(new Delivrance(prenom, nom, List.of(new Reservation(cle, quantity)), id_med, lieuAttentat,
+				dateAttentat, LocalDate.now()))) {
+			return ECRITURE_EN_RETARD;
+		}
+		return (int) Math.min(Integer.MAX_VALUE, stock.compteur.total());
+	}
+
+	/**
+	 * Réserve une délivrance sur les DLU non périmées d'un produit, les plus
+	 * proches de la péremption d'abord, et la met en attente d'écriture. La
+	 * réservation est entière ou n'est pas faite.
+	 *
+	 * @param prenom       Le prénom du patient.
+	 * @param nom          Le nom du patient.
+	 * @param produit      Le nom du médicament.
+	 * @param dosage       Le dosage du médicament.
+	 * @param quantity     La quantité prescrite.
+	 * @param id_med       L'identifiant du médecin prescripteur.
+	 * @param lieuAttentat Le lieu de l'attentat.
+	 * @param dateAttentat La date de l'attentat.
+	 * @return Le stock délivrable restant, approché, -1 si le stock est insuffisant,
+	 *         ou {@link #ECRITURE_EN_RETARD} si l'écriture en base a trop de retard.
+	 * @throws SQLException Si les lots du produit n'ont pas pu être lus en base.
+	 */
+	public int delivrerParPeremption(String prenom, String nom, String produit, String dosage, int quantity,
+			String id_med, String lieuAttentat, LocalDate dateAttentat) throws SQLException {
+		if (quantity <= 0) {
+			return -1;
+		}
+		List<Stock> servis = new ArrayList<>();
+		List<Reservation> reservations = new ArrayList<>();
+		long reste = quantity;
+		long restant = 0;
+		for (LocalDate dlu : dlus(produit, dosage)) {
+			Cle cle = new Cle(produit, dosage, dlu);
+			Stock stock = stock(cle);
+			if (reste > 0) {
+				long pris = stock.compteur.retirer(reste);
+				if (pris > 0) {
+					servis.add(stock);
+					reservations.add(new Reservation(cle, (int) pris));
+					reste -= pris;
+				}
+			}
+			restant += stock.compteur.total();
+		}
+		if (reste > 0) {
+			for (int i = 0; i < servis.size(); i++) {
+				servis.get(i).compteur.crediter(reservations.get(i).quantite());
+			}
+			return -1;
+		}
+		if (!mettreEnAttente(new Delivrance(prenom, nom, reservations, id_med, lieuAttentat, dateAttentat,
+				LocalDate.now()))) {
+			return ECRITURE_EN_RETARD;
+		}
+		return (int) Math.min(Integer.MAX_VALUE, restant);
+	}
+
+	/**
+	 * @param produit Le nom du médicament.
+	 * @param dosage  Le dosage du médicament.
+	 * @param dlu     La date limite d'utilisation.
+	 * @return Le stock disponible en mémoire, tous lots confondus, ou -1 s'il n'a pas pu être lu en base.
+	 */
+	public int getStock(String produit, String dosage, LocalDate dlu) {
+		try {
+			return (int) Math.min(Integer.MAX_VALUE, stock(new Cle(produit, dosage, dlu)).compteur.total());
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return -1;
+		}
+	}
+
+	/**
+	 * @param produit Le nom du médicament.
+	 * @param dosage  Le dosage du médicament.
+	 * @return Le stock disponible en mémoire sur les DLU non périmées, ou -1 s'il n'a pas pu être lu en base.
+	 */
+	public int getStockDelivrable(String produit, String dosage) {
+		try {
+			long total = 0;
+			for (LocalDate dlu : dlus(produit, dosage)) {
+				total += stock(new Cle(produit, dosage, dlu)).compteur.total();
+			}
+			return (int) Math.min(Integer.MAX_VALUE, total);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return -1;
+		}
+	}
+
+	/**
+	 * @return Le nombre de délivrances confirmées pas encore écrites en base.
+	 */
+	public int getEnAttente() {
+		return nombreEnAttente.get() + nombreAReessayer;
+	}
+
+	/**
+	 * @return Le nombre de délivrances écrites en base.
+	 */
+	public long getEcrites() {
+		return ecrites.sum();
+	}
+
+	/**
+	 * @return Le nombre de délivrances refusées à l'écriture faute de stock en base.
+	 */
+	public long getRejets() {
+		return rejets.sum();
+	}
+
+	/**
+	 * Arrête l'écriture périodique puis écrit les délivrances restantes.
+	 */
+	public void arreter() {
+		planificateur.shutdown();
+		try {
+			planificateur.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		ecrire();
+	}
+
+	/**
+	 * Met une délivrance réservée en attente d'écriture, si une place se libère
+	 * dans le délai d'attente ; sinon rend ses réservations aux compteurs.
+	 *
+	 * @return true si la délivrance est en attente d'écriture, false si elle est refusée.
+	 */
+	private boolean mettreEnAttente(Delivrance delivrance) {
+		boolean place;
+		try {
+			place = places.tryAcquire(attente, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			place = false;
+		}
+		if (!place) {
+			for (Reservation reservation : delivrance.reservations()) {
+				stocks.get(reservation.cle()).compteur.crediter(reservation.quantite());
+			}
+			return false;
+		}
+		enAttente.add(delivrance);
+		if (nombreEnAttente.incrementAndGet() >= tailleLot && ecritureDemandee.compareAndSet(false, true)) {
+			planificateur.execute(this::ecrire);
+		}
+		return true;
+	}
+
+	/**
+	 * @return Les DLU non périmées du produit, de la plus proche à la plus lointaine.
+	 */
+	private List<LocalDate> dlus(String produit, String dosage) throws SQLException {
+		Map.Entry<String, String> cle = Map.entry(produit, dosage);
+		List<LocalDate> dlus = dlusParProduit.get(cle);
+		if (dlus == null) {
+			dlus = bdd.dluDelivrables(produit, dosage);
+			dlusParProduit.put(cle, dlus);
+		}
+		LocalDate aujourdhui = LocalDate.now();
+		return dlus.stream().filter(dlu -> !dlu.isBefore(aujourdhui)).toList();
+	}
+
+	private Stock stock(Cle cle) throws SQLException {
+		Stock stock = stocks.get(cle);
+		if (stock == null) {
+			Stock charge = new Stock(bdd.sommeStock(cle.produit(), cle.dosage(), cle.dlu()));
+			stock = stocks.putIfAbsent(cle, charge);
+			if (stock == null) {
+				stock = charge;
+			}
+		}
+		return stock;
+	}
+
+	/**
+	 * Écrit en base les délivrances en attente, par lots, puis recale les
+	 * compteurs des produits modifiés en base par d'autres écritures. Une
+	 * écriture en échec est retentée à l'écriture suivante.
+	 */
+	private synchronized void ecrire() {
+		ecritureDemandee.set(false);
+		boolean suite = true;
+		while (suite) {
+			List<Delivrance> lot = new ArrayList<>(aReessayer);
+			aReessayer.clear();
+			Delivrance delivrance;
+			while (lot.size() < tailleLot && (delivrance = enAttente.poll()) != null) {
+				nombreEnAttente.decrementAndGet();
+				lot.add(delivrance);
+			}
+			if (lot.isEmpty()) {
+				break;
+			}
+			boolean[] enregistrees = bdd.enregistrerDelivrances(lot);
+			if (enregistrees == null) {
+				aReessayer.addAll(lot);
+				break;
+			}
+			places.release(lot.size());
+			for (int i = 0; i < lot.size(); i++) {
+				for (Reservation reservation : lot.get(i).reservations()) {
+					Stock stock = stocks.get(reservation.cle());
+					if (enregistrees[i]) {
+						stock.connuEnBase -= reservation.quantite();
+					} else {
+						crediter(stock, reservation.quantite());
+						stock.modifieEnBase = true;
+					}
+				}
+				if (enregistrees[i]) {
+					ecrites.increment();
+				} else {
+					rejets.increment();
+				}
+			}
+			suite = lot.size() == tailleLot;
+		}
+		nombreAReessayer = aReessayer.size();
+		recaler();
+	}
+
+	private void recaler() {
+		for (Map.Entry<Cle, Stock> entree : stocks.entrySet()) {
+			Stock stock = entree.getValue();
+			if (!stock.modifieEnBase) {
+				continue;
+			}
+			stock.modifieEnBase = false;
+			Cle cle = entree.getKey();
+			try {
+				long enBase = bdd.sommeStock(cle.produit(), cle.dosage(), cle.dlu());
+				long ecart = enBase - stock.connuEnBase;
+				stock.connuEnBase = enBase;
+				if (ecart > 0) {
+					crediter(stock, ecart);
+				} else if (ecart < 0) {
+					stock.dette += -ecart - stock.compteur.retirer(-ecart);
+				}
+			} catch (SQLException e) {
+				e.printStackTrace();
+				stock.modifieEnBase = true;
+			}
+		}
+	}
+
+	private static void crediter(Stock stock, long quantite) {
+		long rembourse = Math.min(stock.dette, quantite);
+		stock.dette -= rembourse;
+		if (quantite > rembourse) {
+			stock.compteur.crediter(quantite - rembourse);
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Suivi de débogage des requêtes et des résultats JDBC ouverts, activé par la
+ * propriété système {@code escrim.bdd.debugFuites}. Les connexions du pool
+ * sont enveloppées pour enregistrer, à l'ouverture de chaque requête et de
+ * chaque résultat, la pile d'appel qui l'a ouvert.
+ *
+ * Quand une connexion est rendue au pool, tout résultat encore ouvert, et
+ * toute requête ouverte hors du cache de requêtes préparées, est une fuite :
+ * elle est comptée sous sa pile d'ouverture, affichée la première fois, puis
+ * fermée. Les nombres de ressources ouvertes doivent rester stables pendant
+ * un exercice ; ils sont consultables en JMX.
+ */
+public class SuiviFuites implements SuiviFuitesMBean {
+	private static final int PROFONDEUR_ORIGINE = 6;
+
+	/**
+	 * Ressource ouverte sur une connexion, avec sa pile d'ouverture.
+	 */
+	private static final class Ouverture {
+		private final Connection connexion;
+		private final Object cible;
+		private final Throwable origine;
+		private volatile boolean conservee;
+
+		private Ouverture(Connection connexion, Object cible, String message) {
+			this.connexion = connexion;
+			this.cible = cible;
+			this.origine = new Throwable(message);
+		}
+	}
+
+	private final Map<Object, Ouverture> requetes = new ConcurrentHashMap<>();
+	private final Map<Object, Ouverture> resultats = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> fuitesParOrigine = new ConcurrentHashMap<>();
+	private final LongAdder fuites = new LongAdder();
+
+	/**
+	 * Enveloppe une connexion physique pour suivre les requêtes qu'elle ouvre.
+	 *
+	 * @param connexion La connexion physique.
+	 * @return La connexion enveloppée, à utiliser à la place de l'originale.
+	 */
+	public Connection surveiller(Connection connexion) {
+		Connection[] enveloppe = new Connection[1];
+		enveloppe[0] = envelopper(Connection.class, connexion, (methode, resultat) -> {
+			if (resultat instanceof Statement) {
+				return suivre(requetes, enveloppe[0], methode.getReturnType(), resultat, "Requête ouverte ici et jamais fermée");
+			}
+			return resultat;
+		});
+		return enveloppe[0];
+	}
+
+	/**
+	 * Marque une requête comme conservée par le cache de requêtes préparées :
+	 * elle reste ouverte entre deux emprunts sans être une fuite.
+	 *
+	 * @param requete La requête renvoyée par le cache.
+	 */
+	public void conserver(Statement requete) {
+		Ouverture ouverture = requetes.get(requete);
+		if (ouverture != null) {
+			ouverture.conservee = true;
+		}
+	}
+
+	/**
+	 * Vérifie qu'aucune ressource n'est restée ouverte sur une connexion rendue
+	 * au pool, et ferme celles qui le sont.
+	 *
+	 * @param connexion La connexion rendue.
+	 */
+	public void verifier(Connection connexion) {
+		fermerFuites(resultats, connexion);
+		fermerFuites(requetes, connexion);
+	}
+
+	/**
+	 * Oublie les ressources d'une connexion fermée, fermées avec elle.
+	 *
+	 * @param connexion La connexion fermée.
+	 */
+	public void oublier(Connection connexion) {
+		resultats.values().removeIf(ouverture -> ouverture.connexion == connexion);
+		requetes.values().removeIf(ouverture -> ouverture.connexion == connexion);
+	}
+
+	@Override
+	public int getRequetesOuvertes() {
+		return requetes.size();
+	}
+
+	@Override
+	public int getResultatsOuverts() {
+		return resultats.size();
+	}
+
+	@Override
+	public int getRessourcesOuvertesMaxParConnexion() {
+		Map<Connection, Long> parConnexion = new ArrayList<>(requetes.values()).stream()
+				.collect(Collectors.groupingBy(ouverture -> ouverture.connexion, Collectors.counting()));
+		new ArrayList<>(resultats.values())
+				.forEach(ouverture -> parConnexion.merge(ouverture.connexion, 1L, Long::sum));
+		return parConnexion.values().stream().mapToInt(Long::intValue).max().orElse(0);
+	}
+
+	@Override
+	public long getFuites() {
+		return fuites.sum();
+	}
+
+	@Override
+	public String rapport() {
+		List<String> lignes = new ArrayList<>();
+		lignes.add(String.format("requêtes ouvertes %d, résultats ouverts %d, max par connexion %d, fuites %d",
+				getRequetesOuvertes(), getResultatsOuverts(), getRessourcesOuvertesMaxParConnexion(), getFuites()));
+		for (Map.Entry<String, LongAdder> entree : new TreeMap<>(fuitesParOrigine).entrySet()) {
+			lignes.add(entree.getValue().sum() + " fuite(s) : " + entree.getKey());
+		}
+		return String.join(System.lineSeparator(), lignes);
+	}
+
+	/**
+	 * Enregistre le suivi dans le serveur JMX de la plateforme.
+	 *
+	 * @param nom Le nom JMX, par exemple {@code escrim:type=BDD,name=Fuites}.
+	 */
+	public void exporterJmx(String nom) {
+		try {
+			ObjectName objectName = new ObjectName(nom);
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Enregistre une requête ou un résultat ouvert et l'enveloppe pour suivre
+	 * sa fermeture et, pour une requête, les résultats qu'elle ouvre.
+	 */
+	private Object suivre(Map<Object, Ouverture> ouvertes, Connection connexion, Class<?> type, Object cible,
+			String message) {
+		Object[] enveloppe = new Object[1];
+		enveloppe[0] = envelopper(type, cible, (methode, resultat) -> {
+			if ("close".equals(methode.getName())) {
+				ouvertes.remove(enveloppe[0]);
+			} else if (resultat instanceof ResultSet) {
+				return suivre(resultats, connexion, ResultSet.class, resultat, "Résultat ouvert ici et jamais fermé");
+			} else if (resultat instanceof Connection) {
+				return connexion;
+			}
+			return resultat;
+		});
+		ouvertes.put(enveloppe[0], new Ouverture(connexion, cible, message));
+		return enveloppe[0];
+	}
+
+	private void fermerFuites(Map<Object, Ouverture> ouvertes, Connection connexion) {
+		for (Map.Entry<Object, Ouverture> entree : ouvertes.entrySet()) {
+			Ouverture ouverture = entree.getValue();
+			if (ouverture.connexion != connexion || ouverture.conservee) {
+				continue;
+			}
+			ouvertes.remove(entree.getKey());
+			fuites.increment();
+			// La pile commence à l'appelant qui a ouvert la ressource, sans le suivi ni le proxy.
+			ouverture.origine.setStackTrace(Arrays.stream(ouverture.origine.getStackTrace())
+					.dropWhile(element -> element.getClassName().startsWith(SuiviFuites.class.getName())
+							|| element.getClassName().contains("$Proxy"))
+					.toArray(StackTraceElement[]::new));
+			String pile = ouverture.origine.getMessage() + System.lineSeparator()
+					+ Arrays.stream(ouverture.origine.getStackTrace()).limit(PROFONDEUR_ORIGINE)
+							.map(element -> "\tat " + element).collect(Collectors.joining(System.lineSeparator()));
+			if (fuitesParOrigine.computeIfAbsent(pile, cle -> new LongAdder()).sum() == 0) {
+				ouverture.origine.printStackTrace();
+			}
+			fuitesParOrigine.get(pile).increment();
+			try {
+				((AutoCloseable) ouverture.cible).close();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Traitement du résultat d'un appel délégué à l'objet enveloppé.
+	 */
+	private interface Suite {
+		Object apres(Method methode, Object resultat);
+	}
+
+	/**
+	 * Crée un proxy de l'interface JDBC qui délègue à la cible puis applique la
+	 * suite au résultat. L'égalité et le hachage sont ceux du proxy lui-même.
+	 */
+	private static <T> T envelopper(Class<T> type, Object cible, Suite suite) {
+		InvocationHandler gestionnaire = (proxy, methode, arguments) -> {
+			switch (methode.getName()) {
+			case "equals":
+				return arguments != null && arguments.length == 1 && proxy == arguments[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "unwrap":
+				if (((Class<?>) arguments[0]).isInstance(proxy)) {
+					return proxy;
+				}
+				break;
+			default:
+				break;
+			}
+			try {
+				return suite.apres(methode, methode.invoke(cible, arguments));
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		};
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, gestionnaire));
+	}
+}
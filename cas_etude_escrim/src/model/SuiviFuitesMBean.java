@@ -0,0 +1,34 @@
+package model;
+
+/**
+ * Interface JMX de {@link SuiviFuites}, à surveiller pendant un exercice
+ * pour vérifier que les ressources JDBC ouvertes restent stables.
+ */
+public interface SuiviFuitesMBean {
+
+	/**
+	 * @return Le nombre de requêtes actuellement ouvertes, y compris celles du
+	 *         cache de requêtes préparées.
+	 */
+	int getRequetesOuvertes();
+
+	/**
+	 * @return Le nombre de résultats actuellement ouverts.
+	 */
+	int getResultatsOuverts();
+
+	/**
+	 * @return Le plus grand nombre de requêtes et résultats ouverts sur une même connexion.
+	 */
+	int getRessourcesOuvertesMaxParConnexion();
+
+	/**
+	 * @return Le nombre de ressources trouvées ouvertes au retour de leur connexion au pool.
+	 */
+	long getFuites();
+
+	/**
+	 * @return Les compteurs et, pour chaque origine de fuite, sa pile d'ouverture.
+	 */
+	String rapport();
+}
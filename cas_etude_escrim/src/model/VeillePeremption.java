@@ -0,0 +1,68 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Veille périodique des péremptions. Un thread dédié relève les lots périmés
+ * et ceux qui le seront dans chaque horizon ({@code escrim.peremption.horizons},
+ * 7, 30 et 90 jours par défaut) par {@link BDD#veillerPeremptions(List)}, dès
+ * le démarrage puis toutes les {@code escrim.peremption.periode} ms.
+ *
+ * Chaque passage ne lit que les lots dont la DLU vient d'entrer dans un
+ * horizon, et ceux dont le stock a augmenté depuis le passage précédent ; le
+ * rapport est transmis aux écouteurs de la base
+ * ({@link EcouteurBDD#peremptionsVerifiees}), sur le thread de la veille.
+ */
+public final class VeillePeremption {
+	private final BDD bdd;
+	private final List<Integer> horizons;
+	private final ScheduledExecutorService planificateur;
+	private volatile RapportPeremption dernierRapport;
+
+	/**
+	 * Démarre la veille.
+	 *
+	 * @param bdd      La base veillée.
+	 * @param horizons Les horizons en jours.
+	 * @param periode  L'intervalle entre deux passages, en ms.
+	 */
+	public VeillePeremption(BDD bdd, List<Integer> horizons, long periode) {
+		this.bdd = bdd;
+		this.horizons = List.copyOf(horizons);
+		this.planificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+			Thread thread = new Thread(tache, "escrim-veille-peremption");
+			thread.setDaemon(true);
+			return thread;
+		});
+		planificateur.scheduleWithFixedDelay(this::verifier, 0, periode, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return Le rapport du dernier passage, ou null si aucun passage n'a encore abouti.
+	 */
+	public RapportPeremption getDernierRapport() {
+		return dernierRapport;
+	}
+
+	/**
+	 * Arrête la veille, après la fin du passage en cours.
+	 */
+	public void arreter() {
+		planificateur.shutdown();
+		try {
+			planificateur.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void verifier() {
+		RapportPeremption rapport = bdd.veillerPeremptions(horizons);
+		if (rapport != null) {
+			dernierRapport = rapport;
+		}
+	}
+}
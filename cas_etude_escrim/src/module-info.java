@@ -4,6 +4,9 @@ module cas_etude_escrim {
 	requires java.sql;
 	requires javafx.base;
 	requires javafx.graphics;
+	requires java.management;
+	requires jdk.management;
 	
+	exports model to java.management;
 	opens model to javafx.graphics, javafx.fxml;
 }
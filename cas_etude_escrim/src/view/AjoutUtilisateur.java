@@ -10,7 +10,6 @@ import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.text.Font;
@@ -139,14 +138,12 @@ public class AjoutUtilisateur extends Stage {
      */
 
     public void setupBackButton(GridPane grid) {
-    	ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-		imageView.setFitWidth(30);
-		imageView.setFitHeight(30);
+    	ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
 		Button backButton = new Button();
 		backButton.setGraphic(imageView);
 
-		Logiciel logiciel = new Logiciel(primaryStage);
+		Logiciel logiciel = RegistreVues.de(primaryStage).accueil();
 		backButton.setOnAction(event -> {
 			logiciel.afficheVueAccueil();
 			this.close();
@@ -3,6 +3,8 @@ package view;
 import java.sql.Date;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
@@ -11,7 +13,8 @@ import javafx.geometry.VPos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.shape.Line;
@@ -19,11 +22,14 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import model.BDD;
+import model.LignePrescription;
 
 /**
  * Classe représentant la vue du blessé.
  */
 public class BlesseView extends Stage {
+    /** Nombre de prescriptions lues par page dans la fiche. */
+    public static final int TAILLE_PAGE_PRESCRIPTIONS = 50;
 
     private Stage primaryStage;
     private Label ficheRenseignement;
@@ -44,7 +50,7 @@ public class BlesseView extends Stage {
         this.ficheRenseignement = new Label("Fiche Renseignements :");
         this.fichePatient = new Label("Fiche Patient :");
         this.titre = new Label();
-        this.bdd = new BDD();
+        this.bdd = BDD.getInstance();
     }
 
     /**
@@ -55,6 +61,22 @@ public class BlesseView extends Stage {
      * @param dateNaissance La date de naissance du blessé.
      */
     public void afficheVueBlesse(String prenom, String nom, Date dateNaissance) {
+        afficheVueBlesse(prenom, nom, dateNaissance, null);
+    }
+
+    /**
+     * Affiche la vue de la fiche du blessé avec une première page de
+     * prescriptions dont la lecture a déjà été lancée, par exemple pendant le
+     * message de connexion.
+     * 
+     * @param prenom        Le prénom du blessé.
+     * @param nom           Le nom du blessé.
+     * @param dateNaissance La date de naissance du blessé.
+     * @param premierePage  La lecture de la première page de prescriptions,
+     *                      terminée ou en cours, ou null.
+     */
+    public void afficheVueBlesse(String prenom, String nom, Date dateNaissance,
+            CompletableFuture<List<LignePrescription>> premierePage) {
         this.prenom = prenom;
         this.nom = nom;
         this.titre.setText("Fiche de " + prenom + " " + nom);
@@ -62,7 +84,7 @@ public class BlesseView extends Stage {
         String dateNaissanceFormatted = dateNaissance.toLocalDate().format(formatter);
 
         GridPane infosPane = createInfosPane(dateNaissanceFormatted);
-        GridPane patientPane = afficherPrescriptions(prenom, nom);
+        GridPane patientPane = afficherPrescriptions(prenom, nom, premierePage);
         Line line = createLine();
         GridPane mainPane = createMainPane(infosPane, patientPane, line);
         addTitleAndBackButton(mainPane);
@@ -91,9 +113,7 @@ public class BlesseView extends Stage {
         
         infosPane.add(ficheRenseignement, 0, 0, 2, 1); 
 
-        ImageView imagePersonne = new ImageView(new Image("file:ressources/personne.png"));
-        imagePersonne.setFitWidth(100);
-        imagePersonne.setFitHeight(100);
+        ImageView imagePersonne = Images.vue(Images.PERSONNE, 100, 100);
         GridPane.setColumnSpan(imagePersonne, GridPane.REMAINING);
         GridPane.setHalignment(imagePersonne, HPos.CENTER);
         infosPane.add(imagePersonne, 0, 1, 2, 1); 
@@ -114,50 +134,90 @@ public class BlesseView extends Stage {
     }
 
     /**
-     * Crée le panneau d'informations sur le patient et gère l'affichage de longs textes.
+     * Crée le panneau des prescriptions du patient. L'historique est affiché
+     * dans une liste virtualisée, qui ne crée de cellules que pour les
+     * prescriptions visibles, et lu page par page par clé au fil du défilement :
+     * le temps d'affichage et le nombre de nœuds ne dépendent pas de la longueur
+     * de l'historique.
      * 
+     * @param prenom Le prénom du patient.
+     * @param nom    Le nom du patient.
      * @return Le panneau d'informations sur le patient créé.
      */
     public GridPane afficherPrescriptions(String prenom, String nom) {
-        List<String[]> prescriptions = bdd.recupererPrescriptionsParPatient(prenom, nom);
+        return afficherPrescriptions(prenom, nom, null);
+    }
+
+    /**
+     * Crée le panneau des prescriptions du patient en commençant par une
+     * première page dont la lecture a déjà été lancée.
+     * 
+     * @param prenom       Le prénom du patient.
+     * @param nom          Le nom du patient.
+     * @param premierePage La lecture de la première page de
+     *                     {@link #TAILLE_PAGE_PRESCRIPTIONS} prescriptions,
+     *                     ou null pour la lire avec les suivantes.
+     * @return Le panneau d'informations sur le patient créé.
+     */
+    public GridPane afficherPrescriptions(String prenom, String nom,
+            CompletableFuture<List<LignePrescription>> premierePage) {
         GridPane patientPane = new GridPane();
         patientPane.setPadding(new Insets(10));
         patientPane.setVgap(10);
         patientPane.setHgap(5);
         patientPane.setPrefWidth(450);
         patientPane.setStyle("-fx-background-color: white;");
-        
-        for (String[] pres : prescriptions) {
-            String date = pres[0];
-            String medecin = pres[1];
-            String médicament = pres[2];
-            String quantite = pres[3];
-            String lieu = pres[4];
-            String dateAttentat = pres[5];
-            
-            fichePatient.setAlignment(Pos.CENTER);
-            fichePatient.setFont(new Font("Arial", 20.0));
-            fichePatient.setStyle("-fx-underline: true;");
-            GridPane.setMargin(patientPane, new Insets(50, 0, 200, 0));
-            patientPane.add(fichePatient, 0, 0);
-            
-            ImageView imageMedicament = new ImageView(new Image("file:ressources/Medicaments.png"));
-            imageMedicament.setFitWidth(100);
-            imageMedicament.setFitHeight(100);
-            GridPane.setColumnSpan(imageMedicament, GridPane.REMAINING);
-            GridPane.setHalignment(imageMedicament, HPos.CENTER);
-            patientPane.add(imageMedicament, 0, 1);
-            
-            Label presLabel = new Label("Date: " + date.strip() + "\nMédecin: " + medecin.strip()  + "\nMédicament: " + médicament.strip()  + "\nQuantité: " + quantite.strip()  + "\nLieu: " + lieu.strip()  + "\nDate Attentat: " + dateAttentat.strip() );
-            presLabel.setFont(Font.font("Arial", 14));
-            presLabel.setWrapText(true); 
-            presLabel.setMaxWidth(550);
-            patientPane.add(presLabel, 0, prescriptions.indexOf(pres)+4, 1, 1);
-        }
+
+        fichePatient.setAlignment(Pos.CENTER);
+        fichePatient.setFont(new Font("Arial", 20.0));
+        fichePatient.setStyle("-fx-underline: true;");
+        patientPane.add(fichePatient, 0, 0);
+
+        ImageView imageMedicament = Images.vue(Images.MEDICAMENTS, 100, 100);
+        GridPane.setHalignment(imageMedicament, HPos.CENTER);
+        patientPane.add(imageMedicament, 0, 1);
+
+        ListView<LignePrescription> liste = new ListView<>();
+        liste.setPrefSize(450, 320);
+        liste.setPlaceholder(new Label("Aucune prescription."));
+        liste.setCellFactory(vue -> new CellulePrescription());
+        patientPane.add(liste, 0, 2);
+
+        AtomicReference<CompletableFuture<List<LignePrescription>>> pageLancee = new AtomicReference<>(premierePage);
+        new TableauPagine<>(liste, (curseur, suivante, taille) -> {
+            CompletableFuture<List<LignePrescription>> page = pageLancee.getAndSet(null);
+            return page != null && curseur == 0L && suivante ? page.join()
+                    : bdd.recupererPagePrescriptionsPatient(prenom, nom, curseur, suivante, taille);
+        }, LignePrescription::id, 0L, TAILLE_PAGE_PRESCRIPTIONS, TableauPagine.PAGES_MAX);
 
         return patientPane;
     }
 
+    /**
+     * Cellule de la liste des prescriptions, réutilisée d'une prescription à
+     * l'autre au fil du défilement.
+     */
+    private static final class CellulePrescription extends ListCell<LignePrescription> {
+        private CellulePrescription() {
+            setFont(Font.font("Arial", 14));
+            setWrapText(true);
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(LignePrescription pres, boolean vide) {
+            super.updateItem(pres, vide);
+            if (vide || pres == null) {
+                setText(null);
+                return;
+            }
+            setText("Date: " + pres.datePrescription() + "\nMédecin: " + String.valueOf(pres.idMedecin()).strip()
+                    + "\nMédicament: " + String.valueOf(pres.nomMedicament()).strip() + "\nQuantité: "
+                    + pres.quantite() + "\nLieu: " + String.valueOf(pres.lieuAttentat()).strip()
+                    + "\nDate Attentat: " + pres.dateAttentat());
+        }
+    }
+
     /**
      * Crée une ligne pour séparer les panneaux.
      * 
@@ -207,15 +267,13 @@ public class BlesseView extends Stage {
      * @param mainPane Le panneau principal.
      */
     public void addTitleAndBackButton(GridPane mainPane) {
-        ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-        imageView.setFitWidth(30);
-        imageView.setFitHeight(30);
+        ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
         Button backButton = new Button();
         backButton.setGraphic(imageView);
 
         backButton.setOnAction(event -> {
-            new Logiciel(primaryStage).afficheVueAccueil();
+            RegistreVues.de(primaryStage).accueil().afficheVueAccueil();
             this.close();
         });
 
@@ -8,7 +8,6 @@ import javafx.scene.control.Button;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.text.Font;
@@ -135,9 +134,7 @@ public class ChangerMdp extends Stage {
 	 * @param grid Le GridPane auquel ajouter le bouton de retour.
 	 */
 	public void addBackButtonToGrid(GridPane grid) {
-		ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-		imageView.setFitWidth(30);
-		imageView.setFitHeight(30);
+		ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
 		Button backButton = new Button();
 		backButton.setGraphic(imageView);
@@ -0,0 +1,52 @@
+package view;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.scene.control.TableColumn;
+
+/**
+ * Fabrique des colonnes de TableView liées aux champs des lignes typées
+ * renvoyées par la base de données.
+ */
+final class Colonnes {
+	private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+	private Colonnes() {
+	}
+
+	/**
+	 * Crée une colonne affichant un champ sous forme de texte.
+	 *
+	 * @param <T>    Le type des lignes de la table.
+	 * @param titre  Le titre de la colonne.
+	 * @param valeur L'accesseur du champ affiché.
+	 * @return La colonne créée.
+	 */
+	static <T> TableColumn<T, String> texte(String titre, Function<T, ?> valeur) {
+		TableColumn<T, String> column = new TableColumn<>(titre);
+		column.setCellValueFactory(cellData -> {
+			Object contenu = valeur.apply(cellData.getValue());
+			return new SimpleStringProperty(contenu == null ? "" : contenu.toString());
+		});
+		column.setPrefWidth(200);
+		return column;
+	}
+
+	/**
+	 * Crée une colonne affichant une date au format jj/mm/aaaa.
+	 *
+	 * @param <T>    Le type des lignes de la table.
+	 * @param titre  Le titre de la colonne.
+	 * @param valeur L'accesseur de la date affichée.
+	 * @return La colonne créée.
+	 */
+	static <T> TableColumn<T, String> date(String titre, Function<T, LocalDate> valeur) {
+		return texte(titre, ligne -> {
+			LocalDate date = valeur.apply(ligne);
+			return date == null ? null : FORMAT_DATE.format(date);
+		});
+	}
+}
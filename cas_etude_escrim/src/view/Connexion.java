@@ -8,7 +8,6 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.Image;
 import javafx.scene.layout.GridPane;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
@@ -122,14 +121,12 @@ public class Connexion extends Stage {
         GridPane.setMargin(motDePasseOublie, new Insets(10, 0, 0, 100));
         grid.add(motDePasseOublie, 1, 3);
 
-        ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-        imageView.setFitWidth(30);
-        imageView.setFitHeight(30);
+        ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
         Button backButton = new Button();
         backButton.setGraphic(imageView);
 
-        Logiciel logiciel = new Logiciel(primaryStage);
+        Logiciel logiciel = RegistreVues.de(primaryStage).accueil();
         backButton.setOnAction(event -> {
             logiciel.afficheVueAccueil();
             close();
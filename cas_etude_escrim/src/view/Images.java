@@ -0,0 +1,60 @@
+package view;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.stage.Screen;
+
+/**
+ * Cache des images de l'interface. Chaque image est lue et décodée une seule
+ * fois par taille d'affichage, directement à cette taille (multipliée par
+ * l'échelle de l'écran), puis partagée par toutes les vues : les changements
+ * d'écran et l'affichage des fiches ne relisent plus les fichiers.
+ */
+public final class Images {
+	/** La flèche des boutons de retour. */
+	public static final String FLECHE = "flèche.png";
+	/** L'illustration des médicaments. */
+	public static final String MEDICAMENTS = "Medicaments.png";
+	/** La silhouette de la fiche du blessé. */
+	public static final String PERSONNE = "personne.png";
+	/** L'illustration de la page d'accueil. */
+	public static final String ATTENTAT = "attentat.jpg";
+
+	private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
+	private Images() {
+	}
+
+	/**
+	 * Renvoie une image des ressources décodée à la taille où elle est affichée.
+	 *
+	 * @param fichier Le nom du fichier dans le répertoire des ressources.
+	 * @param largeur La largeur d'affichage.
+	 * @param hauteur La hauteur d'affichage.
+	 * @return L'image partagée.
+	 */
+	public static Image image(String fichier, double largeur, double hauteur) {
+		return images.computeIfAbsent(fichier + "@" + largeur + "x" + hauteur, cle -> {
+			double echelle = Screen.getPrimary().getOutputScaleX();
+			return new Image("file:ressources/" + fichier, largeur * echelle, hauteur * echelle, false, true);
+		});
+	}
+
+	/**
+	 * Crée un affichage d'une image des ressources à la taille donnée.
+	 *
+	 * @param fichier Le nom du fichier dans le répertoire des ressources.
+	 * @param largeur La largeur d'affichage.
+	 * @param hauteur La hauteur d'affichage.
+	 * @return L'affichage, qui partage l'image décodée.
+	 */
+	public static ImageView vue(String fichier, double largeur, double hauteur) {
+		ImageView vue = new ImageView(image(fichier, largeur, hauteur));
+		vue.setFitWidth(largeur);
+		vue.setFitHeight(hauteur);
+		return vue;
+	}
+}
@@ -6,14 +6,16 @@ import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
+import model.Demarrage;
 
 /**
  * La classe Logiciel représente le logiciel principal de l'application ESCRIM.
@@ -22,10 +24,11 @@ import javafx.stage.Stage;
 public class Logiciel {
     private Stage stage;
     private Label bienvenue;
-    private Image imagePresentation;
     private ImageView vueImage;
     private Button boutonIdentifier;
     private Button boutonAjouterUtilisateur;
+    private Label etatBase;
+    private ProgressIndicator indicateurBase;
 
     /**
      * Constructeur de la classe Logiciel.
@@ -35,15 +38,18 @@ public class Logiciel {
     public Logiciel(Stage secondaryStage) {
         this.stage = secondaryStage;
         bienvenue = new Label("Bienvenue sur le logiciel d'ESCRIM ! ");
-        imagePresentation = new Image("file:ressources/attentat.jpg");
-        vueImage = new ImageView(imagePresentation);
+        vueImage = Images.vue(Images.ATTENTAT, 400.0, 200.0);
         boutonIdentifier = new Button("S'identifier");
         boutonAjouterUtilisateur = new Button("Créer un nouvel utilisateur");
+        etatBase = new Label("Connexion à la base de données...");
+        indicateurBase = Occupation.creerIndicateur();
     }
 
     /**
      * Affiche la page d'accueil de l'application.
      * Cette méthode configure les éléments de l'interface utilisateur et les ajoute à la scène.
+     * Tant que la base est en préparation au démarrage, son état est affiché et
+     * les boutons qui y accèdent sont désactivés.
      */
     public void afficheVueAccueil() {
         stage.setTitle("Page d'accueil ESCRIM");
@@ -57,9 +63,6 @@ public class Logiciel {
         grid.setVgap(30.0);
         grid.setHgap(50.0);
 
-        vueImage.setFitWidth(400.0);
-        vueImage.setFitHeight(200.0);
-
         bienvenue.setFont(Font.font("Arial", FontWeight.BOLD, 50.0));
         bienvenue.setTextFill(Color.WHITE);
         GridPane.setMargin(bienvenue, new Insets(50, 0, 0, 0));
@@ -81,10 +84,31 @@ public class Logiciel {
             allerVueAjoutUtilisateur();
         });
 
+        etatBase.setFont(new Font("Arial", 15.0));
+        etatBase.setTextFill(Color.WHITE);
+        HBox etat = new HBox(10.0, indicateurBase, etatBase);
+        etat.setAlignment(Pos.CENTER);
+        grid.add(etat, 0, 12);
+
         root.setCenter(grid);
         Scene scene = new Scene(root, 1000.0, 600.0);
         stage.setScene(scene);
         stage.show();
+
+        Occupation.pendant(Demarrage.preparerBase(), indicateurBase, boutonIdentifier, boutonAjouterUtilisateur)
+                .thenAccept(this::afficherEtatBase);
+    }
+
+    /**
+     * Affiche l'état de la base à la fin de sa préparation : rien si elle est
+     * prête, un message d'erreur sinon.
+     *
+     * @param prete Si la base est prête.
+     */
+    public void afficherEtatBase(boolean prete) {
+        etatBase.setText(prete ? "" : "Base de données injoignable.");
+        etatBase.setTextFill(Color.RED);
+        etatBase.setVisible(!prete);
     }
 
     /**
@@ -1,58 +1,82 @@
 package view;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import control.ServiceNavigation;
+import control.SessionController;
 import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Spinner;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import model.BDD;
+import model.BDDAsynchrone;
+import model.EcouteurBDD;
+import model.LigneAvion;
+import model.LigneMedicament;
+import model.LigneAttentat;
+import model.LigneStockBas;
+import model.RapportPeremption;
+import model.VeillePeremption;
 
 /**
  * Classe représentant la vue du logisticien.
+ * Tant que l'écran d'accueil est affiché, la vue écoute les écritures de
+ * {@link BDD} et ne met à jour que les messages de stock bas des produits modifiés.
  */
-public class LogisticienView extends Stage {
+public class LogisticienView extends Stage implements EcouteurBDD {
+
+	/** Quantité totale en dessous de laquelle un produit est signalé en stock bas. */
+	public static final int SEUIL_STOCK_BAS = 10;
 
 	private Label errorLabel; 
 	private Stage primaryStage;
-	private final String[] nomsColonnes = { "PRODUIT", "DCI", "DOSAGE", "DLU", "QUANTITÉ", "LOT", "CLASSE",
-			"NUM_CAISSE", "CAISSE" };
-	private final String[] nomsColonnesAvions = { "NOM", "CONSTRUCTEUR", "TYPE_MOTEUR", "TYPE_DE_VOL", "TONNE_MAX",
-			"TAILLE_PORTE_CM", "DIMENSIONS_SOUTE_CM", "VOLUME_UTILISABLE_M3", "EXIGENCE_PISTE_M", "PORTEE_CHARGE_KM",
-			"PORTEE_VIDE_KM", "VITESSE_CROISIERE_KMH", "CONSOMMATION_CARBURANT_LH", "POSITIONS_PALETTES", "etat",
-			"lieu_attentat", "date_attentat" };
 	private final BDD bdd;
-	private ObservableList<String[]> stocksMedicaments;
-	private ObservableList<String[]> stocksAvion;
-	private List<String> produit;
-	private List<String> dci;
-	private List<String> dosage;
+	private final BDDAsynchrone bddAsynchrone;
+	private GridPane panneauAccueil;
+	private Label nouveauxMessagesLabel;
+	private Label badgePeremption;
+	private final Map<ProduitStock, MessageStockBas> messagesStocksBas = new LinkedHashMap<>();
+	/** Produits et dosages déjà relus après une écriture, que la première lecture ne doit plus écraser. */
+	private final Set<Map.Entry<String, String>> produitsActualises = new HashSet<>();
+	private int prochaineLigneMessage;
+
+	/**
+	 * Produit suivi par un message de stock bas.
+	 */
+	private record ProduitStock(String produit, String dci, String dosage) {
+		private static ProduitStock de(LigneStockBas stock) {
+			return new ProduitStock(stock.produit(), stock.dci(), stock.dosage());
+		}
+	}
+
+	/**
+	 * Contrôles d'un message de stock bas affiché sur l'écran d'accueil.
+	 */
+	private record MessageStockBas(Label label, Spinner<Integer> spinner, Button bouton) {
+	}
 
 	/**
 	 * Constructeur de la vue du logisticien.
@@ -61,27 +85,59 @@ public class LogisticienView extends Stage {
 	 */
 	public LogisticienView(Stage primaryStage) {
 		this.primaryStage = primaryStage;
-		this.bdd = new BDD();
-		this.produit = new ArrayList<>();
-		this.dci = new ArrayList<>();
-		this.dosage = new ArrayList<>();
+		this.bdd = BDD.getInstance();
+		this.bddAsynchrone = BDDAsynchrone.getInstance();
 		errorLabel = new Label(); 
 		errorLabel.setTextFill(Color.RED); 
 	}
 
 	/**
-	 * Affiche la vue du logisticien.
+	 * Affiche la vue du logisticien. Les stocks sont lus en arrière-plan et les
+	 * messages de stock bas ajoutés à la fin de la lecture ; ils sont ensuite
+	 * tenus à jour produit par produit.
 	 */
 	public void afficheVueLogisticien() {
+		afficheVueLogisticien(bddAsynchrone.recupererStocksBas(SEUIL_STOCK_BAS));
+	}
+
+	/**
+	 * Affiche la vue du logisticien avec des stocks bas dont la lecture a déjà
+	 * été lancée, par exemple pendant le message de connexion. Le badge des
+	 * péremptions reprend le dernier passage de la veille, sans requête sur le
+	 * thread JavaFX, puis suit les passages suivants.
+	 *
+	 * @param stocksBas La lecture des stocks bas, terminée ou en cours.
+	 */
+	public void afficheVueLogisticien(CompletableFuture<List<LigneStockBas>> stocksBas) {
 		GridPane mainPane = createMainPane();
 		mainPane.getChildren().clear();
 		addBackButton(mainPane);
 
-		List<String[]> stocksMedicamentsList = bdd.recupererStocksMedicaments();
-		Map<String, Integer> stockGrouped = groupStocksByProduct(stocksMedicamentsList);
-		List<String> lowStockMessages = generateLowStockMessages(stockGrouped);
-
-		displayLowStockMessages(mainPane, lowStockMessages);
+		panneauAccueil = mainPane;
+		messagesStocksBas.clear();
+		produitsActualises.clear();
+		prochaineLigneMessage = 20;
+		nouveauxMessagesLabel = new Label("Nouveaux messages:");
+		nouveauxMessagesLabel.setFont(Font.font("Arial", 18));
+		nouveauxMessagesLabel.setStyle("-fx-underline: true;");
+		nouveauxMessagesLabel.setVisible(false);
+		GridPane.setMargin(nouveauxMessagesLabel, new Insets(10));
+		badgePeremption = new Label();
+		badgePeremption.setStyle("-fx-background-color: #c0392b; -fx-text-fill: white; -fx-font-size: 9pt; -fx-background-radius: 10; -fx-padding: 3 8 3 8;");
+		badgePeremption.setVisible(false);
+		mainPane.add(badgePeremption, 80, 5);
+		GridPane.setHalignment(badgePeremption, HPos.RIGHT);
+		VeillePeremption veille = bdd.getVeillePeremption();
+		afficherPeremptions(veille == null ? null : veille.getDernierRapport());
+		bdd.ajouterEcouteur(this);
+
+		ProgressIndicator indicateur = Occupation.creerIndicateur();
+		mainPane.add(indicateur, 0, 1);
+		Occupation.pendant(stocksBas, indicateur).thenAccept(stocksBasList -> {
+			mainPane.getChildren().remove(indicateur);
+			mainPane.add(nouveauxMessagesLabel, 0, 1);
+			displayLowStockMessages(mainPane, stocksBasList);
+		});
 
 		addButton(mainPane);
 
@@ -89,20 +145,20 @@ public class LogisticienView extends Stage {
 	}
 
 	/**
-	 * Affiche la vue des stocks de médicaments.
+	 * Affiche la vue des stocks de médicaments. Les lots sont chargés page par
+	 * page au fil du défilement.
 	 */
 	public void afficheVueStocksMedicaments() {
-		List<String[]> stocksMedicamentsList = bdd.recupererStocksMedicaments();
-		stocksMedicaments = FXCollections.observableArrayList(stocksMedicamentsList);
-
 		GridPane mainPane = new GridPane();
 		mainPane.setAlignment(Pos.CENTER);
 		mainPane.setPadding(new Insets(10));
 
-		TableView<String[]> table = createTableView();
+		TableView<LigneMedicament> table = createTableView();
 		mainPane.add(table, 0, 1);
+		TableauPagine<LigneMedicament, Long> stocksMedicaments = new TableauPagine<>(table,
+				bdd::recupererPageMedicaments, LigneMedicament::id, 0L);
 
-		TextField searchField = createSearchField(table);
+		TextField searchField = createSearchField(stocksMedicaments);
 		mainPane.add(searchField, 0, 0);
 
 		Button backButton = createBackButton();
@@ -112,21 +168,20 @@ public class LogisticienView extends Stage {
 	}
 	
 	/**
-	 * Affiche la vue des stocks d'avion.
+	 * Affiche la vue des stocks d'avion, chargés page par page au fil du défilement.
 	 */
 
 	public void afficheVueStocksAvion() {
-		List<String[]> stocksAvionList = bdd.recupererStocksAvions();
-		stocksAvion = FXCollections.observableArrayList(stocksAvionList);
-
 		GridPane mainPane = new GridPane();
 		mainPane.setAlignment(Pos.CENTER);
 		mainPane.setPadding(new Insets(10));
 
-		TableView<String[]> table = createTableViewAvion();
+		TableView<LigneAvion> table = createTableViewAvion();
 		mainPane.add(table, 0, 1);
+		TableauPagine<LigneAvion, String> stocksAvion = new TableauPagine<>(table, bdd::recupererPageAvions,
+				LigneAvion::nom, "");
 
-		TextField searchField = createSearchFieldAvion(table);
+		TextField searchField = createSearchFieldAvion(stocksAvion);
 		mainPane.add(searchField, 0, 0);
 
 		Button backButton = createBackButton();
@@ -197,6 +252,7 @@ public class LogisticienView extends Stage {
 		Button validerButton = new Button("Valider");
 		validerButton.setStyle(
 				"-fx-background-color: linear-gradient(#8a2be2, #9370db);-fx-pref-width: 75px;-fx-pref-height: 2px; -fx-text-fill: white; -fx-font-size: 8pt; -fx-background-radius: 5; -fx-padding: 5");
+		ProgressIndicator indicateur = Occupation.creerIndicateur();
 		validerButton.setOnAction(e -> {
 			String etat = etatComboBox.getSelectionModel().getSelectedItem();
 			
@@ -213,23 +269,16 @@ public class LogisticienView extends Stage {
 
 			if (validateFieldsAvion(etat, avionUt, etatAvion, infoAttentat, errorLabel)) {
 
-				if (bdd.updateAvion(nomAvion, etat, lieuAttentat, dateAttentat)) {
-					successLabel.setText("Mise à jour de l'avion réussie");
-					gridPane.add(successLabel, 0, 7, 2, 1); 
-					new Thread(() -> {
-						try {
-							Thread.sleep(2000);
-							Platform.runLater(() -> {
-								popupStage.close();
-								afficheVueLogisticien(); 
-							});
-						} catch (InterruptedException ex) {
-							ex.printStackTrace();
-						}
-					}).start();
-				} else {
-					errorLabel.setText("Échec de la mise à jour de l'avion.");
-				}
+				Occupation.pendant(bddAsynchrone.updateAvion(nomAvion, etat, lieuAttentat, dateAttentat), indicateur,
+						validerButton).thenAccept(misAJour -> {
+					if (misAJour) {
+						successLabel.setText("Mise à jour de l'avion réussie");
+						gridPane.add(successLabel, 0, 7, 2, 1); 
+						ServiceNavigation.apres(ServiceNavigation.DELAI_CONFIRMATION, popupStage::close);
+					} else {
+						errorLabel.setText("Échec de la mise à jour de l'avion.");
+					}
+				});
 			}}else {
 				
 				String lieuAttentat = "null";
@@ -238,27 +287,20 @@ public class LogisticienView extends Stage {
 
 				if (validateFieldsAviondisp(etat, avionUt, etatAvion, errorLabel)) {
 
-					if (bdd.updateAvion(nomAvion, etat, lieuAttentat, dateAttentat)) {
-						successLabel.setText("Mise à jour de l'avion réussie");
-						gridPane.add(successLabel, 0, 7, 2, 1); 
-						new Thread(() -> {
-							try {
-								Thread.sleep(2000);
-								Platform.runLater(() -> {
-									popupStage.close();
-									afficheVueLogisticien(); 
-								});
-							} catch (InterruptedException ex) {
-								ex.printStackTrace();
-							}
-						}).start();
-					} else {
-						errorLabel.setText("Échec de la mise à jour de l'avion.");
-					}
+					Occupation.pendant(bddAsynchrone.updateAvion(nomAvion, etat, lieuAttentat, dateAttentat),
+							indicateur, validerButton).thenAccept(misAJour -> {
+						if (misAJour) {
+							successLabel.setText("Mise à jour de l'avion réussie");
+							gridPane.add(successLabel, 0, 7, 2, 1); 
+							ServiceNavigation.apres(ServiceNavigation.DELAI_CONFIRMATION, popupStage::close);
+						} else {
+							errorLabel.setText("Échec de la mise à jour de l'avion.");
+						}
+					});
 			}}
 		});
 
-		gridPane.addRow(6, validerButton);
+		gridPane.addRow(6, validerButton, indicateur);
 		popupStage.setScene(new Scene(gridPane, 450, 350)); 
 		popupStage.showAndWait();
 	}
@@ -270,14 +312,15 @@ public class LogisticienView extends Stage {
 	 * 
 	 * @param comboBox La ComboBox à remplir avec les informations sur les attentats.
 	 * 
-	 * @see BaseDeDonnees#recupererListeAttentat()
+	 * @see BDD#recupererAttentatsEnCache()
 	 */
 
 	private void populateAttentatComboBox(ComboBox<String> comboBox) {
-		List<String[]> attentat = bdd.recupererListeAttentat();
-		for (String[] Attentat : attentat) {
-			comboBox.getItems().add(Attentat[0].trim() + " ; " + Attentat[3].trim());
-		}
+		Occupation.pendant(bddAsynchrone.recupererAttentatsEnCache(), null, comboBox).thenAccept(attentat -> {
+			for (LigneAttentat Attentat : attentat) {
+				comboBox.getItems().add(Attentat.lieu() + " ; " + Attentat.dateEvenement());
+			}
+		});
 	}
 
 	/**
@@ -288,14 +331,15 @@ public class LogisticienView extends Stage {
 	 * 
 	 * @param comboBox La ComboBox à remplir avec les informations sur les avions.
 	 * 
-	 * @see BaseDeDonnees#recupererStocksAvions()
+	 * @see BDD#recupererAvionsEnCache()
 	 */
 
 	private void populateAvionComboBox(ComboBox<String> comboBox) {
-		List<String[]> avion = bdd.recupererStocksAvions();
-		for (String[] Avion : avion) {
-			comboBox.getItems().add(Avion[0].trim() + " ; " + Avion[14].trim());
-		}
+		Occupation.pendant(bddAsynchrone.recupererAvionsEnCache(), null, comboBox).thenAccept(avion -> {
+			for (LigneAvion Avion : avion) {
+				comboBox.getItems().add(Avion.nom() + " ; " + Avion.etat());
+			}
+		});
 	}
 
 	/**
@@ -366,49 +410,37 @@ public class LogisticienView extends Stage {
 		return true;
 	}
 	/**
-	 * Filtre les données dans le tableau en fonction du texte saisi.
+	 * Filtre les données dans le tableau en fonction du texte saisi : les lots
+	 * dont le produit commence par ce texte sont recherchés en base par index.
 	 *
 	 * @param searchText Le texte saisi dans le champ de recherche.
-	 * @param table      Le tableau à filtrer.
+	 * @param table      Le tableau paginé à filtrer.
 	 */
-	public void filterTable(String searchText, TableView<String[]> table) {
-		if (stocksMedicaments == null) {
-			return;
-		}
-
+	public void filterTable(String searchText, TableauPagine<LigneMedicament, Long> table) {
 		if (searchText == null || searchText.isEmpty()) {
-			table.setItems(stocksMedicaments);
+			table.recharger();
 			return;
 		}
 
-		List<String[]> filteredList = stocksMedicaments.stream()
-				.filter(row -> row[0].toLowerCase().contains(searchText.toLowerCase())).collect(Collectors.toList());
-
-		table.setItems(FXCollections.observableArrayList(filteredList));
+		table.rechercher(() -> bdd.rechercherMedicaments(searchText, TableauPagine.TAILLE_PAGE));
 	}
 
 	/**
 	 * Filtrer les données de la table des avions en fonction du texte de recherche.
-	 * Cette méthode filtre les données de la table des avions en fonction du texte de recherche spécifié.
+	 * Cette méthode affiche les avions dont le nom commence par le texte de recherche spécifié,
+	 * recherchés en base par index.
 	 * 
 	 * @param searchText Le texte à rechercher dans les données de la table.
 	 * @param table La table des avions à filtrer.
 	 */
 
-	public void filterTableAvion(String searchText, TableView<String[]> table) {
-		if (stocksAvion == null) {
-			return;
-		}
-
+	public void filterTableAvion(String searchText, TableauPagine<LigneAvion, String> table) {
 		if (searchText == null || searchText.isEmpty()) {
-			table.setItems(stocksAvion);
+			table.recharger();
 			return;
 		}
 
-		List<String[]> filteredList = stocksAvion.stream()
-				.filter(row -> row[0].toLowerCase().contains(searchText.toLowerCase())).collect(Collectors.toList());
-
-		table.setItems(FXCollections.observableArrayList(filteredList));
+		table.rechercher(() -> bdd.rechercherAvions(searchText, TableauPagine.TAILLE_PAGE));
 	}
 
 	/**
@@ -430,15 +462,14 @@ public class LogisticienView extends Stage {
 	 * @param mainPane Le panneau principal où ajouter le bouton de retour.
 	 */
 	public void addBackButton(GridPane mainPane) {
-		ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-		imageView.setFitWidth(30);
-		imageView.setFitHeight(30);
+		ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
 		Button backButton = new Button();
 		backButton.setGraphic(imageView);
 
-		Logiciel logiciel = new Logiciel(primaryStage);
+		Logiciel logiciel = RegistreVues.de(primaryStage).accueil();
 		backButton.setOnAction(event -> {
+			bdd.retirerEcouteur(this);
 			logiciel.afficheVueAccueil();
 			this.close();
 		});
@@ -449,79 +480,132 @@ public class LogisticienView extends Stage {
 	}
 
 	/**
-	 * Regroupe les stocks de médicaments par produit.
+	 * Génère le message d'un produit en stock bas.
 	 *
-	 * @param stocksMedicamentsList La liste des stocks de médicaments.
-	 * @return Une map contenant les stocks groupés par produit.
-	 */
-	public Map<String, Integer> groupStocksByProduct(List<String[]> stocksMedicamentsList) {
-		Map<String, Integer> stockGrouped = new HashMap<>();
-		for (String[] medicament : stocksMedicamentsList) {
-			String key = medicament[0].trim() + "-" + medicament[1].trim() + "-" + medicament[2].trim();
-			int quantite = Integer.parseInt(medicament[4]);
-			stockGrouped.merge(key, quantite, Integer::sum);
-		}
-		return stockGrouped;
+	 * @param stockBas Le produit dont le stock cumulé est sous le seuil.
+	 * @return Le message de stock bas.
+	 */
+	public String generateLowStockMessage(LigneStockBas stockBas) {
+		int a = SEUIL_STOCK_BAS - stockBas.quantiteTotale();
+		return "• Il manque au stock au moins " + a + " " + stockBas.produit() + " avec un dosage de "
+				+ stockBas.dosage();
 	}
 
 	/**
-	 * Génère les messages de stock bas.
+	 * Affiche les messages de stock bas dans le panneau principal. Un produit
+	 * déjà relu après une écriture garde son message, plus récent que cette
+	 * lecture.
 	 *
-	 * @param stockGrouped La map contenant les stocks groupés par produit.
-	 * @return Une liste de messages de stock bas.
-	 */
-	public List<String> generateLowStockMessages(Map<String, Integer> stockGrouped) {
-		List<String> lowStockMessages = new ArrayList<>();
-		for (Map.Entry<String, Integer> entry : stockGrouped.entrySet()) {
-			if (entry.getValue() < 10) {
-				int a = 10 - entry.getValue();
-				String[] keyParts = entry.getKey().split("-");
-				produit.add(keyParts[0]);
-				dci.add(keyParts[1]);
-				dosage.add(keyParts[2]);
-				String message = "• Il manque au stock au moins " + a + " " + keyParts[0] + " avec un dosage de "
-						+ keyParts[2];
-				lowStockMessages.add(message);
+	 * @param mainPane      Le panneau principal où afficher les messages.
+	 * @param stocksBasList Les produits dont le stock cumulé est sous le seuil.
+	 */
+	public void displayLowStockMessages(GridPane mainPane, List<LigneStockBas> stocksBasList) {
+		for (LigneStockBas stockBas : stocksBasList) {
+			if (!produitsActualises.contains(Map.entry(stockBas.produit(), stockBas.dosage()))) {
+				afficherStockBas(mainPane, stockBas);
 			}
 		}
-		return lowStockMessages;
+		nouveauxMessagesLabel.setVisible(!messagesStocksBas.isEmpty());
 	}
 
 	/**
-	 * Affiche les messages de stock bas dans le panneau principal.
-	 *
-	 * @param mainPane         Le panneau principal où afficher les messages.
-	 * @param lowStockMessages La liste de messages de stock bas.
-	 */
-	public void displayLowStockMessages(GridPane mainPane, List<String> lowStockMessages) {
-		if (!lowStockMessages.isEmpty()) {
-			Label nouveauxMessagesLabel = new Label("Nouveaux messages:");
-			nouveauxMessagesLabel.setFont(Font.font("Arial", 18));
-			nouveauxMessagesLabel.setStyle("-fx-underline: true;");
-			mainPane.add(nouveauxMessagesLabel, 0, 1);
-			GridPane.setMargin(nouveauxMessagesLabel, new Insets(10));
+	 * Met à jour le message d'un produit en stock bas, ou l'ajoute à la suite
+	 * des messages affichés.
+	 */
+	private void afficherStockBas(GridPane mainPane, LigneStockBas stockBas) {
+		ProduitStock produit = ProduitStock.de(stockBas);
+		MessageStockBas affiche = messagesStocksBas.get(produit);
+		if (affiche != null) {
+			affiche.label().setText(generateLowStockMessage(stockBas));
+			return;
+		}
+		Label messageLabel = new Label(generateLowStockMessage(stockBas));
+		messageLabel.setTextFill(Color.RED);
+		messageLabel.setWrapText(true);
+		mainPane.add(messageLabel, 0, prochaineLigneMessage);
+		GridPane.setMargin(messageLabel, new Insets(5, 10, 5, 10));
 
-			int rowIndex = 20;
+		Spinner<Integer> quantitySpinner = createQuantitySpinner();
+		mainPane.add(quantitySpinner, 1, prochaineLigneMessage);
 
-			for (int i = 0; i < lowStockMessages.size(); i++) {
-				String message = lowStockMessages.get(i);
-				Label messageLabel = new Label(message);
-				messageLabel.setTextFill(Color.RED);
-				messageLabel.setWrapText(true);
-				mainPane.add(messageLabel, 0, rowIndex);
-				GridPane.setMargin(messageLabel, new Insets(5, 10, 5, 10));
+		Button orderButton = createOrderButton(stockBas, quantitySpinner);
+		mainPane.add(orderButton, 2, prochaineLigneMessage);
 
-				Spinner<Integer> quantitySpinner = createQuantitySpinner();
-				mainPane.add(quantitySpinner, 1, rowIndex);
+		setButtonLayout(quantitySpinner, orderButton);
+		messagesStocksBas.put(produit, new MessageStockBas(messageLabel, quantitySpinner, orderButton));
+		prochaineLigneMessage++;
+	}
 
-				Button orderButton = createOrderButton(message, quantitySpinner, i); // Pass current index
-				mainPane.add(orderButton, 2, rowIndex);
+	/**
+	 * Relit en base le stock cumulé du produit modifié, si l'écran d'accueil
+	 * est affiché, pour mettre à jour ses seuls messages.
+	 */
+	@Override
+	public void stockModifie(String produit, String dosage) {
+		Platform.runLater(() -> {
+			GridPane mainPane = panneauAccueil;
+			if (mainPane == null || mainPane.getScene() != primaryStage.getScene()) {
+				return;
+			}
+			bddAsynchrone.recupererStocksProduit(produit, dosage).thenAccept(stocks -> {
+				if (mainPane == panneauAccueil) {
+					actualiserStocksBas(mainPane, produit, dosage, stocks);
+				}
+			});
+		});
+	}
 
-				setButtonLayout(quantitySpinner, orderButton);
+	/**
+	 * Met à jour le badge des péremptions de l'écran d'accueil après un passage
+	 * de la veille, appelé sur le thread de la veille.
+	 */
+	@Override
+	public void peremptionsVerifiees(RapportPeremption rapport) {
+		Platform.runLater(() -> afficherPeremptions(rapport));
+	}
 
-				rowIndex++;
+	/**
+	 * Affiche dans le badge les lots périmés et à périmer, ou le masque s'il n'y
+	 * en a aucun.
+	 */
+	private void afficherPeremptions(RapportPeremption rapport) {
+		if (badgePeremption == null) {
+			return;
+		}
+		if (rapport == null || !rapport.aSignaler()) {
+			badgePeremption.setVisible(false);
+			return;
+		}
+		StringBuilder texte = new StringBuilder("Péremptions : " + rapport.perimes() + " lot(s) périmé(s)");
+		rapport.aPerimer().forEach((horizon, lots) -> texte.append(" · ").append(lots).append(" sous ").append(horizon).append(" j"));
+		badgePeremption.setText(texte.toString());
+		badgePeremption.setVisible(true);
+	}
+
+	/**
+	 * Remplace les messages d'un produit et d'un dosage par son stock relu :
+	 * les DCI passées au-dessus du seuil perdent leur message, les autres sont
+	 * mises à jour ou ajoutées.
+	 */
+	private void actualiserStocksBas(GridPane mainPane, String produit, String dosage, List<LigneStockBas> stocks) {
+		produitsActualises.add(Map.entry(produit, dosage));
+		messagesStocksBas.entrySet().removeIf(entree -> {
+			ProduitStock suivi = entree.getKey();
+			boolean toujoursBas = stocks.stream().anyMatch(stock -> ProduitStock.de(stock).equals(suivi)
+					&& stock.quantiteTotale() < SEUIL_STOCK_BAS);
+			if (suivi.produit().equals(produit) && suivi.dosage().equals(dosage) && !toujoursBas) {
+				MessageStockBas message = entree.getValue();
+				mainPane.getChildren().removeAll(message.label(), message.spinner(), message.bouton());
+				return true;
+			}
+			return false;
+		});
+		for (LigneStockBas stock : stocks) {
+			if (stock.quantiteTotale() < SEUIL_STOCK_BAS) {
+				afficherStockBas(mainPane, stock);
 			}
 		}
+		nouveauxMessagesLabel.setVisible(!messagesStocksBas.isEmpty());
 	}
 
 	/**
@@ -546,11 +630,11 @@ public class LogisticienView extends Stage {
 	/**
 	 * Crée un bouton de commande.
 	 *
-	 * @param message         Le message associé à la commande.
+	 * @param stockBas        Le produit en stock bas à commander.
 	 * @param quantitySpinner Le spinner de quantité associé à la commande.
 	 * @return Le bouton de commande créé.
 	 */
-	public Button createOrderButton(String message, Spinner<Integer> quantitySpinner, int index) {
+	public Button createOrderButton(LigneStockBas stockBas, Spinner<Integer> quantitySpinner) {
 		Button orderButton = new Button("Buy");
 		orderButton.setOnAction(event -> {
 			int quantity = quantitySpinner.getValue();
@@ -585,6 +669,7 @@ public class LogisticienView extends Stage {
 			Button validerButton = new Button("Valider");
 			validerButton.setStyle(
 					"-fx-background-color: linear-gradient(#8a2be2, #9370db);-fx-pref-width: 75px;-fx-pref-height: 2px; -fx-text-fill: white; -fx-font-size: 8pt; -fx-background-radius: 5; -fx-padding: 5");
+			ProgressIndicator indicateur = Occupation.creerIndicateur();
 			validerButton.setOnAction(e -> {
 				LocalDate dateLimite = datePicker.getValue();
 				String lot = lotTextField.getText();
@@ -594,30 +679,21 @@ public class LogisticienView extends Stage {
 
 				if (validerChampsMed(dateLimite, lot, numCaisseStr, classe, caisse, errorLabel)) {
 					int numCaisse = Integer.parseInt(numCaisseStr); 
-					String produit = this.produit.get(index);
-					String dci = this.dci.get(index);
-					String dosage = this.dosage.get(index);
-
-					bdd.insererMedicament(produit, dci, dosage, dateLimite, quantity, lot, classe, numCaisse, caisse);
-
-					successLabel.setText("Ajout du médicament " + produit + " réussi");
-					gridPane.add(successLabel, 0, 7, 2, 1); 
-
-					new Thread(() -> {
-						try {
-							Thread.sleep(2000);
-							Platform.runLater(() -> {
-								popupStage.close();
-								afficheVueLogisticien(); 
-							});
-						} catch (InterruptedException ex) {
-							ex.printStackTrace();
-						}
-					}).start();
+					String produit = stockBas.produit();
+					String dci = stockBas.dci();
+					String dosage = stockBas.dosage();
+
+					Occupation.pendant(bddAsynchrone.insererMedicament(produit, dci, dosage, dateLimite, quantity, lot,
+							classe, numCaisse, caisse, SessionController.getInstance().getUserId()), indicateur, validerButton).thenRun(() -> {
+						successLabel.setText("Ajout du médicament " + produit + " réussi");
+						gridPane.add(successLabel, 0, 7, 2, 1); 
+
+						ServiceNavigation.apres(ServiceNavigation.DELAI_CONFIRMATION, popupStage::close);
+					});
 				}
 			});
 
-			gridPane.addRow(6, validerButton);
+			gridPane.addRow(6, validerButton, indicateur);
 			popupStage.setScene(new Scene(gridPane, 450, 350)); 
 			popupStage.showAndWait();
 		});
@@ -767,6 +843,7 @@ public class LogisticienView extends Stage {
 		Button validerButton = new Button("Valider");
 		validerButton.setStyle(
 				"-fx-background-color: linear-gradient(#8a2be2, #9370db);-fx-pref-width: 75px;-fx-pref-height: 2px; -fx-text-fill: white; -fx-font-size: 8pt; -fx-background-radius: 5; -fx-padding: 5");
+		ProgressIndicator indicateur = Occupation.creerIndicateur();
 		validerButton.setOnAction(e -> {
 			LocalDate dateAttentat = dateAttentatTextField.getValue();
 			String lieu = lieuTextField.getText();
@@ -777,26 +854,17 @@ public class LogisticienView extends Stage {
 				int totBlesses = Integer.parseInt(totBlessesStr);
 				int nbAsoigner = Integer.parseInt(nbAsoignerStr);
 
-				bdd.insererAttentat(lieu, totBlesses, nbAsoigner, dateAttentat);
+				Occupation.pendant(bddAsynchrone.insererAttentat(lieu, totBlesses, nbAsoigner, dateAttentat), indicateur,
+						validerButton).thenRun(() -> {
+					successLabel.setText("Ajout de l'attentat à " + lieu + " réussi");
+					gridPane.add(successLabel, 0, 6, 2, 1); 
 
-				successLabel.setText("Ajout de l'attentat à " + lieu + " réussi");
-				gridPane.add(successLabel, 0, 6, 2, 1); 
-
-				new Thread(() -> {
-					try {
-						Thread.sleep(2000);
-						Platform.runLater(() -> {
-							popupStage.close();
-							afficheVueLogisticien(); 
-						});
-					} catch (InterruptedException ex) {
-						ex.printStackTrace();
-					}
-				}).start();
+					ServiceNavigation.apres(ServiceNavigation.DELAI_CONFIRMATION, popupStage::close);
+				});
 			}
 		});
 
-		gridPane.addRow(5, validerButton);
+		gridPane.addRow(5, validerButton, indicateur);
 		popupStage.setScene(new Scene(gridPane, 450, 350)); 
 		popupStage.showAndWait();
 	}
@@ -866,25 +934,19 @@ public class LogisticienView extends Stage {
 	 *
 	 * @return Le TableView créé.
 	 */
-	public TableView<String[]> createTableView() {
-		TableView<String[]> table = new TableView<>();
-		for (int i = 0; i < 9; i++) {
-			TableColumn<String[], String> column = new TableColumn<>(nomsColonnes[i]);
-			int columnIndex = i;
-			if (i == 3) {
-				DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-				column.setCellValueFactory(cellData -> new SimpleStringProperty(
-						formatter.format(LocalDate.parse(cellData.getValue()[columnIndex]))));
-			} else {
-				column.setCellValueFactory(
-						cellData -> new SimpleStringProperty(cellData.getValue()[columnIndex].trim()));
-			}
-
-			column.setPrefWidth(200);
-
-			table.getColumns().add(column);
-		}
-		table.getItems().addAll(stocksMedicaments);
+	public TableView<LigneMedicament> createTableView() {
+		TableView<LigneMedicament> table = new TableView<>();
+		List<TableColumn<LigneMedicament, String>> colonnes = List.of(
+				Colonnes.texte("PRODUIT", LigneMedicament::produit),
+				Colonnes.texte("DCI", LigneMedicament::dci),
+				Colonnes.texte("DOSAGE", LigneMedicament::dosage),
+				Colonnes.date("DLU", LigneMedicament::dlu),
+				Colonnes.texte("QUANTITÉ", LigneMedicament::quantite),
+				Colonnes.texte("LOT", LigneMedicament::lot),
+				Colonnes.texte("CLASSE", LigneMedicament::classe),
+				Colonnes.texte("NUM_CAISSE", LigneMedicament::numCaisse),
+				Colonnes.texte("CAISSE", LigneMedicament::caisse));
+		table.getColumns().addAll(colonnes);
 		return table;
 	}
 
@@ -895,19 +957,27 @@ public class LogisticienView extends Stage {
 	 * @return              La TableView créée pour afficher les informations des avions.
 	 */
 	
-	public TableView<String[]> createTableViewAvion() {
-		TableView<String[]> table = new TableView<>();
-		for (int i = 0; i < 17; i++) {
-			TableColumn<String[], String> column = new TableColumn<>(nomsColonnesAvions[i]);
-			int columnIndex = i;
-
-			column.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue()[columnIndex].trim()));
-
-			column.setPrefWidth(200);
-
-			table.getColumns().add(column);
-		}
-		table.getItems().addAll(stocksAvion);
+	public TableView<LigneAvion> createTableViewAvion() {
+		TableView<LigneAvion> table = new TableView<>();
+		List<TableColumn<LigneAvion, String>> colonnes = List.of(
+				Colonnes.texte("NOM", LigneAvion::nom),
+				Colonnes.texte("CONSTRUCTEUR", LigneAvion::constructeur),
+				Colonnes.texte("TYPE_MOTEUR", LigneAvion::typeMoteur),
+				Colonnes.texte("TYPE_DE_VOL", LigneAvion::typeDeVol),
+				Colonnes.texte("TONNE_MAX", LigneAvion::tonneMax),
+				Colonnes.texte("TAILLE_PORTE_CM", LigneAvion::taillePorteCm),
+				Colonnes.texte("DIMENSIONS_SOUTE_CM", LigneAvion::dimensionsSouteCm),
+				Colonnes.texte("VOLUME_UTILISABLE_M3", LigneAvion::volumeUtilisableM3),
+				Colonnes.texte("EXIGENCE_PISTE_M", LigneAvion::exigencePisteM),
+				Colonnes.texte("PORTEE_CHARGE_KM", LigneAvion::porteeChargeKm),
+				Colonnes.texte("PORTEE_VIDE_KM", LigneAvion::porteeVideKm),
+				Colonnes.texte("VITESSE_CROISIERE_KMH", LigneAvion::vitesseCroisiereKmh),
+				Colonnes.texte("CONSOMMATION_CARBURANT_LH", LigneAvion::consommationCarburantLh),
+				Colonnes.texte("POSITIONS_PALETTES", LigneAvion::positionsPalettes),
+				Colonnes.texte("etat", LigneAvion::etat),
+				Colonnes.texte("lieu_attentat", LigneAvion::lieuAttentat),
+				Colonnes.texte("date_attentat", LigneAvion::dateAttentat));
+		table.getColumns().addAll(colonnes);
 		return table;
 	}
 
@@ -915,10 +985,10 @@ public class LogisticienView extends Stage {
 	 * Crée et retourne un champ de recherche pour filtrer les données dans le
 	 * TableView spécifié.
 	 *
-	 * @param table Le TableView à filtrer.
+	 * @param table Le TableView paginé à filtrer.
 	 * @return Le champ de recherche créé.
 	 */
-	public TextField createSearchField(TableView<String[]> table) {
+	public TextField createSearchField(TableauPagine<LigneMedicament, Long> table) {
 		TextField searchField = new TextField();
 		searchField.setPromptText("Rechercher un médicament");
 
@@ -937,11 +1007,11 @@ public class LogisticienView extends Stage {
 	 * Crée un champ de recherche pour filtrer les données dans une TableView d'avions.
 	 * Cette méthode crée un champ de texte où l'utilisateur peut saisir du texte pour filtrer les données affichées dans une TableView d'avions.
 	 *
-	 * @param table         La TableView d'avions à filtrer.
+	 * @param table         La TableView paginée d'avions à filtrer.
 	 * @return              Le champ de recherche créé.
 	 */
 
-	public TextField createSearchFieldAvion(TableView<String[]> table) {
+	public TextField createSearchFieldAvion(TableauPagine<LigneAvion, String> table) {
 		TextField searchField = new TextField();
 		searchField.setPromptText("Rechercher un Avion");
 
@@ -962,9 +1032,7 @@ public class LogisticienView extends Stage {
 	 * @return Le bouton de retour créé.
 	 */
 	public Button createBackButton() {
-		ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-		imageView.setFitWidth(30);
-		imageView.setFitHeight(30);
+		ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
 		Button backButton = new Button();
 		backButton.setGraphic(imageView);
@@ -1,16 +1,18 @@
 package view;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
+import control.ServiceNavigation;
 import control.SessionController;
 import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
@@ -19,7 +21,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.HPos;
@@ -29,24 +30,24 @@ import javafx.geometry.VPos;
 import javafx.scene.control.Spinner;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import model.BDD;
+import model.BDDAsynchrone;
+import model.EcouteurBDD;
+import model.LigneAttentat;
+import model.LignePrescription;
 
 /**
  * Classe représentant la vue du logisticien.
  */
-public class MedecinView extends Stage {
+public class MedecinView extends Stage implements EcouteurBDD {
 
 	private Label errorLabel; // To display error messages
 	private Stage primaryStage;
-	private final String[] nomsColonnes = { "Lieu", "Tot_blesses", "Pers_à_soigner", "date_evenement" };
-	private final String[] nomsColonnesPres = { "prénom", "nom", "ID_MEDECIN ", "nom_medicament ", "quantité ", "date_prescription ", "lieu_Attentat ", "date_Attentat" };
 	private final BDD bdd;
-	private ObservableList<String[]> listeAttentats;
-	private ObservableList<String[]> prescriptionList;
-	
-	private final BlesseView BV;
+	private final BDDAsynchrone bddAsynchrone;
+	private ObservableList<LigneAttentat> listeAttentats;
+	private String rechercheAttentats = "";
 	
 	/**
 	 * Constructeur de la vue du logisticien.
@@ -55,8 +56,8 @@ public class MedecinView extends Stage {
 	 */
 	public MedecinView(Stage primaryStage) {
 		this.primaryStage = primaryStage;
-		this.bdd = new BDD();
-		this.BV = new BlesseView(primaryStage);
+		this.bdd = BDD.getInstance();
+		this.bddAsynchrone = BDDAsynchrone.getInstance();
 		
 		errorLabel = new Label(); // Initialize the error label
 		errorLabel.setTextFill(Color.RED); // Set error text color
@@ -80,28 +81,46 @@ public class MedecinView extends Stage {
 		mainPane.add(titleLabel, 0, 5); 
 		GridPane.setHalignment(titleLabel, HPos.CENTER);
 		GridPane.setMargin(titleLabel, new Insets(0, 0, 0, 0)); 
-		ImageView imageMedicament = new ImageView(new Image("file:ressources/Medicaments.png"));
-		imageMedicament.setFitWidth(200);
-		imageMedicament.setFitHeight(200);
+		ImageView imageMedicament = Images.vue(Images.MEDICAMENTS, 200, 200);
 		GridPane.setColumnSpan(imageMedicament, GridPane.REMAINING);
 		GridPane.setHalignment(imageMedicament, HPos.CENTER);
 		mainPane.add(imageMedicament, 0, 10);
+		mainPane.add(errorLabel, 0, 12);
+		GridPane.setColumnSpan(errorLabel, GridPane.REMAINING);
+		bdd.ajouterEcouteur(this);
 		showScene(mainPane, "Interface du médecin");
 	}
 
 	/**
-	 * Affiche la vue des stocks de médicaments.
+	 * Signale au médecin connecté une de ses prescriptions confirmée puis
+	 * refusée à l'écriture faute de stock, appelé sur le thread d'écriture.
 	 */
-	public void afficheVueListesAttentats() {
-		List<String[]> AttentatsList = bdd.recupererListeAttentat();
-		listeAttentats = FXCollections.observableArrayList(AttentatsList);
+	@Override
+	public void prescriptionRefusee(LignePrescription prescription) {
+		if (!Objects.equals(prescription.idMedecin(), SessionController.getInstance().getUserId())) {
+			return;
+		}
+		Platform.runLater(() -> errorLabel.setText("Prescription refusée faute de stock : " + prescription.prenom() + " "
+				+ prescription.nom() + ", " + prescription.quantite() + " x " + prescription.nomMedicament()));
+	}
 
+	/**
+	 * Affiche la vue de la liste des attentats. La liste est lue en
+	 * arrière-plan et la table remplie à la fin de la lecture.
+	 */
+	public void afficheVueListesAttentats() {
 		GridPane mainPane = new GridPane();
 		mainPane.setAlignment(Pos.CENTER);
 		mainPane.setPadding(new Insets(10));
 
-		TableView<String[]> table = createTableView();
+		TableView<LigneAttentat> table = createTableView();
+		table.setPlaceholder(new ProgressIndicator());
 		mainPane.add(table, 0, 1);
+		bddAsynchrone.recupererAttentatsEnCache().thenAccept(AttentatsList -> {
+			listeAttentats = FXCollections.observableArrayList(AttentatsList);
+			table.setPlaceholder(new Label("Aucun attentat"));
+			table.setItems(listeAttentats);
+		});
 
 		TextField searchField = createSearchField(table);
 		mainPane.add(searchField, 0, 0);
@@ -114,24 +133,22 @@ public class MedecinView extends Stage {
 
 	/**
 	 * Affiche la vue de la liste des prescriptions.
-	 * Cette méthode récupère la liste des prescriptions depuis la base de données, crée une TableView pour afficher ces prescriptions,
+	 * Cette méthode crée une TableView chargée page par page depuis la base de données au fil du défilement,
 	 * crée un champ de recherche pour filtrer les prescriptions affichées, crée un bouton de retour, et affiche le tout dans une grille.
 	 * La vue est centrée sur la scène.
 	 */
 
 	public void afficheVueListesPrescriptions() {
-		List<String[]> PrescriptionList = bdd.recupererListePrescription();
-		
-		prescriptionList = FXCollections.observableArrayList(PrescriptionList);
-
 		GridPane mainPane = new GridPane();
 		mainPane.setAlignment(Pos.CENTER);
 		mainPane.setPadding(new Insets(10));
 
-		TableView<String[]> table = createTableViewPres();
+		TableView<LignePrescription> table = createTableViewPres();
 		mainPane.add(table, 0, 1);
+		TableauPagine<LignePrescription, Long> prescriptionList = new TableauPagine<>(table,
+				bdd::recupererPagePrescriptions, LignePrescription::id, 0L);
 
-		TextField searchField = createSearchFieldPres(table);
+		TextField searchField = createSearchFieldPres(prescriptionList);
 		mainPane.add(searchField, 0, 0);
 
 		Button backButton = createBackButton();
@@ -143,51 +160,46 @@ public class MedecinView extends Stage {
 	
 	
 	/**
-	 * Filtre les données dans le tableau en fonction du texte saisi.
+	 * Affiche les attentats dont le lieu commence par le texte saisi, recherchés
+	 * en base par index. Seul le résultat de la dernière saisie est affiché.
 	 *
 	 * @param searchText Le texte saisi dans le champ de recherche.
 	 * @param table      Le tableau à filtrer.
 	 */
-	public void filterTable(String searchText, TableView<String[]> table) {
-		if (listeAttentats == null) {
-			return;
-		}
-
-		if (searchText == null || searchText.isEmpty()) {
-			table.setItems(listeAttentats);
+	public void filterTable(String searchText, TableView<LigneAttentat> table) {
+		rechercheAttentats = searchText == null ? "" : searchText;
+		if (rechercheAttentats.isEmpty()) {
+			if (listeAttentats != null) {
+				table.setItems(listeAttentats);
+			}
 			return;
 		}
 
-		List<String[]> filteredList = listeAttentats.stream()
-				.filter(row -> row[0].toLowerCase().contains(searchText.toLowerCase())).collect(Collectors.toList());
-
-		table.setItems(FXCollections.observableArrayList(filteredList));
+		String recherche = rechercheAttentats;
+		bddAsynchrone.rechercherAttentats(recherche, TableauPagine.TAILLE_PAGE).thenAccept(attentats -> {
+			if (recherche.equals(rechercheAttentats)) {
+				table.setItems(FXCollections.observableArrayList(attentats));
+			}
+		});
 	}
 	
 	/**
 	 * Filtrer la TableView des prescriptions en fonction du texte de recherche.
-	 * Si la liste des prescriptions est null ou si le texte de recherche est vide, affiche toutes les prescriptions.
-	 * Sinon, filtre les prescriptions dont le prénom du patient contient le texte de recherche (ignorant la casse).
-	 * Met à jour la TableView avec la liste filtrée.
+	 * Si le texte de recherche est vide, affiche toutes les prescriptions page par page.
+	 * Sinon, affiche les prescriptions dont le nom du patient commence par le texte de recherche (ignorant la casse),
+	 * recherchées en base par index.
 	 *
 	 * @param searchText Le texte à rechercher dans les prescriptions.
-	 * @param table      La TableView des prescriptions à filtrer.
+	 * @param table      La TableView paginée des prescriptions à filtrer.
 	 */
 
-	public void filterTablePres(String searchText, TableView<String[]> table) {
-		if (prescriptionList == null) {
-			return;
-		}
-
+	public void filterTablePres(String searchText, TableauPagine<LignePrescription, Long> table) {
 		if (searchText == null || searchText.isEmpty()) {
-			table.setItems(prescriptionList);
+			table.recharger();
 			return;
 		}
 
-		List<String[]> filteredList = prescriptionList.stream()
-				.filter(row -> row[1].toLowerCase().contains(searchText.toLowerCase())).collect(Collectors.toList());
-
-		table.setItems(FXCollections.observableArrayList(filteredList));
+		table.rechercher(() -> bdd.rechercherPrescriptions(searchText, TableauPagine.TAILLE_PAGE));
 	}
 
 	/**
@@ -211,15 +223,14 @@ public class MedecinView extends Stage {
 	 * @param mainPane Le panneau principal où ajouter le bouton de retour.
 	 */
 	public void addBackButton(GridPane mainPane) {
-		ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-		imageView.setFitWidth(30);
-		imageView.setFitHeight(30);
+		ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
 		Button backButton = new Button();
 		backButton.setGraphic(imageView);
 
-		Logiciel logiciel = new Logiciel(primaryStage);
+		Logiciel logiciel = RegistreVues.de(primaryStage).accueil();
 		backButton.setOnAction(event -> {
+			bdd.retirerEcouteur(this);
 			logiciel.afficheVueAccueil();
 			this.close();
 		});
@@ -310,7 +321,9 @@ public class MedecinView extends Stage {
 	/**
 	 * Crée une fenêtre modale pour saisir les informations de prescription pour un patient.
 	 * La fenêtre affiche des champs pour le prénom du patient, le nom du patient, le médicament prescrit,
-	 * la quantité, et un menu déroulant pour sélectionner un attentat.
+	 * la quantité, et un menu déroulant pour sélectionner un attentat. Le médicament se choisit par
+	 * produit et dosage, la quantité étant prise sur les lots les plus proches de la péremption, ou
+	 * par lot précis si la case correspondante est cochée.
 	 * L'utilisateur peut valider les informations saisies, ce qui les enregistre dans la base de données.
 	 * Si la validation réussit, un message de succès est affiché et la vue du médecin est actualisée.
 	 * En cas d'échec de validation, un message d'erreur approprié est affiché.
@@ -341,7 +354,8 @@ public class MedecinView extends Stage {
 		
 		
 	    ComboBox<String> medicamentComboBox = new ComboBox<>();
-	    populateMedicamentComboBox(medicamentComboBox);
+	    CheckBox choixLotCheckBox = new CheckBox("Choisir un lot précis");
+	    populateMedicamentComboBox(medicamentComboBox, choixLotCheckBox);
 	    Spinner<Integer> quantiteSpinner = createQuantitySpinner();
 	    
 	    ComboBox<String> AttentatComboBox = new ComboBox<>();
@@ -350,13 +364,14 @@ public class MedecinView extends Stage {
 		
 		gridPane.addRow(1, new Label("Prénom patient :"), prenomTextField);
 		gridPane.addRow(2, new Label("Nom patient :"), nomTextField);
-		gridPane.addRow(3, new Label("Médicament prescrit :"), medicamentComboBox);
+		gridPane.addRow(3, new Label("Médicament prescrit :"), new VBox(5, medicamentComboBox, choixLotCheckBox));
 		gridPane.addRow(4, new Label("Quantité :"), quantiteSpinner);
 		gridPane.addRow(5, new Label("Attentat :"), AttentatComboBox);
 		
 		
 		Button validerButton = new Button("Valider");
 		validerButton.setStyle("-fx-background-color: linear-gradient(#8a2be2, #9370db);-fx-pref-width: 75px;-fx-pref-height: 2px; -fx-text-fill: white; -fx-font-size: 8pt; -fx-background-radius: 5; -fx-padding: 5;");
+		ProgressIndicator indicateur = Occupation.creerIndicateur();
 		validerButton.setOnAction(e -> {
 			String pnom = prenomTextField.getText();
 			String nom = nomTextField.getText();
@@ -370,44 +385,61 @@ public class MedecinView extends Stage {
 			if (validateFields(pnomEnMinuscule, nomEnMinuscules, medPrescrit, quantite, infoAttentat, errorLabel)) {
 				
 				String id_med = SessionController.getInstance().getUserId();
-				String result = bdd.insererPrescription(pnomEnMinuscule, nomEnMinuscules, medPrescrit, quantite, id_med, infoAttentat);
-				if ("Success".equals(result)) {
-					BV.afficherPrescriptions(pnom, nom);
-				successLabel.setText("Ajout de la prescription de " + pnom +" "+ nom + " réussi");
-				gridPane.add(successLabel, 0, 7, 2, 1); 
-				new Thread(() -> {
-					try {
-						Thread.sleep(2000);
-						Platform.runLater(() -> {
+				Occupation.pendant(bddAsynchrone.prescriptionExiste(pnomEnMinuscule, nomEnMinuscules)
+						.thenCompose(existe -> existe
+								? CompletableFuture.completedFuture("Une prescription pour ce patient existe déjà.")
+								: bddAsynchrone.insererPrescription(pnomEnMinuscule, nomEnMinuscules, medPrescrit,
+										quantite, id_med, infoAttentat)),
+						indicateur, validerButton).thenAccept(result -> {
+					if ("Success".equals(result)) {
+						successLabel.setText("Ajout de la prescription de " + pnom +" "+ nom + " réussi");
+						gridPane.add(successLabel, 0, 7, 2, 1); 
+						ServiceNavigation.apres(ServiceNavigation.DELAI_CONFIRMATION, () -> {
 							popupStage.close();
-							afficheVueMedecin(); 
+							afficheVueMedecin();
 						});
-					} catch (InterruptedException ex) {
-						ex.printStackTrace();
+					} else {
+						errorLabel.setText(result); 
 					}
-				}).start();
-			}else {
-			    errorLabel.setText(result); 
-			}} 
+				});
+			} 
 				
 		});
 
-		gridPane.addRow(6, validerButton);
-		popupStage.setScene(new Scene(gridPane, 450, 350)); 
+		gridPane.addRow(6, validerButton, indicateur);
+		popupStage.setScene(new Scene(gridPane, 450, 380)); 
 		popupStage.showAndWait();
 	}
 	
 	/**
-	 * Remplit un menu déroulant (ComboBox) avec les médicaments récupérés depuis la base de données.
-	 * Chaque élément du menu déroulant est composé du nom du médicament, de sa forme et de son dosage.
+	 * Remplit un menu déroulant (ComboBox) avec les médicaments délivrables, en stock et non périmés.
+	 * Par défaut, chaque élément est un produit et son dosage, une seule fois quel que soit le nombre
+	 * de ses lots ; quand la case est cochée, la liste est rechargée et chaque élément est un lot,
+	 * composé du nom du médicament, de son dosage et de sa date limite d'utilisation.
 	 *
 	 * @param comboBox Le menu déroulant à remplir avec les médicaments.
+	 * @param choixLot La case qui fait choisir un lot précis plutôt qu'un produit.
 	 */
 
-	public void populateMedicamentComboBox(ComboBox<String> comboBox) {
-	    List<String[]> medicaments = bdd.recupererStocksMedicaments();
-	    for (String[] medicament : medicaments) {
-	        comboBox.getItems().add(medicament[0].trim() + " ; " + medicament[2].trim() + " ; " + medicament[3].trim());
+	public void populateMedicamentComboBox(ComboBox<String> comboBox, CheckBox choixLot) {
+	    chargerMedicaments(comboBox, choixLot);
+	    choixLot.selectedProperty().addListener((observable, avant, parLot) -> {
+	        comboBox.getSelectionModel().clearSelection();
+	        chargerMedicaments(comboBox, choixLot);
+	    });
+	}
+
+	private void chargerMedicaments(ComboBox<String> comboBox, CheckBox choixLot) {
+	    if (choixLot.isSelected()) {
+	        Occupation.pendant(bddAsynchrone.recupererLotsDelivrables(), null, comboBox, choixLot).thenAccept(lots ->
+	                comboBox.getItems().setAll(lots.stream()
+	                        .map(lot -> lot.produit() + " ; " + lot.dosage() + " ; " + lot.dlu())
+	                        .toList()));
+	    } else {
+	        Occupation.pendant(bddAsynchrone.recupererProduitsDelivrables(), null, comboBox, choixLot).thenAccept(produits ->
+	                comboBox.getItems().setAll(produits.stream()
+	                        .map(produit -> produit.produit() + " ; " + produit.dosage())
+	                        .toList()));
 	    }
 	}
 
@@ -419,14 +451,16 @@ public class MedecinView extends Stage {
 	 */
 
 	public void populateAttentatComboBox(ComboBox<String> comboBox) {
-	    List<String[]> attentat = bdd.recupererListeAttentat();
-	    for (String[] Attentat : attentat) {
-	        comboBox.getItems().add(Attentat[0].trim() + " ; " + Attentat[3].trim() );
-	    }
+	    Occupation.pendant(bddAsynchrone.recupererAttentatsEnCache(), null, comboBox).thenAccept(attentat -> {
+	        for (LigneAttentat Attentat : attentat) {
+	            comboBox.getItems().add(Attentat.lieu() + " ; " + Attentat.dateEvenement());
+	        }
+	    });
 	}
 
 	/**
 	 * Valide les champs nécessaires pour l'ajout d'une prescription pour un patient.
+	 * L'absence de prescription existante est vérifiée en base lors de l'enregistrement.
 	 * 
 	 * @param pnom         Le prénom du patient.
 	 * @param nom          Le nom du patient.
@@ -454,11 +488,6 @@ public class MedecinView extends Stage {
 			return false;
 		}
 
-		if (bdd.prescriptionExiste(pnom, nom)) {
-	        errorLabel.setText("Une prescription pour ce patient existe déjà.");
-	        return false;
-	    }
-		
 		try {
 			
 			if (quantite <= 0 ) {
@@ -490,25 +519,14 @@ public class MedecinView extends Stage {
 	 *
 	 * @return Le TableView créé.
 	 */
-	public TableView<String[]> createTableView() {
-		TableView<String[]> table = new TableView<>();
-		for (int i = 0; i < 4; i++) {
-			TableColumn<String[], String> column = new TableColumn<>(nomsColonnes[i]);
-			int columnIndex = i;
-			if (i == 3) {
-				DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-				column.setCellValueFactory(cellData -> new SimpleStringProperty(
-						formatter.format(LocalDate.parse(cellData.getValue()[columnIndex]))));
-			} else {
-				column.setCellValueFactory(
-						cellData -> new SimpleStringProperty(cellData.getValue()[columnIndex].trim()));
-			}
-
-			column.setPrefWidth(200);
-
-			table.getColumns().add(column);
-		}
-		table.getItems().addAll(listeAttentats);
+	public TableView<LigneAttentat> createTableView() {
+		TableView<LigneAttentat> table = new TableView<>();
+		List<TableColumn<LigneAttentat, String>> colonnes = List.of(
+				Colonnes.texte("Lieu", LigneAttentat::lieu),
+				Colonnes.texte("Tot_blesses", LigneAttentat::totBlesses),
+				Colonnes.texte("Pers_à_soigner", LigneAttentat::persASoigner),
+				Colonnes.date("date_evenement", LigneAttentat::dateEvenement));
+		table.getColumns().addAll(colonnes);
 		return table;
 	}
 	
@@ -518,21 +536,18 @@ public class MedecinView extends Stage {
 	 * @return La TableView configurée pour afficher les informations des prescriptions.
 	 */
 
-	public TableView<String[]> createTableViewPres() {
-		TableView<String[]> table = new TableView<>();
-		for (int i = 0; i < 8; i++) {
-			TableColumn<String[], String> column = new TableColumn<>(nomsColonnesPres[i]);
-			int columnIndex = i;
-			
-				column.setCellValueFactory(
-						cellData -> new SimpleStringProperty(cellData.getValue()[columnIndex].trim()));
-			
-
-			column.setPrefWidth(200);
-
-			table.getColumns().add(column);
-		}
-		table.getItems().addAll(prescriptionList);
+	public TableView<LignePrescription> createTableViewPres() {
+		TableView<LignePrescription> table = new TableView<>();
+		List<TableColumn<LignePrescription, String>> colonnes = List.of(
+				Colonnes.texte("prénom", LignePrescription::prenom),
+				Colonnes.texte("nom", LignePrescription::nom),
+				Colonnes.texte("ID_MEDECIN", LignePrescription::idMedecin),
+				Colonnes.texte("nom_medicament", LignePrescription::nomMedicament),
+				Colonnes.texte("quantité", LignePrescription::quantite),
+				Colonnes.texte("date_prescription", LignePrescription::datePrescription),
+				Colonnes.texte("lieu_Attentat", LignePrescription::lieuAttentat),
+				Colonnes.texte("date_Attentat", LignePrescription::dateAttentat));
+		table.getColumns().addAll(colonnes);
 		return table;
 	}
 
@@ -543,7 +558,7 @@ public class MedecinView extends Stage {
 	 * @param table Le TableView à filtrer.
 	 * @return Le champ de recherche créé.
 	 */
-	public TextField createSearchField(TableView<String[]> table) {
+	public TextField createSearchField(TableView<LigneAttentat> table) {
 		TextField searchField = new TextField();
 		searchField.setPromptText("Rechercher un attentat avec son lieu");
 
@@ -561,11 +576,11 @@ public class MedecinView extends Stage {
 	/**
 	 * Crée et configure un champ de recherche permettant de filtrer les prescriptions dans la TableView associée.
 	 * 
-	 * @param table La TableView à filtrer.
+	 * @param table La TableView paginée à filtrer.
 	 * @return Le champ de recherche configuré pour filtrer les prescriptions.
 	 */
 
-	public TextField createSearchFieldPres(TableView<String[]> table) {
+	public TextField createSearchFieldPres(TableauPagine<LignePrescription, Long> table) {
 		TextField searchField = new TextField();
 		searchField.setPromptText("Rechercher une prescription par nom");
 
@@ -585,9 +600,7 @@ public class MedecinView extends Stage {
 	 * @return Le bouton de retour créé.
 	 */
 	public Button createBackButton() {
-		ImageView imageView = new ImageView(new Image("file:ressources/flèche.png"));
-		imageView.setFitWidth(30);
-		imageView.setFitHeight(30);
+		ImageView imageView = Images.vue(Images.FLECHE, 30, 30);
 
 		Button backButton = new Button();
 		backButton.setGraphic(imageView);
@@ -0,0 +1,73 @@
+package view;
+
+import java.util.concurrent.CompletableFuture;
+
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ProgressIndicator;
+
+/**
+ * Indicateur d'occupation affiché pendant un appel à la base de données :
+ * les contrôles concernés sont désactivés, le curseur de la scène passe en
+ * attente et l'indicateur de progression éventuel est rendu visible, jusqu'à
+ * la fin de l'appel.
+ */
+public final class Occupation {
+
+	private Occupation() {
+	}
+
+	/**
+	 * Crée un petit indicateur de progression, caché tant qu'aucun appel n'est en cours.
+	 *
+	 * @return L'indicateur créé.
+	 */
+	public static ProgressIndicator creerIndicateur() {
+		ProgressIndicator indicateur = new ProgressIndicator();
+		indicateur.setPrefSize(20, 20);
+		indicateur.setVisible(false);
+		return indicateur;
+	}
+
+	/**
+	 * Signale l'occupation pendant l'appel. Doit être appelé sur le thread
+	 * JavaFX, avec un appel dont le résultat est rendu sur ce même thread.
+	 *
+	 * @param <T>         Le type du résultat de l'appel.
+	 * @param appel       L'appel en cours.
+	 * @param indicateur  L'indicateur de progression à afficher, ou null.
+	 * @param desactives  Les contrôles à désactiver pendant l'appel.
+	 * @return L'appel, pour enchaîner le traitement du résultat.
+	 */
+	public static <T> CompletableFuture<T> pendant(CompletableFuture<T> appel, ProgressIndicator indicateur,
+			Node... desactives) {
+		if (appel.isDone()) {
+			return appel;
+		}
+		Scene scene = desactives.length > 0 ? desactives[0].getScene()
+				: indicateur != null ? indicateur.getScene() : null;
+		Cursor curseur = scene == null ? null : scene.getCursor();
+		for (Node noeud : desactives) {
+			noeud.setDisable(true);
+		}
+		if (indicateur != null) {
+			indicateur.setVisible(true);
+		}
+		if (scene != null) {
+			scene.setCursor(Cursor.WAIT);
+		}
+		appel.whenComplete((resultat, erreur) -> {
+			for (Node noeud : desactives) {
+				noeud.setDisable(false);
+			}
+			if (indicateur != null) {
+				indicateur.setVisible(false);
+			}
+			if (scene != null) {
+				scene.setCursor(curseur);
+			}
+		});
+		return appel;
+	}
+}
@@ -0,0 +1,81 @@
+package view;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javafx.stage.Stage;
+
+/**
+ * Registre des vues affichées dans une fenêtre principale. L'accueil et les
+ * vues des rôles sont créés à la première navigation vers eux puis réutilisés
+ * tant que la fenêtre existe, au lieu d'être reconstruits à chaque changement
+ * d'écran ; chaque affichage remet la vue à jour pour l'utilisateur connecté.
+ *
+ * La connexion n'y figure pas : sa fenêtre garde l'identifiant et le mot de
+ * passe saisis, et doit donc être recréée à chaque fois.
+ *
+ * Le registre s'utilise depuis le thread JavaFX.
+ */
+public final class RegistreVues {
+	private static final Map<Stage, RegistreVues> registres = new WeakHashMap<>();
+
+	private final Stage primaryStage;
+	private Logiciel accueil;
+	private MedecinView medecin;
+	private LogisticienView logisticien;
+	private BlesseView blesse;
+
+	private RegistreVues(Stage primaryStage) {
+		this.primaryStage = primaryStage;
+	}
+
+	/**
+	 * Renvoie le registre des vues d'une fenêtre principale.
+	 *
+	 * @param primaryStage La fenêtre principale.
+	 * @return Le registre de cette fenêtre.
+	 */
+	public static RegistreVues de(Stage primaryStage) {
+		return registres.computeIfAbsent(primaryStage, RegistreVues::new);
+	}
+
+	/**
+	 * @return La page d'accueil.
+	 */
+	public Logiciel accueil() {
+		if (accueil == null) {
+			accueil = new Logiciel(primaryStage);
+		}
+		return accueil;
+	}
+
+	/**
+	 * @return La vue du médecin.
+	 */
+	public MedecinView medecin() {
+		if (medecin == null) {
+			medecin = new MedecinView(primaryStage);
+		}
+		return medecin;
+	}
+
+	/**
+	 * @return La vue du logisticien.
+	 */
+	public LogisticienView logisticien() {
+		if (logisticien == null) {
+			logisticien = new LogisticienView(primaryStage);
+		}
+		return logisticien;
+	}
+
+	/**
+	 * @return La fiche du blessé.
+	 */
+	public BlesseView blesse() {
+		if (blesse == null) {
+			blesse = new BlesseView(primaryStage);
+		}
+		return blesse;
+	}
+}
@@ -0,0 +1,307 @@
+package view;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Modèle de TableView ou de ListView chargé page par page au fil du défilement.
+ * Les pages sont lues en arrière-plan par pagination par clé ; seules les
+ * {@code pagesMax} pages autour de la zone visible sont gardées en mémoire,
+ * les autres sont relues à la demande lorsque l'utilisateur revient en arrière.
+ *
+ * @param <T> Le type des lignes de la table.
+ * @param <K> Le type de la clé de pagination.
+ */
+public class TableauPagine<T, K> {
+
+	/** Nombre de lignes lues par page. */
+	public static final int TAILLE_PAGE = 200;
+	/** Nombre de pages conservées dans la table. */
+	public static final int PAGES_MAX = 4;
+
+	private static final ExecutorService CHARGEMENT = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "escrim-pagination");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Lecture d'une page de lignes à partir d'un curseur.
+	 *
+	 * @param <T> Le type des lignes.
+	 * @param <K> Le type de la clé de pagination.
+	 */
+	@FunctionalInterface
+	public interface ChargeurPage<T, K> {
+		/**
+		 * @param curseur  La clé de la ligne de référence.
+		 * @param suivante true pour les lignes qui suivent le curseur, false pour celles qui le précèdent.
+		 * @param taille   Le nombre maximal de lignes.
+		 * @return Les lignes de la page, dans l'ordre croissant des clés.
+		 */
+		List<T> charger(K curseur, boolean suivante, int taille);
+	}
+
+	/**
+	 * Page affichée : ses lignes et les clés de la première et de la dernière.
+	 */
+	private static final class Page<T, K> {
+		private final List<T> lignes;
+		private final K premiere;
+		private final K derniere;
+		private final boolean bout;
+
+		private Page(List<T> lignes, K premiere, K derniere, boolean bout) {
+			this.lignes = lignes;
+			this.premiere = premiere;
+			this.derniere = derniere;
+			this.bout = bout;
+		}
+	}
+
+	private final Control vue;
+	private final ObservableList<T> lignes;
+	private final IntConsumer defilement;
+	private final ChargeurPage<T, K> chargeur;
+	private final Function<T, K> cle;
+	private final K debut;
+	private final int taillePage;
+	private final int pagesMax;
+	private final Deque<Page<T, K>> pages = new ArrayDeque<>();
+	private VirtualFlow<?> flux;
+	private boolean chargementEnCours;
+	private boolean debutAtteint;
+	private boolean finAtteinte;
+	private int generation;
+
+	/**
+	 * Constructeur avec la taille de page et le nombre de pages par défaut.
+	 *
+	 * @param table    La table à remplir.
+	 * @param chargeur La lecture d'une page en base.
+	 * @param cle      La clé de pagination d'une ligne.
+	 * @param debut    La clé qui précède toutes les lignes.
+	 */
+	public TableauPagine(TableView<T> table, ChargeurPage<T, K> chargeur, Function<T, K> cle, K debut) {
+		this(table, chargeur, cle, debut, TAILLE_PAGE, PAGES_MAX);
+	}
+
+	/**
+	 * Constructeur du modèle paginé. La première page est chargée aussitôt.
+	 *
+	 * @param table      La table à remplir.
+	 * @param chargeur   La lecture d'une page en base.
+	 * @param cle        La clé de pagination d'une ligne.
+	 * @param debut      La clé qui précède toutes les lignes.
+	 * @param taillePage Le nombre de lignes lues par page.
+	 * @param pagesMax   Le nombre de pages conservées dans la table.
+	 */
+	public TableauPagine(TableView<T> table, ChargeurPage<T, K> chargeur, Function<T, K> cle, K debut, int taillePage,
+			int pagesMax) {
+		this(table, table.getItems(), table::scrollTo, chargeur, cle, debut, taillePage, pagesMax);
+	}
+
+	/**
+	 * Constructeur du modèle paginé d'une liste. La première page est chargée aussitôt.
+	 *
+	 * @param liste      La liste à remplir.
+	 * @param chargeur   La lecture d'une page en base.
+	 * @param cle        La clé de pagination d'une ligne.
+	 * @param debut      La clé qui précède toutes les lignes.
+	 * @param taillePage Le nombre de lignes lues par page.
+	 * @param pagesMax   Le nombre de pages conservées dans la liste.
+	 */
+	public TableauPagine(ListView<T> liste, ChargeurPage<T, K> chargeur, Function<T, K> cle, K debut, int taillePage,
+			int pagesMax) {
+		this(liste, liste.getItems(), liste::scrollTo, chargeur, cle, debut, taillePage, pagesMax);
+	}
+
+	private TableauPagine(Control vue, ObservableList<T> lignes, IntConsumer defilement, ChargeurPage<T, K> chargeur,
+			Function<T, K> cle, K debut, int taillePage, int pagesMax) {
+		this.vue = vue;
+		this.lignes = lignes;
+		this.defilement = defilement;
+		this.chargeur = chargeur;
+		this.cle = cle;
+		this.debut = debut;
+		this.taillePage = taillePage;
+		this.pagesMax = pagesMax;
+		vue.skinProperty().addListener((obs, ancien, nouveau) -> attacherFlux());
+		attacherFlux();
+		recharger();
+	}
+
+	/**
+	 * Remplace les lignes de la table par le résultat d'une recherche, lu en
+	 * arrière-plan. Le défilement ne charge plus de page jusqu'au prochain
+	 * {@link #recharger()}.
+	 *
+	 * @param recherche La lecture en base des lignes trouvées.
+	 */
+	public void rechercher(Supplier<List<T>> recherche) {
+		generation++;
+		int generationDemandee = generation;
+		chargementEnCours = true;
+		pages.clear();
+		debutAtteint = true;
+		finAtteinte = true;
+		Task<List<T>> tache = new Task<>() {
+			@Override
+			protected List<T> call() {
+				return recherche.get();
+			}
+		};
+		tache.setOnSucceeded(event -> {
+			if (generationDemandee == generation) {
+				chargementEnCours = false;
+				lignes.setAll(tache.getValue());
+				defilement.accept(0);
+			}
+		});
+		tache.setOnFailed(event -> {
+			if (generationDemandee == generation) {
+				chargementEnCours = false;
+				tache.getException().printStackTrace();
+			}
+		});
+		CHARGEMENT.execute(tache);
+	}
+
+	/**
+	 * Vide la table et relit la première page.
+	 */
+	public void recharger() {
+		generation++;
+		chargementEnCours = false;
+		pages.clear();
+		lignes.clear();
+		debutAtteint = true;
+		finAtteinte = false;
+		charger(debut, true);
+	}
+
+	/**
+	 * Récupère le flux virtuel de la table une fois son habillage créé, pour
+	 * suivre le défilement.
+	 */
+	private void attacherFlux() {
+		if (vue.getSkin() == null || flux != null) {
+			return;
+		}
+		flux = (VirtualFlow<?>) vue.lookup(".virtual-flow");
+		if (flux != null) {
+			flux.positionProperty().addListener((obs, ancienne, nouvelle) -> verifierBords());
+			flux.heightProperty().addListener((obs, ancienne, nouvelle) -> verifierBords());
+		}
+	}
+
+	/**
+	 * Charge la page suivante ou précédente lorsque la zone visible atteint un
+	 * bord des lignes en mémoire.
+	 */
+	private void verifierBords() {
+		if (chargementEnCours || flux == null || pages.isEmpty()) {
+			return;
+		}
+		IndexedCell<?> derniere = flux.getLastVisibleCell();
+		IndexedCell<?> premiere = flux.getFirstVisibleCell();
+		if (!finAtteinte && (derniere == null || derniere.getIndex() >= lignes.size() - 1)) {
+			charger(pages.getLast().derniere, true);
+		} else if (!debutAtteint && premiere != null && premiere.getIndex() <= 0) {
+			charger(pages.getFirst().premiere, false);
+		}
+	}
+
+	private void charger(K curseur, boolean suivante) {
+		chargementEnCours = true;
+		int generationDemandee = generation;
+		Task<Page<T, K>> tache = new Task<>() {
+			@Override
+			protected Page<T, K> call() {
+				return lirePage(curseur, suivante);
+			}
+		};
+		tache.setOnSucceeded(event -> {
+			if (generationDemandee == generation) {
+				chargementEnCours = false;
+				appliquer(tache.getValue(), suivante);
+			}
+		});
+		tache.setOnFailed(event -> {
+			if (generationDemandee == generation) {
+				chargementEnCours = false;
+				tache.getException().printStackTrace();
+			}
+		});
+		CHARGEMENT.execute(tache);
+	}
+
+	/**
+	 * Lit en base la page qui suit ou précède le curseur.
+	 */
+	private Page<T, K> lirePage(K curseur, boolean suivante) {
+		List<T> lignes = chargeur.charger(curseur, suivante, taillePage);
+		if (lignes.isEmpty()) {
+			return new Page<>(lignes, null, null, true);
+		}
+		return new Page<>(lignes, cle.apply(lignes.get(0)), cle.apply(lignes.get(lignes.size() - 1)),
+				lignes.size() < taillePage);
+	}
+
+	/**
+	 * Ajoute la page chargée à la table et retire la page la plus éloignée si
+	 * la limite est dépassée, sans déplacer la zone visible.
+	 */
+	private void appliquer(Page<T, K> page, boolean suivante) {
+		if (suivante) {
+			finAtteinte = page.bout;
+		} else {
+			debutAtteint = page.bout;
+		}
+		if (page.premiere == null) {
+			return;
+		}
+		int premiereVisible = premiereLigneVisible();
+		if (suivante) {
+			pages.addLast(page);
+			lignes.addAll(page.lignes);
+			if (pages.size() > pagesMax) {
+				int retirees = pages.removeFirst().lignes.size();
+				lignes.remove(0, retirees);
+				debutAtteint = false;
+				defilement.accept(Math.max(0, premiereVisible - retirees));
+			}
+		} else {
+			pages.addFirst(page);
+			lignes.addAll(0, page.lignes);
+			if (pages.size() > pagesMax) {
+				int retirees = pages.removeLast().lignes.size();
+				int taille = lignes.size();
+				lignes.remove(taille - retirees, taille);
+				finAtteinte = false;
+			}
+			defilement.accept(premiereVisible + page.lignes.size());
+		}
+		vue.layout();
+		verifierBords();
+	}
+
+	private int premiereLigneVisible() {
+		IndexedCell<?> premiere = flux == null ? null : flux.getFirstVisibleCell();
+		return premiere == null ? 0 : Math.max(0, premiere.getIndex());
+	}
+}